@@ -250,6 +250,36 @@ public function store(StoreChambreRequest $request): JsonResponse
         }
     }
 
+    /**
+     * GET /api/chambres/{id}/statut
+     * Statut seul d'une chambre (re-vérifié souvent par le service réservations,
+     * qui garde le reste de la fiche en cache)
+     */
+    public function statut(string $id): JsonResponse
+    {
+        try {
+            $chambre = Chambre::select('id_chambre', 'statut')->findOrFail($id);
+
+            return response()->json([
+                'success' => true,
+                'data' => $chambre,
+                'message' => 'Statut récupéré avec succès'
+            ], 200);
+
+        } catch (\Illuminate\Database\Eloquent\ModelNotFoundException $e) {
+            return response()->json([
+                'success' => false,
+                'message' => 'Chambre introuvable',
+            ], 404);
+        } catch (\Exception $e) {
+            return response()->json([
+                'success' => false,
+                'message' => 'Erreur lors de la récupération du statut',
+                'error' => $e->getMessage()
+            ], 500);
+        }
+    }
+
     /**
      * GET /api/chambres/{id}
      * Afficher une chambre spécifique
@@ -33,6 +33,7 @@
     Route::get('/', [ChambreController::class, 'index']);
     Route::get('/search', [ChambreController::class, 'search']);
     Route::get('/disponibilite', [ChambreController::class, 'search']);
+    Route::get('/{id}/statut', [ChambreController::class, 'statut']);
     Route::get('/{id}', [ChambreController::class, 'show']);
     Route::get('/numero/{numero}', [ChambreController::class, 'findByNumero']);
 
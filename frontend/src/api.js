@@ -19,14 +19,51 @@ api.interceptors.request.use(
     }
 );
 
+// Renouvellement du jeton d'accès (15 min) avec le jeton de rafraîchissement :
+// une seule requête /auth/refresh à la fois, partagée par les appels qui ont échoué ensemble
+let renouvellementEnCours = null;
+
+export const rafraichirSession = () => {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (!refreshToken) {
+        return Promise.reject(new Error('Aucun jeton de rafraîchissement'));
+    }
+    if (!renouvellementEnCours) {
+        renouvellementEnCours = axios
+            .post(`${api.defaults.baseURL}/auth/refresh`, { refreshToken })
+            .then((response) => {
+                localStorage.setItem('token', response.data.token);
+                localStorage.setItem('refreshToken', response.data.refreshToken);
+                return response.data.token;
+            })
+            .finally(() => {
+                renouvellementEnCours = null;
+            });
+    }
+    return renouvellementEnCours;
+};
+
+// Déconnexion : le jeton de rafraîchissement est révoqué côté serveur
+export const deconnexion = () => {
+    const refreshToken = localStorage.getItem('refreshToken');
+    localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
+    localStorage.removeItem('user');
+    if (refreshToken) {
+        axios.post(`${api.defaults.baseURL}/auth/logout`, { refreshToken }).catch(() => {});
+    }
+};
+
 // Intercepteur pour gérer les erreurs
 api.interceptors.response.use(
     (response) => response,
-    (error) => {
+    async (error) => {
         // ✅ Liste des routes publiques (pas de redirection sur 401)
         const publicRoutes = [
             '/auth/login',
             '/auth/register',
+            '/auth/refresh',
+            '/auth/logout',
             '/auth/forgot-password',
             '/auth/validate-reset-token',  // ✅ AJOUTÉ
             '/auth/reset-password',
@@ -38,10 +75,25 @@ api.interceptors.response.use(
             error.config?.url?.includes(route)
         );
 
+        // Jeton d'accès expiré ou révoqué (requête anonyme : 401 ou 403) : renouvelé puis requête rejouée une fois
+        const status = error.response?.status;
+        if ((status === 401 || status === 403) && !isPublicRoute && !error.config._rejouee
+                && localStorage.getItem('refreshToken')) {
+            try {
+                const token = await rafraichirSession();
+                error.config._rejouee = true;
+                error.config.headers.Authorization = `Bearer ${token}`;
+                return api(error.config);
+            } catch (e) {
+                deconnexion();
+                window.location.href = '/';
+                return Promise.reject(error);
+            }
+        }
+
         // Ne rediriger que si ce n'est PAS une route publique
-        if (error.response?.status === 401 && !isPublicRoute) {
-            localStorage.removeItem('token');
-            localStorage.removeItem('user');
+        if (status === 401 && !isPublicRoute) {
+            deconnexion();
             window.location.href = '/';
         }
 
@@ -1,21 +1,22 @@
 import axios from 'axios';
+import { rafraichirSession } from '../api';
 
 const reservationApi = axios.create({
     baseURL: process.env.REACT_APP_RESERVATION_API_URL || 'http://localhost:8083/api',
     timeout: 10000,
 });
 
-// ✅ Intercepteur avec Basic Auth (comme le backend attend)
+// ✅ Intercepteur avec le JWT de l'utilisateur connecté (vérifié par le backend sans BCrypt)
 reservationApi.interceptors.request.use(
     (config) => {
-        // Utiliser Basic Auth comme le backend
-        const token = btoa('admin:admin123');
-        config.headers.Authorization = `Basic ${token}`;
+        const token = localStorage.getItem('token');
+        if (token) {
+            config.headers.Authorization = `Bearer ${token}`;
+        }
         config.headers['Content-Type'] = 'application/json';
         config.headers['Accept'] = 'application/json';
 
         console.log('🔐 Requête Réservation API:', config.method?.toUpperCase(), config.url);
-        console.log('🔐 Auth Header:', config.headers.Authorization);
 
         return config;
     },
@@ -30,7 +31,20 @@ reservationApi.interceptors.response.use(
         console.log('✅ Réponse Réservation API réussie:', response.status);
         return response;
     },
-    (error) => {
+    async (error) => {
+        const status = error.response?.status;
+        // Jeton d'accès expiré : renouvelé auprès du service utilisateurs, requête rejouée une fois
+        if ((status === 401 || status === 403) && !error.config?._rejouee && localStorage.getItem('refreshToken')) {
+            try {
+                const token = await rafraichirSession();
+                error.config._rejouee = true;
+                error.config.headers.Authorization = `Bearer ${token}`;
+                return reservationApi(error.config);
+            } catch (e) {
+                // Session terminée : erreur d'origine rendue à l'appelant
+            }
+        }
+
         console.error('❌ Erreur Réservation API:', {
             status: error.response?.status,
             message: error.response?.data?.message || error.message,
@@ -38,11 +52,23 @@ reservationApi.interceptors.response.use(
         });
 
         if (error.response?.status === 401 || error.response?.status === 403) {
-            console.error('🔐 Erreur d\'authentification Basic Auth');
+            console.error('🔐 Erreur d\'authentification (jeton absent ou expiré)');
         }
 
         return Promise.reject(error);
     }
 );
 
+// Listes paginées par curseur : le curseur de la page suivante est dans l'en-tête X-Next-After
+export const getToutesLesPages = async (url, params = {}) => {
+    const elements = [];
+    let after;
+    do {
+        const response = await reservationApi.get(url, { params: { ...params, after, limit: 500 } });
+        elements.push(...response.data);
+        after = response.headers['x-next-after'];
+    } while (after);
+    return elements;
+};
+
 export default reservationApi;
@@ -1,5 +1,6 @@
 import React from 'react';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
+import { deconnexion } from '../api';
 import '../App.css';
 
 const Sidebar = () => {
@@ -7,8 +8,7 @@ const Sidebar = () => {
     const navigate = useNavigate();
 
     const handleLogout = () => {
-        localStorage.removeItem('token');
-        localStorage.removeItem('user');
+        deconnexion();
         navigate('/');
     };
 
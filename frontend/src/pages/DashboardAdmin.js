@@ -1,7 +1,7 @@
 import React, { useState, useEffect, useCallback } from "react";
-import api from "../api";
+import api, { deconnexion } from "../api";
 import chambreApi from "../api/chambreApi";
-import reservationApi from "../api/reservationApi";
+import { getToutesLesPages } from "../api/reservationApi";
 import "./Dashboard.css";
 import { useNavigate } from "react-router-dom";
 
@@ -133,12 +133,10 @@ function DashboardAdmin() {
             }
 
             // Stats réservations
-            const reservationsRes = await reservationApi.get('/reservations');
-            const reservationsData = reservationsRes.data;
+            const reservationsData = await getToutesLesPages('/reservations');
 
             // Calculer le revenu à partir des factures
-            const facturesRes = await reservationApi.get('/factures');
-            const facturesData = facturesRes.data;
+            const facturesData = await getToutesLesPages('/factures');
 
             const revenue = facturesData
                 .filter(facture => facture.etat === 'PAYEE')
@@ -243,8 +241,7 @@ function DashboardAdmin() {
     const loadReservations = useCallback(async () => {
         setLoading(true);
         try {
-            const response = await reservationApi.get('/reservations');
-            setReservations(response.data);
+            setReservations(await getToutesLesPages('/reservations'));
 
             // Charger clients si pas déjà fait
             if (clients.length === 0) {
@@ -506,8 +503,7 @@ function DashboardAdmin() {
     }, [activeMenu, loadStats, loadUsers, loadChambres, loadReservations]);
 
     const handleLogout = () => {
-        localStorage.removeItem("user");
-        localStorage.removeItem("token");
+        deconnexion();
         navigate("/");
     };
 
@@ -1,8 +1,9 @@
 import React, { useState, useEffect } from "react";
 import "./Dashboard.css";
 import { useNavigate } from "react-router-dom";
-import api from "../api";
+import api, { deconnexion } from "../api";
 import axios from 'axios';
+import { getToutesLesPages } from '../api/reservationApi';
 import ChambresDisponibles from './ChambresDisponibles';
 import ModalPaiement from '../components/ModalPaiement';  // ✅ NOUVEAU
 
@@ -72,17 +73,8 @@ function DashboardClient() {
 
             console.log('🔍 Récupération des réservations pour userId:', userId);
 
-            const response = await axios.get(
-                `http://localhost:8083/api/reservations?idClient=${userId}`,
-                {
-                    auth: {
-                        username: 'admin',
-                        password: 'admin123'
-                    }
-                }
-            );
-
-            const reservationsData = response.data;
+            // Liste paginée par curseur : toutes les pages du client, 500 par requête
+            const reservationsData = await getToutesLesPages('/reservations', { idClient: userId });
             console.log('✅ Réservations récupérées:', reservationsData);
 
             setReservations(reservationsData);
@@ -121,17 +113,7 @@ function DashboardClient() {
 
             console.log('🔍 Récupération des factures pour userId:', userId);
 
-            const reservationsResponse = await axios.get(
-                `http://localhost:8083/api/reservations?idClient=${userId}`,
-                {
-                    auth: {
-                        username: 'admin',
-                        password: 'admin123'
-                    }
-                }
-            );
-
-            const reservationsData = reservationsResponse.data;
+            const reservationsData = await getToutesLesPages('/reservations', { idClient: userId });
 
             const allFactures = reservationsData
                 .filter(r => r.facture)
@@ -263,8 +245,7 @@ function DashboardClient() {
     };
 
     const handleLogout = () => {
-        localStorage.removeItem("user");
-        localStorage.removeItem("token");
+        deconnexion();
         navigate("/");
     };
 
@@ -1,6 +1,6 @@
 import React, { useState, useEffect, useCallback } from "react";
-import api from "../api";
-import reservationApi from "../api/reservationApi";
+import api, { deconnexion } from "../api";
+import reservationApi, { getToutesLesPages } from "../api/reservationApi";
 import chambreApi from "../api/chambreApi";
 import paiementApi from '../api/paiementApi';  // ✅ AJOUTÉ
 import "./Dashboard.css";
@@ -53,8 +53,7 @@ function DashboardReceptionniste() {
     }, []);
 
     const handleLogout = () => {
-        localStorage.removeItem("user");
-        localStorage.removeItem("token");
+        deconnexion();
         navigate("/");
     };
 
@@ -75,8 +74,7 @@ function DashboardReceptionniste() {
     const loadReservations = useCallback(async () => {
         setReservationsLoading(true);
         try {
-            const response = await reservationApi.get('/reservations');
-            setReservations(Array.isArray(response.data) ? response.data : []);
+            setReservations(await getToutesLesPages('/reservations'));
         } catch (err) {
             console.error("Erreur chargement réservations:", err);
             showMessage('error', "Erreur lors du chargement des réservations");
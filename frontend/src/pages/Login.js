@@ -1,5 +1,5 @@
 import React, { useState, useEffect, useCallback } from "react";
-import api from "../api";
+import api, { deconnexion } from "../api";
 import { useNavigate, Link } from "react-router-dom";
 import "./Login.css";
 
@@ -47,7 +47,7 @@ function Login() {
                 motDePasse
             });
 
-            const { user, token } = response.data;
+            const { user, token, refreshToken } = response.data;
 
             if (!token) {
                 throw new Error("Token manquant dans la réponse");
@@ -55,6 +55,7 @@ function Login() {
 
             localStorage.setItem("user", JSON.stringify({ user }));
             localStorage.setItem("token", token);
+            localStorage.setItem("refreshToken", refreshToken);
 
             if (rememberMe) {
                 localStorage.setItem("rememberMe", "true");
@@ -74,8 +75,7 @@ function Login() {
     };
 
     const handleLogout = () => {
-        localStorage.removeItem("token");
-        localStorage.removeItem("user");
+        deconnexion();
         window.location.reload();
     };
 
@@ -0,0 +1,35 @@
+package com.hotel.paiement_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    @Value("${app.reglement.pool-size:4}")
+    private int reglementPoolSize;
+
+    /**
+     * Pool des règlements de factures vers le service réservations (file reglement_outbox).
+     * Un lot ne dépasse jamais la file : si le pool est occupé, le planificateur attend.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor reglementExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(reglementPoolSize);
+        executor.setMaxPoolSize(reglementPoolSize);
+        executor.setQueueCapacity(reglementPoolSize * 2);
+        executor.setThreadNamePrefix("reglement-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,33 +1,119 @@
 package com.hotel.paiement_service.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.hotel.paiement_service.security.JetonService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 @Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class RestTemplateConfig {
 
-    @Value("${services.reservation.username:admin}")
-    private String reservationUsername;
+    /**
+     * Pool de connexions partagé par tous les appels inter-services
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager(HttpClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getDefaultMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.getConnectionTtl()))
+                        .build())
+                .build();
 
-    @Value("${services.reservation.password:admin123}")
-    private String reservationPassword;
+        // Limites par destination
+        properties.getRoutes().values().forEach(route ->
+                connectionManager.setMaxPerRoute(toRoute(route.getUrl()), route.getMaxConnections()));
+
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager,
+                                          HttpClientProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+                .build();
+    }
 
     /**
-     * ✅ RestTemplate avec Basic Authentication
+     * ✅ RestTemplate avec jeton de service (Bearer)
      * pour communiquer avec le service Réservation
      */
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient httpClient, JetonService jetonService) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
 
-        // ✅ Ajouter Basic Auth (admin:admin123)
-        restTemplate.getInterceptors().add(
-                new BasicAuthenticationInterceptor(reservationUsername, reservationPassword)
-        );
+        // ✅ Jeton de service signé une fois et réutilisé (plus de Basic Auth vérifié en BCrypt à chaque appel)
+        restTemplate.getInterceptors().add((request, body, execution) -> {
+            request.getHeaders().setBearerAuth(jetonService.jeton());
+            return execution.execute(request, body);
+        });
 
         return restTemplate;
     }
-}
\ No newline at end of file
+
+    /**
+     * Métriques du pool (leased / available / pending / max) exposées via /actuator/metrics
+     */
+    @Bean
+    public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager,
+                                             HttpClientProperties properties) {
+        return registry -> {
+            registerPoolGauges(registry, "all", httpConnectionManager::getTotalStats);
+            properties.getRoutes().forEach((name, route) -> {
+                HttpRoute httpRoute = toRoute(route.getUrl());
+                registerPoolGauges(registry, name, () -> httpConnectionManager.getStats(httpRoute));
+            });
+        };
+    }
+
+    private static void registerPoolGauges(MeterRegistry registry, String route, Supplier<PoolStats> stats) {
+        registerGauge(registry, "leased", route, stats, PoolStats::getLeased);
+        registerGauge(registry, "available", route, stats, PoolStats::getAvailable);
+        registerGauge(registry, "pending", route, stats, PoolStats::getPending);
+        registerGauge(registry, "max", route, stats, PoolStats::getMax);
+    }
+
+    private static void registerGauge(MeterRegistry registry, String name, String route,
+                                      Supplier<PoolStats> stats, Function<PoolStats, Integer> value) {
+        Gauge.builder("http.client.pool." + name, stats, s -> value.apply(s.get()))
+                .tag("route", route)
+                .register(registry);
+    }
+
+    private static HttpRoute toRoute(String url) {
+        URI uri = URI.create(url);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port));
+    }
+}
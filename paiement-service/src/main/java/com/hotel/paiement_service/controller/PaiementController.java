@@ -1,7 +1,10 @@
 package com.hotel.paiement_service.controller;
 
 import com.hotel.paiement_service.model.Paiement;
+import com.hotel.paiement_service.model.RevenuAgregat;
+import com.hotel.paiement_service.service.IdempotenceService;
 import com.hotel.paiement_service.service.PaiementService;
+import com.hotel.paiement_service.service.RevenuService;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
@@ -9,11 +12,13 @@ import com.stripe.param.PaymentIntentCreateParams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,6 +29,8 @@ import java.util.Map;
 public class PaiementController {
 
     private final PaiementService paiementService;
+    private final IdempotenceService idempotenceService;
+    private final RevenuService revenuService;
 
     @Value("${stripe.secret-key}")
     private String stripeSecretKey;
@@ -42,9 +49,15 @@ public class PaiementController {
     /**
      * 💵 Enregistrer un paiement en CASH (sur place)
      * POST /api/paiements/cash
+     * En-tête Idempotency-Key (optionnel) : un nouvel envoi rejoue la première réponse
      */
     @PostMapping("/cash")
-    public ResponseEntity<?> payerCash(@RequestBody PaiementCashRequest request) {
+    public ResponseEntity<?> payerCash(@RequestBody PaiementCashRequest request,
+                                       @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle) {
+        return idempotenceService.executer(cle, "cash", request, () -> enregistrerCash(request));
+    }
+
+    private ResponseEntity<?> enregistrerCash(PaiementCashRequest request) {
         try {
             log.info("💵 Réception demande paiement CASH - Facture: {}", request.getIdFacture());
 
@@ -125,9 +138,15 @@ public class PaiementController {
     /**
      * ✅ ÉTAPE 2 : Confirmer le paiement Stripe
      * POST /api/paiements/stripe/confirm
+     * En-tête Idempotency-Key (optionnel) : un nouvel envoi rejoue la première réponse
      */
     @PostMapping("/stripe/confirm")
-    public ResponseEntity<?> confirmStripePayment(@RequestBody StripeConfirmRequest request) {
+    public ResponseEntity<?> confirmStripePayment(@RequestBody StripeConfirmRequest request,
+                                                  @RequestHeader(value = IdempotenceService.ENTETE, required = false) String cle) {
+        return idempotenceService.executer(cle, "stripe-confirm", request, () -> confirmerStripe(request));
+    }
+
+    private ResponseEntity<?> confirmerStripe(StripeConfirmRequest request) {
         try {
             log.info("✅ Confirmation paiement Stripe - Facture: {}, PaymentIntent: {}",
                     request.getIdFacture(), request.getPaymentIntentId());
@@ -160,23 +179,64 @@ public class PaiementController {
     // ==================== ENDPOINTS UTILITAIRES ====================
 
     /**
-     * 📋 Récupérer tous les paiements
-     * GET /api/paiements
+     * 📋 Liste paginée par curseur
+     * GET /api/paiements?after=&limit=&idReservation=&mode=&statut=&from=&to=
+     * (from / to portent sur la date de paiement ; curseur suivant dans l'en-tête X-Next-After)
      */
     @GetMapping
-    public ResponseEntity<?> getAllPaiements() {
-        // À implémenter si besoin pour l'admin
-        return ResponseEntity.ok(Map.of("message", "Endpoint à implémenter"));
+    public ResponseEntity<?> getAllPaiements(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long idReservation,
+            @RequestParam(required = false) Paiement.ModePaiement mode,
+            @RequestParam(required = false) Paiement.StatutPaiement statut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return lister(after, limit, null, idReservation, mode, statut, from, to);
     }
 
     /**
-     * 🔍 Récupérer un paiement par facture
-     * GET /api/paiements/facture/{idFacture}
+     * 🔍 Paiements d'une facture (même pagination que la liste)
+     * GET /api/paiements/facture/{idFacture}?after=&limit=
      */
     @GetMapping("/facture/{idFacture}")
-    public ResponseEntity<?> getPaiementByFacture(@PathVariable Long idFacture) {
-        // À implémenter si besoin
-        return ResponseEntity.ok(Map.of("message", "Endpoint à implémenter"));
+    public ResponseEntity<?> getPaiementByFacture(@PathVariable Long idFacture,
+                                                  @RequestParam(required = false) Long after,
+                                                  @RequestParam(required = false) Integer limit) {
+        return lister(after, limit, idFacture, null, null, null, null, null);
+    }
+
+    /**
+     * 📊 Chiffre d'affaires par jour (ou par mois) et par mode de paiement, lu dans les agrégats
+     * GET /api/paiements/stats?from=&to=&granularite=JOUR|MOIS (période [from, to[)
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "JOUR") RevenuAgregat.Periode granularite) {
+        try {
+            return ResponseEntity.ok(revenuService.statistiques(from, to, granularite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Erreur: " + e.getMessage()
+            ));
+        }
+    }
+
+    private ResponseEntity<?> lister(Long after, Integer limit, Long idFacture, Long idReservation,
+                                     Paiement.ModePaiement mode, Paiement.StatutPaiement statut,
+                                     LocalDate from, LocalDate to) {
+        try {
+            return paiementService.listerPaiements(after, limit, idFacture, idReservation, mode, statut, from, to)
+                    .enReponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Erreur: " + e.getMessage()
+            ));
+        }
     }
 
     // ==================== CLASSES DTO ====================
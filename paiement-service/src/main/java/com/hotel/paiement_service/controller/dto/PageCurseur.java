@@ -0,0 +1,52 @@
+package com.hotel.paiement_service.controller.dto;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page d'une liste parcourue par curseur (keyset) :
+ * {@code suivant} est la valeur à passer en {@code after} pour la page suivante, null à la fin.
+ * Copie de reservation-service controller.dto.PageCurseur : le frontend lit les deux listes de la même façon.
+ */
+public record PageCurseur<T>(List<T> elements, Long suivant) {
+
+    public static final int LIMITE_PAR_DEFAUT = 50;
+    public static final int LIMITE_MAX = 500;
+
+    /**
+     * Taille de page demandée : on lit une ligne de plus pour savoir s'il reste une page
+     */
+    public static Pageable demande(Integer limit) {
+        int limite = limit != null ? limit : LIMITE_PAR_DEFAUT;
+        if (limite < 1 || limite > LIMITE_MAX) {
+            throw new IllegalArgumentException("Le paramètre limit doit être compris entre 1 et " + LIMITE_MAX);
+        }
+        return PageRequest.of(0, limite + 1);
+    }
+
+    public static <L, T> PageCurseur<T> de(List<L> lignes, Pageable demande,
+                                          Function<L, Long> id, Function<L, T> conversion) {
+        int limite = demande.getPageSize() - 1;
+        boolean encore = lignes.size() > limite;
+        List<L> page = encore ? lignes.subList(0, limite) : lignes;
+
+        Long suivant = encore ? id.apply(page.get(page.size() - 1)) : null;
+        return new PageCurseur<>(page.stream().map(conversion).toList(), suivant);
+    }
+
+    /**
+     * Le corps reste un tableau JSON (compatible avec les clients existants),
+     * le curseur de la page suivante passe dans l'en-tête X-Next-After.
+     */
+    public ResponseEntity<List<T>> enReponse() {
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.ok();
+        if (suivant != null) {
+            reponse.header("X-Next-After", String.valueOf(suivant));
+        }
+        return reponse.body(elements);
+    }
+}
@@ -0,0 +1,21 @@
+package com.hotel.paiement_service.controller.dto;
+
+import com.hotel.paiement_service.model.Paiement;
+import com.hotel.paiement_service.model.RevenuAgregat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chiffre d'affaires sur [from, to[ : totaux, totaux par mode de paiement et détail par période
+ */
+public record StatsRevenus(LocalDate from, LocalDate to, RevenuAgregat.Periode granularite,
+                           long nombre, BigDecimal montant,
+                           Map<Paiement.ModePaiement, BigDecimal> parMode,
+                           List<Tranche> periodes) {
+
+    public record Tranche(LocalDate debut, Paiement.ModePaiement mode, long nombre, BigDecimal montant) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.hotel.paiement_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Réponse d'une requête de paiement, rejouée telle quelle pour un nouvel envoi
+ * avec le même en-tête Idempotency-Key. La ligne est créée EN_COURS avant le paiement
+ * (l'index unique écarte les doublons concurrents, même entre instances) puis passe
+ * TERMINEE avec la réponse.
+ */
+@Entity
+@Table(name = "idempotence_cles",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotence_cle", columnNames = "cle"),
+        indexes = @Index(name = "idx_idempotence_date", columnList = "date_creation"))
+@Data
+public class CleIdempotence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Opération + clé du client (ex: cash:3f2a...)
+    @Column(nullable = false, length = 150)
+    private String cle;
+
+    // SHA-256 du corps de la requête : une clé réutilisée pour une autre requête est refusée
+    @Column(nullable = false, length = 64)
+    private String empreinte;
+
+    // Lignes antérieures à la colonne : réponses déjà enregistrées
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @ColumnDefault("'TERMINEE'")
+    private Statut statut = Statut.EN_COURS;
+
+    // 0 tant que la requête est EN_COURS
+    @Column(name = "code_http", nullable = false)
+    private int codeHttp;
+
+    @Lob
+    @Column(nullable = false)
+    private String reponse;
+
+    @Column(name = "date_creation")
+    @CreationTimestamp
+    private LocalDateTime dateCreation;
+
+    public enum Statut {
+        EN_COURS,   // paiement en cours de traitement
+        TERMINEE    // réponse enregistrée, rejouable
+    }
+}
@@ -6,7 +6,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "paiements")
+@Table(name = "paiements",
+        // Un PaymentIntent Stripe ne donne qu'un paiement (NULL pour le cash)
+        uniqueConstraints = @UniqueConstraint(name = "uk_paiements_transaction", columnNames = "transaction_id"),
+        indexes = {
+                // Paiements d'une facture / d'une réservation (InnoDB ajoute id_paiement : parcours par curseur)
+                @Index(name = "idx_paiements_facture", columnList = "id_facture"),
+                @Index(name = "idx_paiements_reservation", columnList = "id_reservation"),
+                // Liste filtrée par mode sur une période
+                @Index(name = "idx_paiements_mode_date", columnList = "mode_paiement, date_paiement")
+        })
 @Data
 public class Paiement {
 
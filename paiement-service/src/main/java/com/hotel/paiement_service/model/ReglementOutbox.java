@@ -0,0 +1,72 @@
+package com.hotel.paiement_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Facture à marquer PAYEE dans le service réservations, écrite dans la même transaction
+ * que le paiement puis transmise en arrière-plan (ReglementOutboxDispatcher).
+ * Une seule ligne par paiement : id_paiement sert de clé d'idempotence.
+ */
+@Entity
+@Table(name = "reglement_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_reglement_outbox_paiement", columnNames = "id_paiement"),
+        indexes = {
+                // Lecture des règlements prêts : statut + date du prochain essai
+                @Index(name = "idx_reglement_outbox_statut_essai", columnList = "statut, prochain_essai")
+        })
+@Data
+public class ReglementOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "id_paiement", nullable = false)
+    private Long idPaiement;
+
+    @Column(name = "id_facture", nullable = false)
+    private Long idFacture;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatutReglement statut = StatutReglement.EN_ATTENTE;
+
+    @Column(nullable = false)
+    private int tentatives;
+
+    @Column(name = "prochain_essai", nullable = false)
+    private LocalDateTime prochainEssai;
+
+    @Column(name = "derniere_erreur", length = 1000)
+    private String derniereErreur;
+
+    @Column(name = "date_creation")
+    @CreationTimestamp
+    private LocalDateTime dateCreation;
+
+    @Column(name = "date_reglement")
+    private LocalDateTime dateReglement;
+
+    public static ReglementOutbox pour(Paiement paiement) {
+        ReglementOutbox reglement = new ReglementOutbox();
+        reglement.setIdPaiement(paiement.getIdPaiement());
+        reglement.setIdFacture(paiement.getIdFacture());
+        reglement.setStatut(StatutReglement.EN_ATTENTE);
+        reglement.setProchainEssai(LocalDateTime.now());
+        return reglement;
+    }
+
+    // Clé envoyée au service réservations (en-tête Idempotency-Key)
+    public String cleIdempotence() {
+        return "paiement-" + idPaiement;
+    }
+
+    public enum StatutReglement {
+        EN_ATTENTE, REGLE, ECHEC
+    }
+}
@@ -0,0 +1,47 @@
+package com.hotel.paiement_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Chiffre d'affaires d'un jour ou d'un mois pour un mode de paiement.
+ * Incrémenté dans la transaction de chaque paiement réussi (RevenuService),
+ * recalculé depuis la table paiements par la reconstruction (RevenuService, mois par mois).
+ */
+@Entity
+@Table(name = "revenus_agregats",
+        // Une ligne par période et mode : clé de l'upsert, et parcours d'une plage de dates
+        uniqueConstraints = @UniqueConstraint(name = "uk_revenus_periode_debut_mode",
+                columnNames = {"periode", "debut", "mode_paiement"}))
+@Data
+public class RevenuAgregat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Periode periode;
+
+    // Premier jour de la période (le 1er du mois pour MOIS)
+    @Column(nullable = false)
+    private LocalDate debut;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "mode_paiement", nullable = false)
+    private Paiement.ModePaiement modePaiement;
+
+    @Column(nullable = false)
+    private long nombre;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal montant;
+
+    public enum Periode {
+        JOUR, MOIS
+    }
+}
@@ -0,0 +1,21 @@
+package com.hotel.paiement_service.repository;
+
+import com.hotel.paiement_service.model.CleIdempotence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface CleIdempotenceRepository extends JpaRepository<CleIdempotence, Long> {
+
+    Optional<CleIdempotence> findByCle(String cle);
+
+    @Modifying
+    @Query("DELETE FROM CleIdempotence c WHERE c.dateCreation < :limite")
+    int supprimerAvant(@Param("limite") LocalDateTime limite);
+}
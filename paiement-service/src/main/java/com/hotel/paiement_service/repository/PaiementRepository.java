@@ -1,8 +1,15 @@
 package com.hotel.paiement_service.repository;
 
 import com.hotel.paiement_service.model.Paiement;
+import com.hotel.paiement_service.repository.projection.PaiementLigne;
+import com.hotel.paiement_service.repository.projection.RevenuJour;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -15,6 +22,63 @@ public interface PaiementRepository extends JpaRepository<Paiement, Long> {
     // Trouver tous les paiements d'une réservation
     List<Paiement> findByIdReservation(Long idReservation);
 
+    // Paiement Stripe déjà enregistré pour ce PaymentIntent
+    Optional<Paiement> findByTransactionId(String transactionId);
+
     // Trouver par mode de paiement
     List<Paiement> findByModePaiement(Paiement.ModePaiement modePaiement);
+
+    /**
+     * Page de paiements après le curseur {@code after} (ordre des ID), filtres optionnels.
+     * La période [du, au[ porte sur la date de paiement.
+     */
+    @Query("SELECT new com.hotel.paiement_service.repository.projection.PaiementLigne(" +
+            "p.idPaiement, p.idFacture, p.idReservation, p.montant, p.modePaiement, p.statut, " +
+            "p.transactionId, p.effectuePar, p.datePaiement) " +
+            "FROM Paiement p " +
+            "WHERE p.idPaiement > :after " +
+            "AND (:idFacture IS NULL OR p.idFacture = :idFacture) " +
+            "AND (:idReservation IS NULL OR p.idReservation = :idReservation) " +
+            "AND (:mode IS NULL OR p.modePaiement = :mode) " +
+            "AND (:statut IS NULL OR p.statut = :statut) " +
+            "AND (:du IS NULL OR p.datePaiement >= :du) " +
+            "AND (:au IS NULL OR p.datePaiement < :au) " +
+            "ORDER BY p.idPaiement")
+    List<PaiementLigne> findPage(@Param("after") Long after,
+                                 @Param("idFacture") Long idFacture,
+                                 @Param("idReservation") Long idReservation,
+                                 @Param("mode") Paiement.ModePaiement mode,
+                                 @Param("statut") Paiement.StatutPaiement statut,
+                                 @Param("du") LocalDateTime du,
+                                 @Param("au") LocalDateTime au,
+                                 Pageable pageable);
+
+    // Réconciliation : paiements réussis récents (depuis) sans règlement en file (ligne perdue)
+    @Query("SELECT p FROM Paiement p WHERE p.statut = :statut AND p.idPaiement > :after "
+            + "AND p.datePaiement >= :depuis "
+            + "AND NOT EXISTS (SELECT r FROM ReglementOutbox r WHERE r.idPaiement = p.idPaiement) "
+            + "ORDER BY p.idPaiement")
+    List<Paiement> findSansReglement(@Param("statut") Paiement.StatutPaiement statut,
+                                     @Param("depuis") LocalDateTime depuis,
+                                     @Param("after") Long after,
+                                     Pageable pageable);
+
+    /**
+     * Reconstruction des agrégats : chiffre d'affaires par jour et par mode sur [du, au[.
+     * SELECT simple (lecture cohérente InnoDB, sans verrou) : les paiements en cours ne sont pas bloqués.
+     * La condition sur tous les modes laisse MySQL parcourir idx_paiements_mode_date par plage.
+     */
+    @Query("SELECT new com.hotel.paiement_service.repository.projection.RevenuJour(" +
+            "extract(date from p.datePaiement), p.modePaiement, count(p), sum(p.montant)) " +
+            "FROM Paiement p " +
+            "WHERE p.statut = :statut AND p.modePaiement IN :modes " +
+            "AND p.datePaiement >= :du AND p.datePaiement < :au " +
+            "GROUP BY extract(date from p.datePaiement), p.modePaiement")
+    List<RevenuJour> sommerParJour(@Param("statut") Paiement.StatutPaiement statut,
+                                   @Param("modes") Collection<Paiement.ModePaiement> modes,
+                                   @Param("du") LocalDateTime du,
+                                   @Param("au") LocalDateTime au);
+
+    @Query("SELECT MIN(p.datePaiement) FROM Paiement p WHERE p.statut = :statut")
+    LocalDateTime findPremiereDate(@Param("statut") Paiement.StatutPaiement statut);
 }
@@ -0,0 +1,39 @@
+package com.hotel.paiement_service.repository;
+
+import com.hotel.paiement_service.model.ReglementOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReglementOutboxRepository extends JpaRepository<ReglementOutbox, Long> {
+
+    // SELECT ... FOR UPDATE SKIP LOCKED : plusieurs instances peuvent vider la file sans se bloquer
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM ReglementOutbox r WHERE r.statut = :statut AND r.prochainEssai <= :maintenant ORDER BY r.id")
+    List<ReglementOutbox> findPrets(@Param("statut") ReglementOutbox.StatutReglement statut,
+                                    @Param("maintenant") LocalDateTime maintenant,
+                                    Pageable pageable);
+
+    // Réconciliation : les règlements abandonnés depuis assez longtemps repartent pour une série d'essais
+    @Modifying
+    @Query("UPDATE ReglementOutbox r SET r.statut = :enAttente, r.tentatives = 0, r.prochainEssai = :maintenant "
+            + "WHERE r.statut = :echec AND r.prochainEssai <= :limite")
+    int rearmerEchecs(@Param("enAttente") ReglementOutbox.StatutReglement enAttente,
+                      @Param("echec") ReglementOutbox.StatutReglement echec,
+                      @Param("limite") LocalDateTime limite,
+                      @Param("maintenant") LocalDateTime maintenant);
+
+    long countByStatut(ReglementOutbox.StatutReglement statut);
+}
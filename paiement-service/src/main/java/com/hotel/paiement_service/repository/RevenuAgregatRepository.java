@@ -0,0 +1,46 @@
+package com.hotel.paiement_service.repository;
+
+import com.hotel.paiement_service.model.RevenuAgregat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenuAgregatRepository extends JpaRepository<RevenuAgregat, Long> {
+
+    // Upsert atomique (MySQL) : pas de lecture préalable, deux paiements simultanés s'additionnent
+    @Modifying
+    @Query(value = "INSERT INTO revenus_agregats (periode, debut, mode_paiement, nombre, montant) "
+            + "VALUES (:periode, :debut, :mode, 1, :montant) "
+            + "ON DUPLICATE KEY UPDATE nombre = nombre + 1, montant = montant + :montant",
+            nativeQuery = true)
+    int ajouter(@Param("periode") String periode,
+                @Param("debut") LocalDate debut,
+                @Param("mode") String mode,
+                @Param("montant") BigDecimal montant);
+
+    // Périodes dont le début est dans [du, au[
+    @Query("SELECT a FROM RevenuAgregat a WHERE a.periode = :periode AND a.debut >= :du AND a.debut < :au "
+            + "ORDER BY a.debut, a.modePaiement")
+    List<RevenuAgregat> findPeriodes(@Param("periode") RevenuAgregat.Periode periode,
+                                     @Param("du") LocalDate du,
+                                     @Param("au") LocalDate au);
+
+    // ==================== RECONSTRUCTION ====================
+
+    // Verrouille les lignes (et l'intervalle) de la plage : les paiements de ces périodes attendent le commit
+    @Modifying
+    @Query("DELETE FROM RevenuAgregat a WHERE a.periode = :periode AND a.debut >= :du AND a.debut < :au")
+    int supprimerPeriodes(@Param("periode") RevenuAgregat.Periode periode,
+                          @Param("du") LocalDate du,
+                          @Param("au") LocalDate au);
+
+    @Query("SELECT MIN(a.debut) FROM RevenuAgregat a")
+    LocalDate findPremierDebut();
+}
@@ -0,0 +1,14 @@
+package com.hotel.paiement_service.repository.projection;
+
+import com.hotel.paiement_service.model.Paiement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de liste d'un paiement (lecture seule, sans entité gérée par JPA)
+ */
+public record PaiementLigne(Long idPaiement, Long idFacture, Long idReservation, BigDecimal montant,
+                            Paiement.ModePaiement modePaiement, Paiement.StatutPaiement statut,
+                            String transactionId, Long effectuePar, LocalDateTime datePaiement) {
+}
@@ -0,0 +1,12 @@
+package com.hotel.paiement_service.repository.projection;
+
+import com.hotel.paiement_service.model.Paiement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Chiffre d'affaires d'un jour pour un mode de paiement, compté dans la table paiements (reconstruction)
+ */
+public record RevenuJour(LocalDate jour, Paiement.ModePaiement modePaiement, long nombre, BigDecimal montant) {
+}
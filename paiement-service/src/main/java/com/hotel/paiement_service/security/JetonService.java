@@ -0,0 +1,70 @@
+package com.hotel.paiement_service.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Jeton de service (rôle SERVICE) pour les appels vers les autres services :
+ * signé une fois, réutilisé par tous les appels, renouvelé à mi-vie.
+ * Le service appelé le vérifie une fois puis le garde en cache : ni BCrypt, ni HMAC par requête.
+ */
+@Component
+@Slf4j
+public class JetonService {
+
+    public static final String ROLE = "SERVICE";
+
+    @Value("${app.jwt.secret}")
+    private String secret;
+
+    @Value("${spring.application.name}")
+    private String nomService;
+
+    @Value("${app.jwt.service.duree:5m}")
+    private Duration duree;
+
+    private SecretKey cle;
+    private volatile Jeton courant;
+
+    @PostConstruct
+    public void init() {
+        cle = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String jeton() {
+        Jeton jeton = courant;
+        long maintenant = System.currentTimeMillis();
+        if (jeton == null || maintenant >= jeton.renouvellement()) {
+            // Deux threads peuvent signer en même temps : les deux jetons sont valides
+            jeton = signer(maintenant);
+            courant = jeton;
+        }
+        return jeton.valeur();
+    }
+
+    private Jeton signer(long maintenant) {
+        long expiration = maintenant + duree.toMillis();
+        String valeur = Jwts.builder()
+                .setSubject(nomService)
+                .claim("role", ROLE)
+                .setIssuedAt(new Date(maintenant))
+                .setExpiration(new Date(expiration))
+                .signWith(cle, SignatureAlgorithm.HS256)
+                .compact();
+        log.debug("🔑 Jeton de service renouvelé (expire dans {})", duree);
+        return new Jeton(valeur, maintenant + duree.toMillis() / 2);
+    }
+
+    private record Jeton(String valeur, long renouvellement) {
+    }
+}
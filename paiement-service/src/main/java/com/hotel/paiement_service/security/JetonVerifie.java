@@ -0,0 +1,17 @@
+package com.hotel.paiement_service.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Contenu d'un JWT dont la signature a été vérifiée : utilisateur (ou service) et son rôle.
+ * Copie de reservation-service security.JetonVerifie, à garder identique.
+ */
+public record JetonVerifie(String sujet, String role, long expiration, List<GrantedAuthority> authorities) {
+
+    public JetonVerifie(String sujet, String role, long expiration) {
+        this(sujet, role, expiration, List.of(new SimpleGrantedAuthority(role)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.hotel.paiement_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification des JWT signés par user-service (utilisateurs) ou par les autres services (jetons de service) :
+ * - un seul parser, immuable et thread-safe
+ * - jetons déjà vérifiés gardés par empreinte SHA-256 jusqu'à leur expiration : un jeton déjà vu
+ *   ne refait ni décodage, ni lecture JSON, ni HMAC
+ * Métriques : cache.* (cache=jwt).
+ * Copie de reservation-service security.JwtVerificateur (seul le package change), cache repris dans
+ * user-service JwtUtil : une correction ici se reporte dans les deux autres.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtVerificateur {
+
+    // MessageDigest n'est pas thread-safe
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.secret}")
+    private String secret;
+
+    @Value("${app.jwt.cache-max:10000}")
+    private long cacheMax;
+
+    private JwtParser parser;
+    private Cache<Empreinte, JetonVerifie> jetonsVerifies;
+
+    @PostConstruct
+    public void init() {
+        parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        jetonsVerifies = Caffeine.newBuilder()
+                .maximumSize(cacheMax)
+                .expireAfter(new Expiry<Empreinte, JetonVerifie>() {
+                    @Override
+                    public long expireAfterCreate(Empreinte cle, JetonVerifie jeton, long maintenant) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, jeton.expiration() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Empreinte cle, JetonVerifie jeton, long maintenant, long restant) {
+                        return expireAfterCreate(cle, jeton, maintenant);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Empreinte cle, JetonVerifie jeton, long maintenant, long restant) {
+                        return restant;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, jetonsVerifies, "jwt");
+    }
+
+    /**
+     * @throws JwtException jeton invalide ou expiré (jamais mis en cache)
+     */
+    public JetonVerifie verifier(String token) {
+        Empreinte empreinte = Empreinte.de(token);
+        JetonVerifie jeton = jetonsVerifies.getIfPresent(empreinte);
+        if (jeton != null && jeton.expiration() > System.currentTimeMillis()) {
+            return jeton;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Jeton sans date d'expiration");
+        }
+        jeton = new JetonVerifie(claims.getSubject(), claims.get("role", String.class),
+                claims.getExpiration().getTime());
+        jetonsVerifies.put(empreinte, jeton);
+        return jeton;
+    }
+
+    /**
+     * SHA-256 du jeton : un autre jeton ne peut pas reprendre l'entrée d'un jeton vérifié
+     */
+    private record Empreinte(long a, long b, long c, long d) {
+
+        static Empreinte de(String token) {
+            ByteBuffer hash = ByteBuffer.wrap(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new Empreinte(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+}
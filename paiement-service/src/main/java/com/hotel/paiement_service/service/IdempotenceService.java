@@ -0,0 +1,226 @@
+package com.hotel.paiement_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hotel.paiement_service.model.CleIdempotence;
+import com.hotel.paiement_service.repository.CleIdempotenceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * En-tête Idempotency-Key des requêtes de paiement, en trois temps :
+ * - la clé est réservée (statut EN_COURS) dans une transaction courte : l'index unique
+ *   n'est verrouillé que le temps de l'insertion
+ * - le paiement est traité hors de toute transaction de la clé (appels Stripe / réservations compris)
+ * - la réponse est enregistrée (statut TERMINEE) dans une seconde transaction courte
+ * Requête rejouée : réponse enregistrée renvoyée telle quelle (cache mémoire, sinon base),
+ * sans nouveau paiement ni nouvel appel au service réservations.
+ * Doublon pendant le traitement (même sur une autre instance) : 409 avec Retry-After.
+ * Seules les réponses 2xx sont gardées : après une erreur, la clé est libérée et peut être réessayée.
+ * Si l'instance s'arrête pendant le traitement, la clé reste EN_COURS jusqu'à la purge (ttl) :
+ * l'issue du paiement est inconnue, il ne doit pas être refait automatiquement.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotenceService {
+
+    public static final String ENTETE = "Idempotency-Key";
+    private static final int LONGUEUR_MAX = 100;
+
+    private final CleIdempotenceRepository cleIdempotenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.idempotence.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${app.idempotence.cache-max:10000}")
+    private long cacheMax;
+
+    @Value("${app.idempotence.reessai-apres:2s}")
+    private Duration reessaiApres;
+
+    private Cache<String, ReponseEnregistree> recentes;
+
+    @PostConstruct
+    public void init() {
+        recentes = Caffeine.newBuilder()
+                .maximumSize(cacheMax)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recentes, "idempotence");
+    }
+
+    /**
+     * Exécuter le traitement une seule fois par clé ; sans clé, il est exécuté à chaque appel
+     */
+    public ResponseEntity<?> executer(String cleClient, String operation, Object requete,
+                                      Supplier<ResponseEntity<?>> traitement) {
+        if (cleClient == null || cleClient.isBlank()) {
+            return traitement.get();
+        }
+        if (cleClient.length() > LONGUEUR_MAX) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", ENTETE + " trop longue (" + LONGUEUR_MAX + " caractères max)"));
+        }
+
+        String cle = operation + ":" + cleClient;
+        String empreinte = empreinte(requete);
+
+        ReponseEnregistree enCache = recentes.getIfPresent(cle);
+        if (enCache != null) {
+            return rejouer(cle, enCache, empreinte);
+        }
+
+        Long id;
+        try {
+            id = reserver(cle, empreinte);
+        } catch (DataIntegrityViolationException e) {
+            // Clé déjà utilisée : réponse enregistrée, ou requête encore en cours
+            return doublon(cle, empreinte);
+        }
+
+        ResponseEntity<?> reponse;
+        try {
+            reponse = traitement.get();
+        } catch (RuntimeException e) {
+            liberer(id);
+            throw e;
+        }
+        if (!reponse.getStatusCode().is2xxSuccessful()) {
+            // Rien n'est gardé : la requête pourra être réessayée avec la même clé
+            liberer(id);
+            return reponse;
+        }
+
+        ReponseEnregistree enregistree = new ReponseEnregistree(
+                empreinte, reponse.getStatusCode().value(), json(reponse.getBody()));
+        try {
+            transactionTemplate.executeWithoutResult(status -> cleIdempotenceRepository.findById(id).ifPresent(ligne -> {
+                ligne.setStatut(CleIdempotence.Statut.TERMINEE);
+                ligne.setCodeHttp(enregistree.codeHttp());
+                ligne.setReponse(enregistree.corps());
+            }));
+        } catch (RuntimeException e) {
+            // Le paiement est fait : la réponse est rendue, les doublons resteront en 409 jusqu'à la purge
+            log.error("❌ Réponse non enregistrée pour {} : {}", cle, e.getMessage());
+            return reponse;
+        }
+        recentes.put(cle, enregistree);
+        return reponse;
+    }
+
+    private Long reserver(String cle, String empreinte) {
+        return transactionTemplate.execute(status -> {
+            CleIdempotence ligne = new CleIdempotence();
+            ligne.setCle(cle);
+            ligne.setEmpreinte(empreinte);
+            ligne.setReponse("");
+            return cleIdempotenceRepository.saveAndFlush(ligne).getId();
+        });
+    }
+
+    private void liberer(Long id) {
+        transactionTemplate.executeWithoutResult(status -> cleIdempotenceRepository.deleteById(id));
+    }
+
+    private ResponseEntity<?> doublon(String cle, String empreinte) {
+        Optional<CleIdempotence> existante = cleIdempotenceRepository.findByCle(cle);
+        if (existante.isPresent() && existante.get().getStatut() == CleIdempotence.Statut.TERMINEE) {
+            CleIdempotence ligne = existante.get();
+            ReponseEnregistree enregistree = new ReponseEnregistree(ligne.getEmpreinte(), ligne.getCodeHttp(), ligne.getReponse());
+            recentes.put(cle, enregistree);
+            return rejouer(cle, enregistree, empreinte);
+        }
+        if (existante.isPresent() && !existante.get().getEmpreinte().equals(empreinte)) {
+            return autreRequete(cle);
+        }
+
+        // Première requête en cours (ou tout juste libérée après une erreur) : le client réessaiera
+        log.info("⏳ Requête en cours pour {} : doublon refusé", cle);
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, reessaiApres.toSeconds())))
+                .body(Map.of(
+                        "success", false,
+                        "message", "Requête avec la même " + ENTETE + " en cours de traitement"));
+    }
+
+    private ResponseEntity<?> rejouer(String cle, ReponseEnregistree enregistree, String empreinte) {
+        if (!enregistree.empreinte().equals(empreinte)) {
+            return autreRequete(cle);
+        }
+
+        log.info("↩️ Requête rejouée ({}) : réponse enregistrée renvoyée", cle);
+        return ResponseEntity.status(enregistree.codeHttp())
+                .header("Idempotent-Replayed", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(enregistree.corps());
+    }
+
+    private ResponseEntity<?> autreRequete(String cle) {
+        log.warn("⚠️ {} réutilisée avec une autre requête : {}", ENTETE, cle);
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of(
+                "success", false,
+                "message", ENTETE + " déjà utilisée pour une autre requête"));
+    }
+
+    /**
+     * Oublier les clés plus anciennes que ttl
+     */
+    @Scheduled(fixedDelayString = "${app.idempotence.purge-intervalle:1h}")
+    public void purger() {
+        Integer supprimees = transactionTemplate.execute(status ->
+                cleIdempotenceRepository.supprimerAvant(LocalDateTime.now().minus(ttl)));
+        if (supprimees != null && supprimees > 0) {
+            log.info("🧹 {} clé(s) d'idempotence expirée(s) supprimée(s)", supprimees);
+        }
+    }
+
+    private String empreinte(Object requete) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json(requete).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String json(Object valeur) {
+        try {
+            return objectMapper.writeValueAsString(valeur);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation JSON impossible", e);
+        }
+    }
+
+    private record ReponseEnregistree(String empreinte, int codeHttp, String corps) {
+    }
+}
@@ -1,15 +1,19 @@
 package com.hotel.paiement_service.service;
 
+import com.hotel.paiement_service.controller.dto.PageCurseur;
 import com.hotel.paiement_service.model.Paiement;
+import com.hotel.paiement_service.model.ReglementOutbox;
 import com.hotel.paiement_service.repository.PaiementRepository;
+import com.hotel.paiement_service.repository.ReglementOutboxRepository;
+import com.hotel.paiement_service.repository.projection.PaiementLigne;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.LocalDate;
+import java.util.List;
 
 @Service
 @Slf4j
@@ -19,14 +23,15 @@ public class PaiementService {
     private PaiementRepository paiementRepository;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private ReglementOutboxRepository reglementOutboxRepository;
 
-    @Value("${services.reservation.url}")
-    private String reservationServiceUrl;
+    @Autowired
+    private RevenuService revenuService;
 
     /**
      * 💵 PAIEMENT CASH - Pour réceptionniste
      */
+    @Transactional
     public Paiement enregistrerPaiementCash(Long idFacture, Long idReservation,
                                             BigDecimal montant, Long idReceptionniste) {
         log.info("💵 Enregistrement paiement CASH - Facture: {}, Montant: {}", idFacture, montant);
@@ -42,9 +47,10 @@ public class PaiementService {
 
         paiement = paiementRepository.save(paiement);
         log.info("✅ Paiement enregistré - ID: {}", paiement.getIdPaiement());
+        revenuService.ajouter(paiement);
 
-        // 2. Appeler reservation-service pour marquer la facture PAYEE
-        marquerFacturePayee(idFacture);
+        // 2. Facture à marquer PAYEE : mise en file dans la même transaction
+        marquerFacturePayee(paiement);
 
         return paiement;
     }
@@ -52,11 +58,22 @@ public class PaiementService {
     /**
      * 💳 PAIEMENT STRIPE - Pour client
      */
+    @Transactional
     public Paiement enregistrerPaiementStripe(Long idFacture, Long idReservation,
                                               BigDecimal montant, String paymentIntentId) {
         log.info("💳 Enregistrement paiement STRIPE - Facture: {}, PaymentIntent: {}",
                 idFacture, paymentIntentId);
 
+        // Confirmation renvoyée (nouvel essai du client) : le PaymentIntent n'est débité qu'une fois
+        if (paymentIntentId != null) {
+            Paiement existant = paiementRepository.findByTransactionId(paymentIntentId).orElse(null);
+            if (existant != null) {
+                log.info("↩️ PaymentIntent {} déjà enregistré - Paiement ID: {}",
+                        paymentIntentId, existant.getIdPaiement());
+                return existant;
+            }
+        }
+
         Paiement paiement = new Paiement();
         paiement.setIdFacture(idFacture);
         paiement.setIdReservation(idReservation);
@@ -68,30 +85,38 @@ public class PaiementService {
 
         paiement = paiementRepository.save(paiement);
         log.info("✅ Paiement Stripe enregistré - ID: {}", paiement.getIdPaiement());
+        revenuService.ajouter(paiement);
 
         // Marquer facture payée
-        marquerFacturePayee(idFacture);
+        marquerFacturePayee(paiement);
 
         return paiement;
     }
 
     /**
-     * 📞 Appeler reservation-service pour marquer la facture PAYEE
+     * 📋 Liste paginée par curseur (lignes en lecture seule, sans entités)
      */
-    private void marquerFacturePayee(Long idFacture) {
-        try {
-            // ✅ Utilise l'endpoint EXISTANT dans ton FactureController
-            String url = reservationServiceUrl + "/factures/" + idFacture + "/payer";
-
-            log.info("📞 Appel à reservation-service: {}", url);
-
-            restTemplate.put(url, null);
-
-            log.info("✅ Facture {} marquée comme PAYEE", idFacture);
+    public PageCurseur<PaiementLigne> listerPaiements(Long after, Integer limit, Long idFacture, Long idReservation,
+                                                      Paiement.ModePaiement mode, Paiement.StatutPaiement statut,
+                                                      LocalDate du, LocalDate au) {
+        log.info("📋 Récupération des paiements après {} (facture {}, réservation {}, mode {}, statut {}, du {} au {})",
+                after, idFacture, idReservation, mode, statut, du, au);
+
+        Pageable demande = PageCurseur.demande(limit);
+        List<PaiementLigne> lignes = paiementRepository.findPage(after != null ? after : 0L,
+                idFacture, idReservation, mode, statut,
+                du != null ? du.atStartOfDay() : null, au != null ? au.atStartOfDay() : null, demande);
+        return PageCurseur.de(lignes, demande, PaiementLigne::idPaiement, ligne -> ligne);
+    }
 
-        } catch (Exception e) {
-            log.error("❌ Erreur lors de la mise à jour de la facture : {}", e.getMessage());
-            // On ne bloque pas le paiement même si la mise à jour échoue
-        }
+    /**
+     * 📬 Mettre en file le passage de la facture à PAYEE dans reservation-service.
+     * Écrit avec le paiement (même transaction) : la réponse n'attend pas reservation-service
+     * et la facture finit toujours par être marquée (ReglementOutboxDispatcher).
+     */
+    private void marquerFacturePayee(Paiement paiement) {
+        reglementOutboxRepository.save(ReglementOutbox.pour(paiement));
+        log.info("📬 Facture {} mise en file pour règlement (paiement {})",
+                paiement.getIdFacture(), paiement.getIdPaiement());
     }
 }
@@ -0,0 +1,187 @@
+package com.hotel.paiement_service.service;
+
+import com.hotel.paiement_service.model.Paiement;
+import com.hotel.paiement_service.model.ReglementOutbox;
+import com.hotel.paiement_service.model.ReglementOutbox.StatutReglement;
+import com.hotel.paiement_service.repository.PaiementRepository;
+import com.hotel.paiement_service.repository.ReglementOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Vide la file des règlements (table reglement_outbox) en arrière-plan :
+ * - réserve un lot de règlements prêts (FOR UPDATE SKIP LOCKED) en repoussant leur prochain essai
+ * - marque chaque facture PAYEE dans le service réservations (en-tête Idempotency-Key = paiement)
+ * - en cas d'échec, nouvel essai avec un délai qui double, puis ECHEC après max-tentatives
+ * Réconciliation périodique : paiements récents sans règlement remis en file, échecs anciens réessayés.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReglementOutboxDispatcher {
+
+    private final ReglementOutboxRepository reglementOutboxRepository;
+    private final PaiementRepository paiementRepository;
+    private final RestTemplate restTemplate;
+    private final Executor reglementExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${services.reservation.url}")
+    private String reservationServiceUrl;
+
+    @Value("${app.reglement.lot:20}")
+    private int tailleLot;
+
+    @Value("${app.reglement.max-tentatives:10}")
+    private int maxTentatives;
+
+    @Value("${app.reglement.backoff-initial:10s}")
+    private Duration backoffInitial;
+
+    @Value("${app.reglement.backoff-max:30m}")
+    private Duration backoffMax;
+
+    // Un règlement réservé mais jamais traité (arrêt de l'instance) redevient prêt après ce délai
+    @Value("${app.reglement.reservation:5m}")
+    private Duration dureeReservation;
+
+    // Délai avant qu'un règlement abandonné reparte pour une nouvelle série d'essais
+    @Value("${app.reglement.reprise-echecs:6h}")
+    private Duration repriseEchecs;
+
+    // Paiements plus anciens ignorés par la réconciliation : les factures réglées avant la file
+    // (et l'historique) ne sont pas renvoyées au service réservations
+    @Value("${app.reglement.reconciliation-fenetre:7d}")
+    private Duration fenetreReconciliation;
+
+    @Scheduled(fixedDelayString = "${app.reglement.intervalle:2s}")
+    public void traiter() {
+        List<ReglementOutbox> lot = transactionTemplate.execute(status -> reserverLot());
+        if (lot == null || lot.isEmpty()) {
+            return;
+        }
+
+        log.info("📬 {} facture(s) à marquer payée(s)", lot.size());
+        for (ReglementOutbox reglement : lot) {
+            reglementExecutor.execute(() -> regler(reglement));
+        }
+    }
+
+    private List<ReglementOutbox> reserverLot() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<ReglementOutbox> prets = reglementOutboxRepository.findPrets(StatutReglement.EN_ATTENTE, maintenant,
+                PageRequest.of(0, tailleLot));
+
+        // Repousser le prochain essai : les autres passages (ou instances) ne les reprennent pas
+        prets.forEach(reglement -> reglement.setProchainEssai(maintenant.plus(dureeReservation)));
+        return prets;
+    }
+
+    void regler(ReglementOutbox reglement) {
+        try {
+            // Le service réservations ignore un second passage à PAYEE : un nouvel essai après
+            // une réponse perdue ne renvoie pas l'email de facture
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("Idempotency-Key", reglement.cleIdempotence());
+            restTemplate.exchange(reservationServiceUrl + "/factures/" + reglement.getIdFacture() + "/payer",
+                    HttpMethod.PUT, new HttpEntity<>(headers), Void.class);
+
+            reglement.setDateReglement(LocalDateTime.now());
+            terminer(reglement, StatutReglement.REGLE, null);
+            log.info("✅ Facture {} marquée PAYEE (paiement {})", reglement.getIdFacture(), reglement.getIdPaiement());
+
+        } catch (Exception e) {
+            replanifier(reglement, e);
+        }
+    }
+
+    private void replanifier(ReglementOutbox reglement, Exception erreur) {
+        int tentatives = reglement.getTentatives() + 1;
+        reglement.setTentatives(tentatives);
+        reglement.setDerniereErreur(tronquer(erreur.getMessage()));
+
+        if (tentatives >= maxTentatives) {
+            log.error("❌ Règlement de la facture {} abandonné après {} tentatives (repris dans {}) : {}",
+                    reglement.getIdFacture(), tentatives, repriseEchecs, erreur.getMessage());
+            reglement.setProchainEssai(LocalDateTime.now());
+            terminer(reglement, StatutReglement.ECHEC, reglement.getDerniereErreur());
+            return;
+        }
+
+        Duration delai = delaiAvantEssai(tentatives);
+        reglement.setProchainEssai(LocalDateTime.now().plus(delai));
+        reglementOutboxRepository.save(reglement);
+        log.warn("⚠️ Échec du règlement de la facture {} (tentative {}), nouvel essai dans {} : {}",
+                reglement.getIdFacture(), tentatives, delai, erreur.getMessage());
+    }
+
+    // backoff-initial, puis ×2 à chaque échec, plafonné à backoff-max
+    Duration delaiAvantEssai(int tentatives) {
+        Duration delai = backoffInitial.multipliedBy(1L << Math.min(tentatives - 1, 20));
+        return delai.compareTo(backoffMax) > 0 ? backoffMax : delai;
+    }
+
+    private void terminer(ReglementOutbox reglement, StatutReglement statut, String erreur) {
+        reglement.setStatut(statut);
+        reglement.setDerniereErreur(erreur);
+        reglementOutboxRepository.save(reglement);
+    }
+
+    /**
+     * Réconciliation : tout paiement réussi depuis moins de reconciliation-fenetre finit par avoir sa facture PAYEE
+     */
+    @Scheduled(fixedDelayString = "${app.reglement.reconciliation:15m}",
+            initialDelayString = "${app.reglement.reconciliation:15m}")
+    public void reconcilier() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        Integer rearmes = transactionTemplate.execute(status -> reglementOutboxRepository.rearmerEchecs(
+                StatutReglement.EN_ATTENTE, StatutReglement.ECHEC, maintenant.minus(repriseEchecs), maintenant));
+
+        LocalDateTime depuis = maintenant.minus(fenetreReconciliation);
+        int ajoutes = 0;
+        long after = 0;
+        List<Paiement> sansReglement;
+        do {
+            sansReglement = paiementRepository.findSansReglement(Paiement.StatutPaiement.COMPLETE, depuis, after,
+                    PageRequest.of(0, tailleLot));
+            for (Paiement paiement : sansReglement) {
+                try {
+                    reglementOutboxRepository.save(ReglementOutbox.pour(paiement));
+                    ajoutes++;
+                } catch (Exception e) {
+                    // Ligne créée entre-temps (paiement en cours, autre instance) : rien à faire
+                    log.debug("Règlement du paiement {} déjà en file", paiement.getIdPaiement());
+                }
+            }
+            if (!sansReglement.isEmpty()) {
+                after = sansReglement.get(sansReglement.size() - 1).getIdPaiement();
+            }
+        } while (sansReglement.size() == tailleLot);
+
+        if (ajoutes > 0 || (rearmes != null && rearmes > 0)) {
+            log.info("🔁 Réconciliation des règlements : {} paiement(s) remis en file, {} échec(s) réessayé(s)",
+                    ajoutes, rearmes);
+        }
+    }
+
+    private static String tronquer(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,184 @@
+package com.hotel.paiement_service.service;
+
+import com.hotel.paiement_service.controller.dto.StatsRevenus;
+import com.hotel.paiement_service.model.Paiement;
+import com.hotel.paiement_service.model.RevenuAgregat;
+import com.hotel.paiement_service.repository.PaiementRepository;
+import com.hotel.paiement_service.repository.RevenuAgregatRepository;
+import com.hotel.paiement_service.repository.projection.RevenuJour;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chiffre d'affaires par jour et par mois, par mode de paiement :
+ * - chaque paiement réussi incrémente son jour et son mois dans sa propre transaction
+ *   (les agrégats ne comptent que les paiements validés)
+ * - les statistiques lisent ces agrégats : coût proportionnel au nombre de périodes, pas de paiements
+ * - la reconstruction recalcule les agrégats depuis la table paiements, mois par mois, chacun dans
+ *   une courte transaction : les mois récents chaque nuit, tout l'historique au premier démarrage
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenuService {
+
+    private final RevenuAgregatRepository revenuAgregatRepository;
+    private final PaiementRepository paiementRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Mois recalculés chaque nuit (le mois en cours et les précédents)
+    @Value("${app.revenus.fenetre-mois:3}")
+    private int fenetreMois;
+
+    /**
+     * Ajouter un paiement aux agrégats (appelé dans la transaction qui l'enregistre)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ajouter(Paiement paiement) {
+        if (paiement.getStatut() != Paiement.StatutPaiement.COMPLETE) {
+            return;
+        }
+
+        LocalDate jour = (paiement.getDatePaiement() != null ? paiement.getDatePaiement() : LocalDateTime.now())
+                .toLocalDate();
+        String mode = paiement.getModePaiement().name();
+        revenuAgregatRepository.ajouter(RevenuAgregat.Periode.JOUR.name(), jour, mode, paiement.getMontant());
+        revenuAgregatRepository.ajouter(RevenuAgregat.Periode.MOIS.name(), jour.withDayOfMonth(1), mode,
+                paiement.getMontant());
+    }
+
+    /**
+     * 📊 Chiffre d'affaires sur [du, au[ ; en MOIS, les mois entamés par la période sont comptés entiers
+     */
+    @Transactional(readOnly = true)
+    public StatsRevenus statistiques(LocalDate du, LocalDate au, RevenuAgregat.Periode granularite) {
+        if (du == null || au == null || !du.isBefore(au)) {
+            throw new IllegalArgumentException("Les paramètres from et to sont obligatoires (from < to)");
+        }
+
+        LocalDate debut = granularite == RevenuAgregat.Periode.MOIS ? du.withDayOfMonth(1) : du;
+        List<RevenuAgregat> agregats = revenuAgregatRepository.findPeriodes(granularite, debut, au);
+
+        long nombre = 0;
+        BigDecimal montant = BigDecimal.ZERO;
+        Map<Paiement.ModePaiement, BigDecimal> parMode = new EnumMap<>(Paiement.ModePaiement.class);
+        List<StatsRevenus.Tranche> periodes = new ArrayList<>(agregats.size());
+        for (RevenuAgregat agregat : agregats) {
+            nombre += agregat.getNombre();
+            montant = montant.add(agregat.getMontant());
+            parMode.merge(agregat.getModePaiement(), agregat.getMontant(), BigDecimal::add);
+            periodes.add(new StatsRevenus.Tranche(agregat.getDebut(), agregat.getModePaiement(),
+                    agregat.getNombre(), agregat.getMontant()));
+        }
+        return new StatsRevenus(du, au, granularite, nombre, montant, parMode, periodes);
+    }
+
+    /**
+     * 🔁 Recalculer les agrégats des derniers mois (corrige une dérive sans relire tout l'historique)
+     */
+    @Scheduled(cron = "${app.revenus.reconstruction:0 30 3 * * *}")
+    public void reconstruire() {
+        YearMonth courant = YearMonth.now();
+        reconstruire(courant.minusMonths(Math.max(fenetreMois, 1) - 1L), courant);
+    }
+
+    /**
+     * 🔁 Recalculer tous les agrégats, du premier paiement (ou du premier agrégat) au mois en cours
+     */
+    public void reconstruireTout() {
+        LocalDateTime premierPaiement = paiementRepository.findPremiereDate(Paiement.StatutPaiement.COMPLETE);
+        LocalDate premierAgregat = revenuAgregatRepository.findPremierDebut();
+        YearMonth debut = YearMonth.now();
+        if (premierPaiement != null && YearMonth.from(premierPaiement).isBefore(debut)) {
+            debut = YearMonth.from(premierPaiement);
+        }
+        if (premierAgregat != null && YearMonth.from(premierAgregat).isBefore(debut)) {
+            debut = YearMonth.from(premierAgregat);
+        }
+        reconstruire(debut, YearMonth.now());
+    }
+
+    /**
+     * Recalculer les mois [du, au], un par transaction. Dans chacune, les agrégats du mois sont d'abord
+     * supprimés (verrou sur ces lignes seulement), puis les paiements sont lus sans verrou : la lecture
+     * cohérente InnoDB démarre après la suppression, un paiement qui attendait le verrou n'y figure pas
+     * et s'ajoute après le commit. La table paiements n'est jamais verrouillée.
+     */
+    public void reconstruire(YearMonth du, YearMonth au) {
+        long debut = System.currentTimeMillis();
+        int periodes = 0;
+        for (YearMonth mois = du; !mois.isAfter(au); mois = mois.plusMonths(1)) {
+            YearMonth courant = mois;
+            Integer reconstruites = transactionTemplate.execute(status -> reconstruireMois(courant));
+            periodes += reconstruites != null ? reconstruites : 0;
+        }
+        log.info("📊 Agrégats de chiffre d'affaires reconstruits de {} à {} : {} période(s) en {} ms",
+                du, au, periodes, System.currentTimeMillis() - debut);
+    }
+
+    private int reconstruireMois(YearMonth mois) {
+        LocalDate debut = mois.atDay(1);
+        LocalDate fin = mois.plusMonths(1).atDay(1);
+
+        // Même ordre que ajouter() (jour puis mois) : pas d'interblocage avec un paiement
+        revenuAgregatRepository.supprimerPeriodes(RevenuAgregat.Periode.JOUR, debut, fin);
+        revenuAgregatRepository.supprimerPeriodes(RevenuAgregat.Periode.MOIS, debut, fin);
+
+        List<RevenuJour> jours = paiementRepository.sommerParJour(Paiement.StatutPaiement.COMPLETE,
+                EnumSet.allOf(Paiement.ModePaiement.class), debut.atStartOfDay(), fin.atStartOfDay());
+
+        List<RevenuAgregat> agregats = new ArrayList<>();
+        Map<Paiement.ModePaiement, RevenuAgregat> parMode = new EnumMap<>(Paiement.ModePaiement.class);
+        for (RevenuJour jour : jours) {
+            agregats.add(agregat(RevenuAgregat.Periode.JOUR, jour.jour(), jour.modePaiement(),
+                    jour.nombre(), jour.montant()));
+            RevenuAgregat duMois = parMode.computeIfAbsent(jour.modePaiement(),
+                    mode -> agregat(RevenuAgregat.Periode.MOIS, debut, mode, 0, BigDecimal.ZERO));
+            duMois.setNombre(duMois.getNombre() + jour.nombre());
+            duMois.setMontant(duMois.getMontant().add(jour.montant()));
+        }
+        agregats.addAll(parMode.values());
+        revenuAgregatRepository.saveAll(agregats);
+        return agregats.size();
+    }
+
+    private static RevenuAgregat agregat(RevenuAgregat.Periode periode, LocalDate debut,
+                                         Paiement.ModePaiement mode, long nombre, BigDecimal montant) {
+        RevenuAgregat agregat = new RevenuAgregat();
+        agregat.setPeriode(periode);
+        agregat.setDebut(debut);
+        agregat.setModePaiement(mode);
+        agregat.setNombre(nombre);
+        agregat.setMontant(montant);
+        return agregat;
+    }
+
+    /**
+     * Premier démarrage avec des paiements existants : agrégats encore vides
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        if (revenuAgregatRepository.count() == 0 && paiementRepository.count() > 0) {
+            log.info("📊 Agrégats de chiffre d'affaires absents : reconstruction");
+            reconstruireTout();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.hotel.paiement_service.repository;
+
+import com.hotel.paiement_service.controller.dto.PageCurseur;
+import com.hotel.paiement_service.model.Paiement;
+import com.hotel.paiement_service.model.ReglementOutbox;
+import com.hotel.paiement_service.repository.projection.PaiementLigne;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Liste des paiements par curseur sur H2 : le curseur porte sur id_paiement, les paiements
+ * de même date (ex aequo) ne sont ni perdus ni répétés d'une page à l'autre.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class PaiementRepositoryRequetesTest {
+
+    private static final LocalDateTime MIDI = LocalDateTime.of(2025, 6, 10, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PaiementRepository paiementRepository;
+
+    @Test
+    void pagesSansPerteNiDoublonAvecDesDatesIdentiques() {
+        List<Long> attendus = new ArrayList<>();
+        attendus.add(persister(MIDI.minusHours(1), Paiement.ModePaiement.CASH));
+        // Cinq paiements à la même seconde, dont un d'un autre mode entre eux
+        for (int i = 0; i < 5; i++) {
+            attendus.add(persister(MIDI, Paiement.ModePaiement.CASH));
+        }
+        persister(MIDI, Paiement.ModePaiement.STRIPE);
+        attendus.add(persister(MIDI.plusHours(1), Paiement.ModePaiement.CASH));
+        entityManager.clear();
+
+        List<Long> lus = parcourir(2, Paiement.ModePaiement.CASH, MIDI.minusDays(1), MIDI.plusDays(1));
+
+        assertThat(lus).containsExactlyElementsOf(attendus);
+    }
+
+    @Test
+    void periodeDuInclusAuExclu() {
+        Long auDebut = persister(MIDI, Paiement.ModePaiement.CASH);
+        persister(MIDI.plusHours(1), Paiement.ModePaiement.CASH);
+        Long avantLaFin = persister(MIDI.plusHours(1).minusSeconds(1), Paiement.ModePaiement.CASH);
+        persister(MIDI.minusSeconds(1), Paiement.ModePaiement.CASH);
+        entityManager.clear();
+
+        assertThat(parcourir(1, null, MIDI, MIDI.plusHours(1))).containsExactly(auDebut, avantLaFin);
+    }
+
+    @Test
+    void unePageEnUneRequete() {
+        for (int i = 0; i < 30; i++) {
+            persister(MIDI, Paiement.ModePaiement.CASH);
+        }
+        entityManager.clear();
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistiques.clear();
+
+        List<PaiementLigne> page = paiementRepository.findPage(0L, null, null, Paiement.ModePaiement.CASH,
+                null, MIDI, MIDI.plusDays(1), PageRequest.of(0, 11));
+
+        assertThat(page).hasSize(11);
+        assertThat(statistiques.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reconciliationIgnoreLesPaiementsAnciensEtDejaEnFile() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        persister(maintenant.minusDays(30), Paiement.ModePaiement.CASH);
+        Long recent = persister(maintenant.minusHours(2), Paiement.ModePaiement.CASH);
+        Long dejaEnFile = persister(maintenant.minusHours(1), Paiement.ModePaiement.STRIPE);
+        entityManager.persist(ReglementOutbox.pour(paiementRepository.findById(dejaEnFile).orElseThrow()));
+        entityManager.flush();
+
+        List<Paiement> sansReglement = paiementRepository.findSansReglement(Paiement.StatutPaiement.COMPLETE,
+                maintenant.minusDays(7), 0L, PageRequest.of(0, 20));
+
+        assertThat(sansReglement).extracting(Paiement::getIdPaiement).containsExactly(recent);
+    }
+
+    // Même enchaînement que GET /api/paiements : after = curseur X-Next-After de la page précédente
+    private List<Long> parcourir(int limite, Paiement.ModePaiement mode, LocalDateTime du, LocalDateTime au) {
+        List<Long> ids = new ArrayList<>();
+        Long after = 0L;
+        do {
+            Pageable demande = PageCurseur.demande(limite);
+            PageCurseur<PaiementLigne> page = PageCurseur.de(
+                    paiementRepository.findPage(after, null, null, mode, null, du, au, demande),
+                    demande, PaiementLigne::idPaiement, ligne -> ligne);
+            page.elements().forEach(ligne -> ids.add(ligne.idPaiement()));
+            after = page.suivant();
+        } while (after != null);
+        return ids;
+    }
+
+    private Long persister(LocalDateTime date, Paiement.ModePaiement mode) {
+        Paiement paiement = new Paiement();
+        paiement.setIdFacture(1L);
+        paiement.setIdReservation(1L);
+        paiement.setMontant(BigDecimal.valueOf(100));
+        paiement.setModePaiement(mode);
+        paiement.setDatePaiement(date);
+        return entityManager.persistAndFlush(paiement).getIdPaiement();
+    }
+}
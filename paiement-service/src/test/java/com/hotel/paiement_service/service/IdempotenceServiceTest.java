@@ -0,0 +1,199 @@
+package com.hotel.paiement_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.hotel.paiement_service.model.CleIdempotence;
+import com.hotel.paiement_service.repository.CleIdempotenceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Idempotency-Key sur une vraie base (H2) : rejeu, clé réutilisée, erreurs non gardées,
+ * doublons concurrents refusés pendant le traitement sans verrou tenu
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({IdempotenceService.class, IdempotenceServiceTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotenceServiceTest {
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private IdempotenceService idempotenceService;
+
+    @Autowired
+    private CleIdempotenceRepository cleIdempotenceRepository;
+
+    private final AtomicInteger paiements = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        cleIdempotenceRepository.deleteAll();
+        recentes().invalidateAll();
+    }
+
+    @Test
+    void memeCleEtMemeCorpsRejoueLaPremiereReponse() {
+        ResponseEntity<?> premiere = idempotenceService.executer("k1", "cash", requete(100), this::payer);
+        ResponseEntity<?> depuisLeCache = idempotenceService.executer("k1", "cash", requete(100), this::payer);
+        recentes().invalidateAll();
+        ResponseEntity<?> depuisLaBase = idempotenceService.executer("k1", "cash", requete(100), this::payer);
+
+        assertThat(paiements).hasValue(1);
+        assertThat(premiere.getStatusCode()).isEqualTo(HttpStatus.OK);
+        for (ResponseEntity<?> rejouee : List.of(depuisLeCache, depuisLaBase)) {
+            assertThat(rejouee.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(rejouee.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+            assertThat(rejouee.getBody()).isEqualTo("{\"idPaiement\":1}");
+        }
+        assertThat(cleIdempotenceRepository.findByCle("cash:k1"))
+                .hasValueSatisfying(ligne -> assertThat(ligne.getStatut()).isEqualTo(CleIdempotence.Statut.TERMINEE));
+    }
+
+    @Test
+    void memeCleAvecUnAutreCorpsRefusee() {
+        idempotenceService.executer("k2", "cash", requete(100), this::payer);
+
+        ResponseEntity<?> autre = idempotenceService.executer("k2", "cash", requete(250), this::payer);
+
+        assertThat(autre.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(paiements).hasValue(1);
+    }
+
+    @Test
+    void reponseEnErreurNonGardee() {
+        ResponseEntity<?> refusee = idempotenceService.executer("k3", "cash", requete(100),
+                () -> ResponseEntity.badRequest().body(Map.of("success", false)));
+
+        assertThat(refusee.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(cleIdempotenceRepository.count()).isZero();
+
+        // La même clé peut être réessayée
+        assertThat(idempotenceService.executer("k3", "cash", requete(100), this::payer).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(paiements).hasValue(1);
+    }
+
+    @Test
+    void exceptionDuTraitementLibereLaCle() {
+        assertThatThrownBy(() -> idempotenceService.executer("k4", "cash", requete(100), () -> {
+            throw new IllegalStateException("Stripe indisponible");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cleIdempotenceRepository.count()).isZero();
+    }
+
+    @Test
+    void doublonsConcurrentsRecoivent409PendantLeTraitement() throws Exception {
+        int requetes = 8;
+        CountDownLatch depart = new CountDownLatch(1);
+        CountDownLatch traitementDemarre = new CountDownLatch(1);
+        CountDownLatch finTraitement = new CountDownLatch(1);
+
+        ExecutorService clients = Executors.newFixedThreadPool(requetes);
+        try {
+            List<Future<ResponseEntity<?>>> reponses = new ArrayList<>();
+            for (int i = 0; i < requetes; i++) {
+                reponses.add(clients.submit(() -> {
+                    depart.await();
+                    return idempotenceService.executer("k5", "stripe-confirm", requete(100), () -> {
+                        traitementDemarre.countDown();
+                        try {
+                            // Appel au prestataire simulé : la clé doit être libre d'accès pendant ce temps
+                            finTraitement.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return payer();
+                    });
+                }));
+            }
+            depart.countDown();
+            assertThat(traitementDemarre.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // Les doublons répondent sans attendre la fin du traitement en cours
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (reponses.stream().filter(Future::isDone).count() < requetes - 1 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            List<ResponseEntity<?>> doublons = new ArrayList<>();
+            Future<ResponseEntity<?>> premiere = null;
+            for (Future<ResponseEntity<?>> reponse : reponses) {
+                if (reponse.isDone()) {
+                    doublons.add(reponse.get());
+                } else {
+                    premiere = reponse;
+                }
+            }
+            assertThat(premiere).isNotNull();
+            assertThat(doublons).hasSize(requetes - 1).allSatisfy(doublon -> {
+                assertThat(doublon.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                assertThat(doublon.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+            });
+
+            finTraitement.countDown();
+            assertThat(premiere.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        } finally {
+            finTraitement.countDown();
+            clients.shutdownNow();
+        }
+
+        assertThat(paiements).hasValue(1);
+        assertThat(idempotenceService.executer("k5", "stripe-confirm", requete(100), this::payer)
+                .getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+    }
+
+    private ResponseEntity<?> payer() {
+        return ResponseEntity.ok(Map.of("idPaiement", paiements.incrementAndGet()));
+    }
+
+    private static Map<String, Object> requete(int montant) {
+        return Map.of("idFacture", 7, "montant", montant);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<String, ?> recentes() {
+        return (Cache<String, ?>) ReflectionTestUtils.getField(idempotenceService, "recentes");
+    }
+}
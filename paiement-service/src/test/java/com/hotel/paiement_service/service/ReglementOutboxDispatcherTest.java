@@ -0,0 +1,142 @@
+package com.hotel.paiement_service.service;
+
+import com.hotel.paiement_service.model.Paiement;
+import com.hotel.paiement_service.model.ReglementOutbox;
+import com.hotel.paiement_service.model.ReglementOutbox.StatutReglement;
+import com.hotel.paiement_service.repository.PaiementRepository;
+import com.hotel.paiement_service.repository.ReglementOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * File des règlements : facture marquée PAYEE, backoff, abandon, réconciliation bornée dans le temps
+ */
+class ReglementOutboxDispatcherTest {
+
+    private ReglementOutbox reglement;
+    private ReglementOutboxRepository outboxRepository;
+    private PaiementRepository paiementRepository;
+    private RestTemplate restTemplate;
+    private ReglementOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        reglement = ReglementOutbox.pour(paiement(12L));
+        reglement.setId(1L);
+
+        outboxRepository = mock(ReglementOutboxRepository.class);
+        when(outboxRepository.findPrets(eq(StatutReglement.EN_ATTENTE), any(), any())).thenReturn(List.of(reglement));
+        when(outboxRepository.save(any(ReglementOutbox.class))).thenAnswer(inv -> inv.getArgument(0));
+        paiementRepository = mock(PaiementRepository.class);
+        restTemplate = mock(RestTemplate.class);
+
+        dispatcher = new ReglementOutboxDispatcher(outboxRepository, paiementRepository, restTemplate,
+                Runnable::run, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(dispatcher, "reservationServiceUrl", "http://reservations/api");
+        ReflectionTestUtils.setField(dispatcher, "tailleLot", 2);
+        ReflectionTestUtils.setField(dispatcher, "maxTentatives", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitial", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dispatcher, "backoffMax", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(dispatcher, "dureeReservation", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(dispatcher, "repriseEchecs", Duration.ofHours(6));
+        ReflectionTestUtils.setField(dispatcher, "fenetreReconciliation", Duration.ofDays(7));
+    }
+
+    @Test
+    void factureMarqueePayeePuisRegle() {
+        dispatcher.traiter();
+
+        verify(restTemplate).exchange(eq("http://reservations/api/factures/34/payer"), eq(HttpMethod.PUT),
+                any(HttpEntity.class), eq(Void.class));
+        assertThat(reglement.getStatut()).isEqualTo(StatutReglement.REGLE);
+        assertThat(reglement.getDateReglement()).isNotNull();
+    }
+
+    @Test
+    void serviceIndisponibleReplanifieAvecBackoff() {
+        serviceReservationsIndisponible();
+
+        dispatcher.traiter();
+
+        assertThat(reglement.getStatut()).isEqualTo(StatutReglement.EN_ATTENTE);
+        assertThat(reglement.getTentatives()).isEqualTo(1);
+        assertThat(reglement.getDerniereErreur()).isNotBlank();
+        assertThat(reglement.getProchainEssai()).isAfter(LocalDateTime.now().plusSeconds(25));
+    }
+
+    @Test
+    void abandonApresLeNombreMaxDeTentatives() {
+        serviceReservationsIndisponible();
+        reglement.setTentatives(2);
+
+        dispatcher.traiter();
+
+        assertThat(reglement.getStatut()).isEqualTo(StatutReglement.ECHEC);
+        assertThat(reglement.getTentatives()).isEqualTo(3);
+    }
+
+    @Test
+    void delaiDoubleJusquAuPlafond() {
+        assertThat(dispatcher.delaiAvantEssai(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(dispatcher.delaiAvantEssai(2)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(dispatcher.delaiAvantEssai(3)).isEqualTo(Duration.ofSeconds(120));
+        assertThat(dispatcher.delaiAvantEssai(10)).isEqualTo(Duration.ofMinutes(2));
+    }
+
+    @Test
+    void reconciliationRemetEnFileLesPaiementsRecentsSansReglement() {
+        when(paiementRepository.findSansReglement(eq(Paiement.StatutPaiement.COMPLETE), any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(paiement(1L), paiement(2L)), List.of(paiement(5L)));
+
+        dispatcher.reconcilier();
+
+        // Page suivante à partir du dernier id lu ; jamais au-delà de la fenêtre
+        ArgumentCaptor<LocalDateTime> depuis = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<Long> after = ArgumentCaptor.forClass(Long.class);
+        verify(paiementRepository, times(2)).findSansReglement(eq(Paiement.StatutPaiement.COMPLETE),
+                depuis.capture(), after.capture(), any(Pageable.class));
+        assertThat(after.getAllValues()).containsExactly(0L, 2L);
+        assertThat(depuis.getValue()).isCloseTo(LocalDateTime.now().minusDays(7), within(Duration.ofMinutes(1)));
+
+        ArgumentCaptor<ReglementOutbox> ajoutes = ArgumentCaptor.forClass(ReglementOutbox.class);
+        verify(outboxRepository, times(3)).save(ajoutes.capture());
+        assertThat(ajoutes.getAllValues()).extracting(ReglementOutbox::getIdPaiement).containsExactly(1L, 2L, 5L);
+        verify(outboxRepository).rearmerEchecs(eq(StatutReglement.EN_ATTENTE), eq(StatutReglement.ECHEC), any(), any());
+    }
+
+    private void serviceReservationsIndisponible() {
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.PUT), any(HttpEntity.class), eq(Void.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+    }
+
+    private static Paiement paiement(Long id) {
+        Paiement paiement = new Paiement();
+        paiement.setIdPaiement(id);
+        paiement.setIdFacture(34L);
+        paiement.setStatut(Paiement.StatutPaiement.COMPLETE);
+        return paiement;
+    }
+}
@@ -0,0 +1,179 @@
+package com.hotel.paiement_service.service;
+
+import com.hotel.paiement_service.model.Paiement;
+import com.hotel.paiement_service.model.RevenuAgregat;
+import com.hotel.paiement_service.repository.PaiementRepository;
+import com.hotel.paiement_service.repository.RevenuAgregatRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Agrégats de chiffre d'affaires sur H2 en mode MySQL (upsert ON DUPLICATE KEY UPDATE) :
+ * les totaux incrémentés paiement par paiement sont ceux d'un recalcul complet.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:revenus;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RevenuService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RevenuServiceTest {
+
+    @Autowired
+    private RevenuService revenuService;
+
+    @Autowired
+    private RevenuAgregatRepository revenuAgregatRepository;
+
+    @Autowired
+    private PaiementRepository paiementRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        revenuAgregatRepository.deleteAllInBatch();
+        paiementRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void totauxIncrementesEgauxAuRecalculComplet() {
+        LocalDateTime jour = LocalDateTime.of(2025, 1, 31, 23, 30);
+        payer(jour, Paiement.ModePaiement.CASH, "100.00", Paiement.StatutPaiement.COMPLETE);
+        payer(jour, Paiement.ModePaiement.CASH, "49.99", Paiement.StatutPaiement.COMPLETE);
+        payer(jour, Paiement.ModePaiement.STRIPE, "300.00", Paiement.StatutPaiement.COMPLETE);
+        payer(jour, Paiement.ModePaiement.STRIPE, "999.00", Paiement.StatutPaiement.ECHOUE);
+        // Changement de jour et de mois
+        payer(jour.plusHours(1), Paiement.ModePaiement.CASH, "20.01", Paiement.StatutPaiement.COMPLETE);
+        payer(jour.plusDays(15), Paiement.ModePaiement.PAYPAL, "75.50", Paiement.StatutPaiement.COMPLETE);
+
+        List<String> incrementes = agregats();
+        revenuService.reconstruireTout();
+
+        assertThat(incrementes).hasSize(8).containsExactlyElementsOf(agregats());
+        assertThat(incrementes).contains("JOUR 2025-01-31 CASH 2 149.99", "MOIS 2025-01-01 STRIPE 1 300.00",
+                "MOIS 2025-02-01 CASH 1 20.01");
+    }
+
+    @Test
+    void paiementsSimultanesSAdditionnent() throws Exception {
+        int paiements = 8;
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService caisses = Executors.newFixedThreadPool(paiements);
+        try {
+            List<Future<?>> resultats = new ArrayList<>();
+            for (int i = 0; i < paiements; i++) {
+                resultats.add(caisses.submit(() -> {
+                    depart.await();
+                    payer(LocalDateTime.of(2025, 3, 5, 10, 0), Paiement.ModePaiement.CASH, "10.00",
+                            Paiement.StatutPaiement.COMPLETE);
+                    return null;
+                }));
+            }
+            depart.countDown();
+            for (Future<?> resultat : resultats) {
+                resultat.get();
+            }
+        } finally {
+            caisses.shutdownNow();
+        }
+
+        List<String> incrementes = agregats();
+        revenuService.reconstruireTout();
+
+        assertThat(incrementes).containsExactly("JOUR 2025-03-05 CASH 8 80.00", "MOIS 2025-03-01 CASH 8 80.00")
+                .containsExactlyElementsOf(agregats());
+    }
+
+    @Test
+    void reconstructionDeNuitLimiteeAuxMoisRecents() {
+        LocalDateTime ancien = LocalDateTime.of(2025, 1, 10, 9, 0);
+        LocalDateTime recent = LocalDateTime.now();
+        payer(ancien, Paiement.ModePaiement.CASH, "100.00", Paiement.StatutPaiement.COMPLETE);
+        payer(recent, Paiement.ModePaiement.CASH, "50.00", Paiement.StatutPaiement.COMPLETE);
+        // Dérive : agrégats incrémentés sans paiement enregistré
+        deriver(ancien);
+        deriver(recent);
+
+        revenuService.reconstruire();
+
+        assertThat(agregats()).contains(
+                "JOUR " + recent.toLocalDate() + " CASH 1 50.00",
+                "MOIS " + recent.toLocalDate().withDayOfMonth(1) + " CASH 1 50.00",
+                "JOUR 2025-01-10 CASH 2 110.00",
+                "MOIS 2025-01-01 CASH 2 110.00");
+
+        revenuService.reconstruireTout();
+
+        assertThat(agregats()).contains("JOUR 2025-01-10 CASH 1 100.00", "MOIS 2025-01-01 CASH 1 100.00");
+    }
+
+    @Test
+    void statistiquesLuesDansLesAgregats() {
+        payer(LocalDateTime.of(2025, 4, 1, 9, 0), Paiement.ModePaiement.CASH, "100.00", Paiement.StatutPaiement.COMPLETE);
+        payer(LocalDateTime.of(2025, 4, 2, 9, 0), Paiement.ModePaiement.STRIPE, "50.00", Paiement.StatutPaiement.COMPLETE);
+        payer(LocalDateTime.of(2025, 4, 3, 9, 0), Paiement.ModePaiement.CASH, "25.00", Paiement.StatutPaiement.COMPLETE);
+
+        var stats = revenuService.statistiques(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 3),
+                RevenuAgregat.Periode.JOUR);
+
+        assertThat(stats.nombre()).isEqualTo(2);
+        assertThat(stats.montant()).isEqualByComparingTo("150.00");
+    }
+
+    // Même transaction que PaiementService : le paiement et ses agrégats
+    private void payer(LocalDateTime date, Paiement.ModePaiement mode, String montant, Paiement.StatutPaiement statut) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Paiement paiement = new Paiement();
+            paiement.setIdFacture(1L);
+            paiement.setIdReservation(1L);
+            paiement.setMontant(new BigDecimal(montant));
+            paiement.setModePaiement(mode);
+            paiement.setStatut(statut);
+            paiement.setDatePaiement(date);
+            revenuService.ajouter(paiementRepository.save(paiement));
+        });
+    }
+
+    private void deriver(LocalDateTime date) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Paiement fantome = new Paiement();
+            fantome.setMontant(new BigDecimal("10.00"));
+            fantome.setModePaiement(Paiement.ModePaiement.CASH);
+            fantome.setDatePaiement(date);
+            revenuService.ajouter(fantome);
+        });
+    }
+
+    private List<String> agregats() {
+        return revenuAgregatRepository.findAll().stream()
+                .map(a -> a.getPeriode() + " " + a.getDebut() + " " + a.getModePaiement() + " "
+                        + a.getNombre() + " " + a.getMontant().setScale(2))
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,66 @@
+package com.hotel.reservation_service.config;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+
+import java.util.function.Supplier;
+
+/**
+ * Appel HTTP bloquant lancé dans un autre thread, interruptible depuis le thread appelant.
+ * Future.cancel(true) ne suffit pas : la lecture sur la socket n'est pas interrompue et le thread
+ * reste pris jusqu'au timeout de lecture. Ici la requête Apache en cours est annulée (abort) :
+ * la socket est fermée, l'appel échoue tout de suite et le thread est rendu au pool.
+ * Les requêtes sont rattachées par {@link FabriqueRequetesAnnulables}.
+ */
+public final class AppelAnnulable {
+
+    private static final ThreadLocal<AppelAnnulable> COURANT = new ThreadLocal<>();
+
+    private volatile Cancellable requete;
+    private volatile boolean annule;
+
+    /**
+     * Exécuter le traitement (dans le thread du pool) ; ses requêtes HTTP sont rattachées à cet appel
+     */
+    public <T> T executer(Supplier<T> traitement) {
+        if (annule) {
+            throw new IllegalStateException("Appel annulé");
+        }
+        COURANT.set(this);
+        try {
+            return traitement.get();
+        } finally {
+            COURANT.remove();
+            requete = null;
+        }
+    }
+
+    public void executer(Runnable traitement) {
+        executer(() -> {
+            traitement.run();
+            return null;
+        });
+    }
+
+    /**
+     * Annuler la requête en cours et les suivantes de cet appel
+     */
+    public void annuler() {
+        annule = true;
+        Cancellable enCours = requete;
+        if (enCours != null) {
+            enCours.cancel();
+        }
+    }
+
+    static void rattacher(Cancellable nouvelle) {
+        AppelAnnulable appel = COURANT.get();
+        if (appel == null) {
+            return;
+        }
+        appel.requete = nouvelle;
+        // Annulé entre-temps : la requête ne part pas
+        if (appel.annule) {
+            nouvelle.cancel();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.hotel.reservation_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    @Value("${services.validation.pool-size:16}")
+    private int validationPoolSize;
+
+    @Value("${services.validation.queue-capacity:100}")
+    private int validationQueueCapacity;
+
+    @Value("${services.utilisateurs.pool-size:8}")
+    private int annuairePoolSize;
+
+    @Value("${app.mail.outbox.pool-size:4}")
+    private int emailPoolSize;
+
+    @Value("${app.mail.smtp.connexions:2}")
+    private int smtpConnexions;
+
+    @Value("${app.pdf.lot.parallelisme:4}")
+    private int pdfParallelisme;
+
+    @Value("${app.pdf.lot.file-max:4}")
+    private int lotsEnAttenteMax;
+
+    /**
+     * Pool borné pour les appels de validation vers les autres services
+     * (utilisateurs + chambres lancés en parallèle).
+     * Si le pool est saturé, l'appel s'exécute dans le thread appelant.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor validationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(validationPoolSize);
+        executor.setMaxPoolSize(validationPoolSize);
+        executor.setQueueCapacity(validationQueueCapacity);
+        executor.setThreadNamePrefix("validation-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Chargements de l'annuaire utilisateurs (un par ID absent du cache, partagé par ses appelants).
+     * Pas de CallerRunsPolicy : le chargement ne doit pas tourner dans le thread (annulable) d'un appelant ;
+     * pool saturé, la demande est refusée et rien n'est mis en cache.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor annuaireExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(annuairePoolSize);
+        executor.setMaxPoolSize(annuairePoolSize);
+        executor.setQueueCapacity(validationQueueCapacity);
+        executor.setThreadNamePrefix("annuaire-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool de préparation des emails de facture (file email_outbox) : PDF et contenu,
+     * puis remise à l'expéditeur SMTP.
+     * Un lot ne dépasse jamais la file : si le pool est occupé, le planificateur attend.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor emailExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(emailPoolSize);
+        executor.setMaxPoolSize(emailPoolSize);
+        executor.setQueueCapacity(emailPoolSize * 2);
+        executor.setThreadNamePrefix("email-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Threads d'envoi SMTP : un par connexion gardée ouverte, actifs tant que l'application tourne
+     */
+    @Bean
+    public ThreadPoolTaskExecutor smtpExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(smtpConnexions);
+        executor.setMaxPoolSize(smtpConnexions);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("smtp-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Lots de PDF (archive ZIP de factures) : un seul lot à la fois, quelques lots en attente.
+     * Au-delà, la demande est refusée (TaskRejectedException).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor archiveExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(lotsEnAttenteMax);
+        executor.setThreadNamePrefix("archive-pdf-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Rendus PDF d'un lot en parallèle.
+     * Pool saturé : le thread du lot rend lui-même le PDF (pas de file qui grossit).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor pdfExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pdfParallelisme);
+        executor.setMaxPoolSize(pdfParallelisme);
+        executor.setQueueCapacity(pdfParallelisme);
+        executor.setThreadNamePrefix("pdf-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
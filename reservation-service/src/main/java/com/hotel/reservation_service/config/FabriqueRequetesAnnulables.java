@@ -0,0 +1,23 @@
+package com.hotel.reservation_service.config;
+
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Requêtes Apache rattachées à l'{@link AppelAnnulable} du thread courant, s'il y en a un
+ */
+public class FabriqueRequetesAnnulables extends HttpComponentsClientHttpRequestFactory {
+
+    public FabriqueRequetesAnnulables(HttpClient httpClient) {
+        super(httpClient);
+    }
+
+    @Override
+    protected void postProcessHttpRequest(ClassicHttpRequest request) {
+        if (request instanceof Cancellable annulable) {
+            AppelAnnulable.rattacher(annulable);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.hotel.reservation_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Réglages du client HTTP inter-services (services.http.*).
+ * Identique dans paiement-service (config.HttpClientProperties).
+ */
+@Data
+@ConfigurationProperties(prefix = "services.http")
+public class HttpClientProperties {
+
+    // Délai d'établissement de la connexion TCP
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // Délai max d'attente de la réponse
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    // Délai max d'attente d'une connexion libre dans le pool
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    // Durée de vie max d'une connexion keep-alive
+    private Duration connectionTtl = Duration.ofMinutes(5);
+
+    // Fermeture des connexions inactives depuis plus de ...
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    private int maxTotal = 100;
+
+    private int defaultMaxPerRoute = 20;
+
+    // Limites par destination (services.http.routes.* dans application.yml)
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        private String url;
+        private int maxConnections;
+    }
+}
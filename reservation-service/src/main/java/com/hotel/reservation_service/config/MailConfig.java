@@ -0,0 +1,12 @@
+package com.hotel.reservation_service.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Expéditeur SMTP (connexions gardées ouvertes, envoi par lots) : réglages app.mail.smtp.*
+ */
+@Configuration
+@EnableConfigurationProperties(SmtpProperties.class)
+public class MailConfig {
+}
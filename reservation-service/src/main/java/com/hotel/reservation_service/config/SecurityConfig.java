@@ -1,49 +1,46 @@
 package com.hotel.reservation_service.config;
 
+import com.hotel.reservation_service.security.JwtAuthFilter;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.Customizer;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 
+/**
+ * Authentification par JWT (jetons de user-service, jetons de service de paiement-service) :
+ * plus de Basic Auth, donc plus de vérification BCrypt à chaque requête.
+ */
 @Configuration
+@RequiredArgsConstructor
 public class SecurityConfig {
 
-    @Bean
-    public InMemoryUserDetailsManager userDetailsService(PasswordEncoder passwordEncoder) {
-        UserDetails admin = User.builder()
-                .username("admin")
-                .password(passwordEncoder.encode("admin123"))
-                .roles("ADMIN")
-                .build();
-
-        return new InMemoryUserDetailsManager(admin);
-    }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    private final JwtAuthFilter jwtAuthFilter;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.cors(Customizer.withDefaults())  // ✅ IMPORTANT
                 .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Règlement d'une facture : service paiements (jeton de service) ou personnel de l'hôtel
+                        .requestMatchers(HttpMethod.PUT, "/api/factures/*/payer")
+                        .hasAnyAuthority("SERVICE", "ADMIN", "RECEPTIONNISTE")
+                        // Invalidation du cache utilisateurs : service utilisateurs seulement (jeton de service)
+                        .requestMatchers(HttpMethod.DELETE, "/api/utilisateurs/*/cache").hasAuthority("SERVICE")
                         .requestMatchers("/api/**").permitAll()  // ✅ Autoriser toutes les APIs
                         .anyRequest().permitAll()
                 )
-                .httpBasic(Customizer.withDefaults());
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -54,6 +51,8 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Curseur de la page suivante des listes paginées
+        configuration.setExposedHeaders(Arrays.asList("X-Next-After", "Location"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -0,0 +1,45 @@
+package com.hotel.reservation_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Réglages de l'expéditeur SMTP (app.mail.smtp.*) ; serveur et identifiants : spring.mail.*
+ */
+@Data
+@ConfigurationProperties(prefix = "app.mail.smtp")
+public class SmtpProperties {
+
+    // Connexions SMTP gardées ouvertes (une par thread d'envoi)
+    private int connexions = 2;
+
+    // Messages envoyés d'affilée sur une connexion
+    private int lot = 20;
+
+    // Emails en attente d'envoi au-delà desquels les nouveaux sont refusés
+    private int fileMax = 1000;
+
+    // Attente max d'une place dans la file avant refus
+    private Duration attenteFile = Duration.ofSeconds(5);
+
+    // Fermeture d'une connexion inutilisée depuis plus de ...
+    private Duration inactivite = Duration.ofSeconds(60);
+
+    // Débit des domaines sans fournisseur déclaré (messages / seconde, 0 = illimité)
+    private double debitParDefaut = 0;
+
+    // Débit max par fournisseur de messagerie des destinataires (ex: gmail, microsoft)
+    private Map<String, Fournisseur> fournisseurs = new LinkedHashMap<>();
+
+    @Data
+    public static class Fournisseur {
+        private List<String> domaines = new ArrayList<>();
+        private double messagesParSeconde;
+    }
+}
@@ -1,27 +1,34 @@
 package com.hotel.reservation_service.controller;
 
 import com.hotel.reservation_service.controller.dto.FactureResponse;
+import com.hotel.reservation_service.controller.dto.LotPdfResponse;
+import com.hotel.reservation_service.controller.dto.PageCurseur;
 import com.hotel.reservation_service.model.Facture;
 import com.hotel.reservation_service.model.EtatFacture;  // ← AJOUTÉ
-import com.hotel.reservation_service.model.Reservation;  // ← AJOUTÉ
-import com.hotel.reservation_service.model.StatutReservation;  // ← AJOUTÉ
 import com.hotel.reservation_service.repository.FactureRepository;
-import com.hotel.reservation_service.repository.ReservationRepository;  // ← AJOUTÉ
+import com.hotel.reservation_service.repository.projection.FactureLigne;
+import com.hotel.reservation_service.service.ArchivePdfService;
 import com.hotel.reservation_service.service.EmailService;
-import com.hotel.reservation_service.service.PdfService;
+import com.hotel.reservation_service.service.ExportService;
+import com.hotel.reservation_service.service.FacturePdfCache;
+import com.hotel.reservation_service.service.FactureService;
+import com.hotel.reservation_service.service.LotPdf;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/factures")
@@ -30,22 +37,102 @@ import java.util.stream.Collectors;
 public class FactureController {
 
     private final FactureRepository factureRepository;
-    private final ReservationRepository reservationRepository;  // ← AJOUTÉ
-    private final PdfService pdfService;
+    private final FacturePdfCache facturePdfCache;
     private final EmailService emailService;
-    private final RestTemplate restTemplate;
-
-    @Value("${services.utilisateurs.url}")
-    private String utilisateursServiceUrl;
+    private final ExportService exportService;
+    private final FactureService factureService;
+    private final ArchivePdfService archivePdfService;
 
+    /**
+     * Liste paginée par curseur : GET /api/factures?after=&limit=&etat=&idClient=&idChambre=&from=&to=
+     * (from / to portent sur la date d'émission ; curseur suivant dans l'en-tête X-Next-After)
+     */
     @GetMapping
-    public ResponseEntity<List<FactureResponse>> getAllFactures() {
-        log.info("Récupération de toutes les factures");
-        List<Facture> factures = factureRepository.findAll();
-        List<FactureResponse> responses = factures.stream()
-                .map(FactureResponse::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<List<FactureResponse>> getAllFactures(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) EtatFacture etat,
+            @RequestParam(required = false) Long idClient,
+            @RequestParam(required = false) Long idChambre,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Récupération des factures après {}", after);
+
+        Pageable demande = PageCurseur.demande(limit);
+        List<FactureLigne> lignes = factureRepository.findPage(after != null ? after : 0L, etat, idClient, idChambre,
+                from != null ? from.atStartOfDay() : null, to != null ? to.atStartOfDay() : null, demande);
+        return PageCurseur.de(lignes, demande, FactureLigne::idFacture, FactureResponse::fromLigne).enReponse();
+    }
+
+    /**
+     * Export complet en flux : GET /api/factures/export?format=ndjson|csv (mêmes filtres que la liste)
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exporterFactures(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) EtatFacture etat,
+            @RequestParam(required = false) Long idClient,
+            @RequestParam(required = false) Long idChambre,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Export des factures ({})", format);
+        ExportService.Format formatExport = ExportService.Format.depuis(format);
+
+        StreamingResponseBody corps = sortie -> exportService.exporterFactures(
+                formatExport, etat, idClient, idChambre, from, to, sortie);
+        return ResponseEntity.ok()
+                .contentType(formatExport.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=factures." + formatExport.getExtension())
+                .body(corps);
+    }
+
+    /**
+     * PDF de toutes les factures d'une période dans une archive ZIP (traitement en arrière-plan) :
+     * POST /api/factures/pdf/lots?etat=PAYEE&from=&to= (from / to portent sur la date d'émission)
+     * puis suivre GET /api/factures/pdf/lots/{id} et télécharger GET /api/factures/pdf/lots/{id}/archive
+     */
+    @PostMapping("/pdf/lots")
+    public ResponseEntity<?> lancerLotPdf(
+            @RequestParam(defaultValue = "PAYEE") EtatFacture etat,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("📦 Lot PDF demandé (état {}, du {} au {})", etat, from, to);
+        try {
+            LotPdf lot = archivePdfService.demarrer(etat, from, to);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/factures/pdf/lots/" + lot.getId()))
+                    .body(LotPdfResponse.fromLot(lot));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of(
+                    "success", false,
+                    "message", "Trop de lots PDF en attente, réessayez plus tard"
+            ));
+        }
+    }
+
+    @GetMapping("/pdf/lots/{id}")
+    public ResponseEntity<LotPdfResponse> getLotPdf(@PathVariable String id) {
+        return archivePdfService.getLot(id)
+                .map(LotPdfResponse::fromLot)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/pdf/lots/{id}/archive")
+    public ResponseEntity<?> telechargerLotPdf(@PathVariable String id) {
+        return archivePdfService.getLot(id)
+                .<ResponseEntity<?>>map(lot -> {
+                    if (lot.getStatut() != LotPdf.Statut.TERMINE) {
+                        // Pas encore prête (ou en échec) : renvoyer l'état du lot
+                        return ResponseEntity.status(HttpStatus.CONFLICT).body(LotPdfResponse.fromLot(lot));
+                    }
+                    StreamingResponseBody corps = sortie -> archivePdfService.ecrireArchive(lot, sortie);
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.parseMediaType("application/zip"))
+                            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=factures-" + id + ".zip")
+                            .body(corps);
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/{id}")
@@ -68,25 +155,18 @@ public class FactureController {
 
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> downloadFacturePdf(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> downloadFacturePdf(@PathVariable Long id) {
         log.info("📄 Téléchargement PDF facture {}", id);
 
         return factureRepository.findById(id)
                 .map(facture -> {
-                    try {
-                        byte[] pdfBytes = pdfService.generateFacturePdf(facture);
-
-                        HttpHeaders headers = new HttpHeaders();
-                        headers.setContentType(MediaType.APPLICATION_PDF);
-                        headers.setContentDispositionFormData("attachment", "facture-" + id + ".pdf");
-
-                        log.info("✅ PDF généré et envoyé");
-                        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentType(MediaType.APPLICATION_PDF);
+                    headers.setContentDispositionFormData("attachment", "facture-" + id + ".pdf");
 
-                    } catch (Exception e) {
-                        log.error("❌ Erreur génération PDF", e);
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<byte[]>build();
-                    }
+                    // Servi depuis le cache (mémoire ou disque) ; généré seulement si la version n'existe pas
+                    StreamingResponseBody corps = sortie -> facturePdfCache.ecrire(facture, sortie);
+                    return new ResponseEntity<>(corps, headers, HttpStatus.OK);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -120,50 +200,14 @@ public class FactureController {
         try {
             log.info("💰 Marquage facture {} comme payée", id);
 
-            Facture facture = factureRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Facture non trouvée"));
-
-            // Mettre à jour le statut de la facture
-            facture.setEtat(EtatFacture.PAYEE);
-            facture = factureRepository.save(facture);
-
-            // Mettre à jour la réservation associée
-            Reservation reservation = reservationRepository.findById(facture.getReservation().getIdReservation())
-                    .orElseThrow(() -> new RuntimeException("Réservation non trouvée"));
-
-            reservation.setStatut(StatutReservation.CONFIRMEE);
-            reservationRepository.save(reservation);
-
-            // ✅ NOUVEAU: Envoyer automatiquement l'email avec la facture
-            try {
-                Long idClient = reservation.getIdClient();
-                String userUrl = utilisateursServiceUrl + "/api/users/" + idClient;
-
-                log.info("📧 Récupération email du client {}", idClient);
-
-                Map<String, Object> userResponse = restTemplate.getForObject(userUrl, Map.class);
-
-                if (userResponse != null && userResponse.containsKey("email")) {
-                    String emailClient = (String) userResponse.get("email");
-                    log.info("✅ Email récupéré : {}", emailClient);
-
-                    // Envoyer l'email avec la facture en PDF
-                    emailService.sendFactureEmail(facture, emailClient);
-                    log.info("✅ Email envoyé automatiquement à {}", emailClient);
-                } else {
-                    log.warn("⚠️ Email non trouvé pour le client {}", idClient);
-                }
-
-            } catch (Exception e) {
-                log.error("❌ Erreur lors de l'envoi de l'email (non bloquant): {}", e.getMessage());
-                // On continue même si l'email échoue
-            }
+            // Facture + réservation mises à jour et email mis en file dans une seule transaction
+            Facture facture = factureService.marquerPayee(id);
 
             log.info("✅ Facture et réservation mises à jour");
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
-                    "message", "Facture marquée comme payée et email envoyé",
+                    "message", "Facture marquée comme payée, email en cours d'envoi",
                     "facture", facture
             ));
 
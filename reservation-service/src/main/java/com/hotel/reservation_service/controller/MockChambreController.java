@@ -1,5 +1,7 @@
 package com.hotel.reservation_service.controller;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.util.Map;
@@ -8,9 +10,21 @@ import java.util.Map;
 @RequestMapping("/mock/api/chambres")
 public class MockChambreController {
 
+    // Latence simulée (ms) pour reproduire un service chambres lent
+    private long latenceMs;
+
+    @Value("${mock.latence-ms:0}")
+    public void setLatenceMs(long latenceMs) {
+        this.latenceMs = latenceMs;
+    }
+
+    /**
+     * Même enveloppe que le vrai service chambres : { success, data, message }
+     */
     @GetMapping("/{id}")
-    public MockChambre getChambre(@PathVariable Long id) {
+    public Map<String, Object> getChambre(@PathVariable Long id) throws InterruptedException {
         System.out.println("🟢 Mock Chambre appelé pour ID: " + id);
+        Thread.sleep(latenceMs);
 
         MockChambre chambre = new MockChambre();
         chambre.setIdChambre(id);
@@ -25,7 +39,14 @@ public class MockChambreController {
         chambre.setVue("mer");
         chambre.setDescription("Chambre test mock");
         chambre.setPhotoUrl("http://example.com/photo.jpg");
-        return chambre;
+        return Map.of("success", true, "data", chambre, "message", "Chambre mock");
+    }
+
+    @GetMapping("/{id}/statut")
+    public Map<String, Object> getStatut(@PathVariable Long id) throws InterruptedException {
+        System.out.println("🟢 Mock Statut chambre appelé pour ID: " + id);
+        Thread.sleep(latenceMs);
+        return Map.of("success", true, "data", Map.of("id_chambre", id, "statut", "libre"), "message", "Statut mock");
     }
 
     @PutMapping("/{id}/statut")
@@ -34,13 +55,18 @@ public class MockChambreController {
     }
 
     public static class MockChambre {
+        @JsonProperty("id_chambre")
         private Long idChambre;
+        @JsonProperty("capacite_personne")
         private Integer capacitePersonnes;
         private String description;
         private Integer etage;
+        @JsonProperty("nb_lits")
         private Integer nbLits;
         private String numero;
+        @JsonProperty("photo_url")
         private String photoUrl;
+        @JsonProperty("prix_par_nuit")
         private BigDecimal prixParNuit;
         private String statut;
         private Double superficie;
@@ -1,14 +1,31 @@
 package com.hotel.reservation_service.controller;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
-@RequestMapping("/mock/api/utilisateurs")
+@RequestMapping({"/mock/api/utilisateurs", "/mock/api/users"})
 public class MockUtilisateurController {
 
+    // Latence simulée (ms) pour reproduire un service utilisateurs lent
+    private long latenceMs;
+
+    @Value("${mock.latence-ms:0}")
+    public void setLatenceMs(long latenceMs) {
+        this.latenceMs = latenceMs;
+    }
+
+    @GetMapping("/exists/{id}")
+    public Boolean userExists(@PathVariable Long id) throws InterruptedException {
+        System.out.println("🔵 Mock Utilisateur exists appelé pour ID: " + id);
+        Thread.sleep(latenceMs);
+        return true;
+    }
+
     @GetMapping("/{id}")
-    public MockUtilisateur getUtilisateur(@PathVariable Long id) {
+    public MockUtilisateur getUtilisateur(@PathVariable Long id) throws InterruptedException {
         System.out.println("🔵 Mock Utilisateur appelé pour ID: " + id);
+        Thread.sleep(latenceMs);
 
         MockUtilisateur user = new MockUtilisateur();
         user.setId(id);
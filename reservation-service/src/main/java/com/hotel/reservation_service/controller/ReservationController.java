@@ -1,18 +1,26 @@
 package com.hotel.reservation_service.controller;
 
+import com.hotel.reservation_service.controller.dto.PageCurseur;
 import com.hotel.reservation_service.controller.dto.ReservationRequest;
 import com.hotel.reservation_service.controller.dto.ReservationResponse;
 import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.service.DisponibiliteService;
+import com.hotel.reservation_service.service.ExportService;
 import com.hotel.reservation_service.service.ReservationService;
+import com.hotel.reservation_service.service.dto.ChambreResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/reservations")
@@ -21,6 +29,8 @@ import java.util.stream.Collectors;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final DisponibiliteService disponibiliteService;
+    private final ExportService exportService;
 
     @PostMapping
     public ResponseEntity<ReservationResponse> createReservation(
@@ -30,6 +40,39 @@ public class ReservationController {
         return new ResponseEntity<>(ReservationResponse.fromEntity(reservation), HttpStatus.CREATED);
     }
 
+    @GetMapping("/availability")
+    public ResponseEntity<List<ChambreResponse.ChambreData>> getChambresDisponibles(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer capacity) {
+        log.info("Requête reçue pour rechercher les chambres libres du {} au {}", from, to);
+        return ResponseEntity.ok(disponibiliteService.rechercherChambresLibres(from, to, type, capacity));
+    }
+
+    /**
+     * Export complet en flux : GET /api/reservations/export?format=ndjson|csv (mêmes filtres que la liste)
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exporterReservations(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) StatutReservation statut,
+            @RequestParam(required = false) Long idClient,
+            @RequestParam(required = false) Long idChambre,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Requête reçue pour exporter les réservations ({})", format);
+        ExportService.Format formatExport = ExportService.Format.depuis(format);
+
+        StreamingResponseBody corps = sortie -> exportService.exporterReservations(
+                formatExport, statut, idClient, idChambre, from, to, sortie);
+        return ResponseEntity.ok()
+                .contentType(formatExport.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=reservations." + formatExport.getExtension())
+                .body(corps);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ReservationResponse> getReservationById(@PathVariable Long id) {
         log.info("Requête reçue pour récupérer la réservation {}", id);
@@ -37,23 +80,23 @@ public class ReservationController {
         return ResponseEntity.ok(ReservationResponse.fromEntity(reservation));
     }
 
+    /**
+     * Liste paginée par curseur : GET /api/reservations?after=&limit=&statut=&idClient=&idChambre=&from=&to=
+     */
     @GetMapping
     public ResponseEntity<List<ReservationResponse>> getAllReservations(
-            @RequestParam(required = false) Long idClient) {
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) StatutReservation statut,
+            @RequestParam(required = false) Long idClient,
+            @RequestParam(required = false) Long idChambre,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         log.info("Requête reçue pour récupérer les réservations");
 
-        List<Reservation> reservations;
-        if (idClient != null) {
-            reservations = reservationService.getReservationsByClient(idClient);
-        } else {
-            reservations = reservationService.getAllReservations();
-        }
-
-        List<ReservationResponse> responses = reservations.stream()
-                .map(ReservationResponse::fromEntity)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(responses);
+        PageCurseur<ReservationResponse> page = reservationService.listerReservations(
+                after, limit, statut, idClient, idChambre, from, to);
+        return page.enReponse();
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,27 @@
+package com.hotel.reservation_service.controller;
+
+import com.hotel.reservation_service.service.UtilisateurAnnuaireService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Appelé par le service utilisateurs quand un compte est désactivé ou supprimé
+ * DELETE /api/utilisateurs/{id}/cache (jeton de service exigé, voir SecurityConfig)
+ */
+@RestController
+@RequestMapping("/api/utilisateurs")
+@RequiredArgsConstructor
+@Slf4j
+public class UtilisateurCacheController {
+
+    private final UtilisateurAnnuaireService utilisateurAnnuaireService;
+
+    @DeleteMapping("/{id}/cache")
+    public ResponseEntity<Void> invaliderUtilisateur(@PathVariable Long id) {
+        log.info("Requête reçue pour invalider l'utilisateur {} du cache", id);
+        utilisateurAnnuaireService.invalider(id);
+        return ResponseEntity.noContent().build();
+    }
+}
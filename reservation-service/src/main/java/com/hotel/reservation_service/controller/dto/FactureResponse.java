@@ -2,6 +2,7 @@ package com.hotel.reservation_service.controller.dto;
 
 import com.hotel.reservation_service.model.EtatFacture;
 import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.repository.projection.FactureLigne;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -34,4 +35,9 @@ public class FactureResponse {
 
         return response;
     }
+
+    public static FactureResponse fromLigne(FactureLigne ligne) {
+        return new FactureResponse(ligne.idFacture(), ligne.dateEmission(), ligne.montantTotal(),
+                ligne.etat(), ligne.idReservation());
+    }
 }
@@ -0,0 +1,35 @@
+package com.hotel.reservation_service.controller.dto;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.service.LotPdf;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotPdfResponse {
+
+    private String id;
+    private LotPdf.Statut statut;
+    private EtatFacture etat;
+    private LocalDate du;
+    private LocalDate au;
+    private long total;
+    private int traites;
+    private int erreurs;
+    private int pourcentage;
+    private LocalDateTime dateCreation;
+    private LocalDateTime dateFin;
+    private String message;
+
+    public static LotPdfResponse fromLot(LotPdf lot) {
+        return new LotPdfResponse(lot.getId(), lot.getStatut(), lot.getEtat(), lot.getDu(), lot.getAu(),
+                lot.getTotal(), lot.getTraites().get(), lot.getErreurs().get(), lot.getPourcentage(),
+                lot.getDateCreation(), lot.getDateFin(), lot.getMessage());
+    }
+}
@@ -2,6 +2,7 @@ package com.hotel.reservation_service.controller.dto;
 
 import com.hotel.reservation_service.model.Reservation;
 import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.projection.ReservationLigne;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -42,4 +43,23 @@ public class ReservationResponse {
 
         return response;
     }
+
+    public static ReservationResponse fromLigne(ReservationLigne ligne) {
+        ReservationResponse response = new ReservationResponse();
+        response.setIdReservation(ligne.idReservation());
+        response.setIdClient(ligne.idClient());
+        response.setIdChambre(ligne.idChambre());
+        response.setDateDebut(ligne.dateDebut());
+        response.setDateFin(ligne.dateFin());
+        response.setDateCreation(ligne.dateCreation());
+        response.setDateModification(ligne.dateModification());
+        response.setStatut(ligne.statut());
+
+        if (ligne.idFacture() != null) {
+            response.setFacture(new FactureResponse(ligne.idFacture(), ligne.dateEmission(),
+                    ligne.montantTotal(), ligne.etat(), ligne.idReservation()));
+        }
+
+        return response;
+    }
 }
@@ -0,0 +1,7 @@
+package com.hotel.reservation_service.exception;
+
+public class ChambreIndisponibleException extends RuntimeException {
+    public ChambreIndisponibleException(String message) {
+        super(message);
+    }
+}
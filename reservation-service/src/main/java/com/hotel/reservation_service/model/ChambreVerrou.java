@@ -0,0 +1,23 @@
+package com.hotel.reservation_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Une ligne par chambre, verrouillée (SELECT ... FOR UPDATE) pendant la
+ * vérification de disponibilité : deux réservations concurrentes de la
+ * même chambre sont ainsi traitées l'une après l'autre.
+ */
+@Entity
+@Table(name = "chambre_verrous")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChambreVerrou {
+
+    @Id
+    @Column(name = "id_chambre")
+    private Long idChambre;
+}
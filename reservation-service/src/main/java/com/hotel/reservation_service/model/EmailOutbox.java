@@ -0,0 +1,65 @@
+package com.hotel.reservation_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email de facture à envoyer, écrit dans la même transaction que le passage
+ * de la facture à PAYEE puis envoyé en arrière-plan (EmailOutboxDispatcher).
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        // Lecture des emails prêts : statut + date du prochain essai
+        @Index(name = "idx_email_outbox_statut_essai", columnList = "statut, prochain_essai")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "id_facture", nullable = false)
+    private Long idFacture;
+
+    // L'adresse est résolue à l'envoi (service utilisateurs), pas dans la transaction de paiement
+    @Column(name = "id_client", nullable = false)
+    private Long idClient;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut", nullable = false)
+    private StatutEmail statut = StatutEmail.EN_ATTENTE;
+
+    @Column(name = "tentatives", nullable = false)
+    private int tentatives;
+
+    @Column(name = "prochain_essai", nullable = false)
+    private LocalDateTime prochainEssai;
+
+    @Column(name = "derniere_erreur", length = 1000)
+    private String derniereErreur;
+
+    @Column(name = "date_creation")
+    @CreationTimestamp
+    private LocalDateTime dateCreation;
+
+    @Column(name = "date_envoi")
+    private LocalDateTime dateEnvoi;
+
+    public static EmailOutbox factureAEnvoyer(Long idFacture, Long idClient) {
+        EmailOutbox email = new EmailOutbox();
+        email.setIdFacture(idFacture);
+        email.setIdClient(idClient);
+        email.setStatut(StatutEmail.EN_ATTENTE);
+        email.setProchainEssai(LocalDateTime.now());
+        return email;
+    }
+}
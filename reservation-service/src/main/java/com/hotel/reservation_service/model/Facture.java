@@ -11,8 +11,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "factures")
-
+@Table(name = "factures", indexes = {
+        // Liste paginée par curseur filtrée sur l'état
+        @Index(name = "idx_factures_etat_id", columnList = "etat, id_facture")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,7 +36,7 @@ public class Facture {
     @Column(name = "etat", nullable = false)
     private EtatFacture etat = EtatFacture.EMISE;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_reservation", nullable = false, unique = true)
     @JsonIgnore
     private Reservation reservation;
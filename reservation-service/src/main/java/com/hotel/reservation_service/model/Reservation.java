@@ -11,7 +11,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        // Recherche de chevauchement : égalité sur chambre + statut, puis plage sur les dates
+        @Index(name = "idx_reservations_chambre_statut_dates", columnList = "id_chambre, statut, date_debut, date_fin"),
+        // Listes paginées par curseur : filtre puis parcours dans l'ordre des ID
+        @Index(name = "idx_reservations_client_id", columnList = "id_client, id_reservation"),
+        @Index(name = "idx_reservations_statut_id", columnList = "statut, id_reservation")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,6 +52,7 @@ public class Reservation {
     @UpdateTimestamp
     private LocalDateTime dateModification;
 
-    @OneToOne(mappedBy = "reservation", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // Chargée seulement par les requêtes qui en ont besoin (@EntityGraph "facture" du repository)
+    @OneToOne(mappedBy = "reservation", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Facture facture;
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.hotel.reservation_service.model;
+
+public enum StatutEmail {
+    EN_ATTENTE,
+    ENVOYE,
+    ECHEC
+}
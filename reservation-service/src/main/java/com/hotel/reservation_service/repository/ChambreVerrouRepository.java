@@ -0,0 +1,26 @@
+package com.hotel.reservation_service.repository;
+
+import com.hotel.reservation_service.model.ChambreVerrou;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChambreVerrouRepository extends JpaRepository<ChambreVerrou, Long> {
+
+    // Créer la ligne de verrou si elle n'existe pas encore (sans erreur si concurrente)
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO chambre_verrous (id_chambre) VALUES (:idChambre)", nativeQuery = true)
+    int creerSiAbsent(@Param("idChambre") Long idChambre);
+
+    // SELECT ... FOR UPDATE : bloque jusqu'à la fin de la transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM ChambreVerrou v WHERE v.idChambre = :idChambre")
+    Optional<ChambreVerrou> verrouiller(@Param("idChambre") Long idChambre);
+}
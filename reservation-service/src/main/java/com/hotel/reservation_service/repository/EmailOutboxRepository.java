@@ -0,0 +1,30 @@
+package com.hotel.reservation_service.repository;
+
+import com.hotel.reservation_service.model.EmailOutbox;
+import com.hotel.reservation_service.model.StatutEmail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // SELECT ... FOR UPDATE SKIP LOCKED : plusieurs instances peuvent vider la file sans se bloquer
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.statut = :statut AND e.prochainEssai <= :maintenant ORDER BY e.id")
+    List<EmailOutbox> findPrets(@Param("statut") StatutEmail statut,
+                                @Param("maintenant") LocalDateTime maintenant,
+                                Pageable pageable);
+
+    long countByStatut(StatutEmail statut);
+}
@@ -2,14 +2,103 @@ package com.hotel.reservation_service.repository;
 
 import com.hotel.reservation_service.model.EtatFacture;
 import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.repository.projection.FactureLigne;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FactureRepository extends JpaRepository<Facture, Long> {
+
+    // PDF, email et paiement ont besoin de la réservation : chargée dans la même requête
+    @Override
+    @EntityGraph(attributePaths = "reservation")
+    Optional<Facture> findById(Long id);
+
+    @EntityGraph(attributePaths = "reservation")
     Optional<Facture> findByReservation_IdReservation(Long idReservation);
+
+    @EntityGraph(attributePaths = "reservation")
     List<Facture> findByEtat(EtatFacture etat);
-}
\ No newline at end of file
+
+    /**
+     * Page de factures après le curseur {@code after} (ordre des ID), filtres optionnels.
+     * La période [du, au[ porte sur la date d'émission.
+     */
+    @Query("SELECT new com.hotel.reservation_service.repository.projection.FactureLigne(" +
+            "f.idFacture, f.dateEmission, f.montantTotal, f.etat, r.idReservation) " +
+            "FROM Facture f JOIN f.reservation r " +
+            "WHERE f.idFacture > :after " +
+            "AND (:etat IS NULL OR f.etat = :etat) " +
+            "AND (:idClient IS NULL OR r.idClient = :idClient) " +
+            "AND (:idChambre IS NULL OR r.idChambre = :idChambre) " +
+            "AND (:du IS NULL OR f.dateEmission >= :du) " +
+            "AND (:au IS NULL OR f.dateEmission < :au) " +
+            "ORDER BY f.idFacture")
+    List<FactureLigne> findPage(@Param("after") Long after,
+                                @Param("etat") EtatFacture etat,
+                                @Param("idClient") Long idClient,
+                                @Param("idChambre") Long idChambre,
+                                @Param("du") LocalDateTime du,
+                                @Param("au") LocalDateTime au,
+                                Pageable pageable);
+
+    /**
+     * Lot de factures complètes (réservation comprise) après le curseur : génération des PDF en masse.
+     * La période [du, au[ porte sur la date d'émission.
+     */
+    @EntityGraph(attributePaths = "reservation")
+    @Query("SELECT f FROM Facture f " +
+            "WHERE f.idFacture > :after " +
+            "AND (:etat IS NULL OR f.etat = :etat) " +
+            "AND (:du IS NULL OR f.dateEmission >= :du) " +
+            "AND (:au IS NULL OR f.dateEmission < :au) " +
+            "ORDER BY f.idFacture")
+    List<Facture> findLot(@Param("after") Long after,
+                          @Param("etat") EtatFacture etat,
+                          @Param("du") LocalDateTime du,
+                          @Param("au") LocalDateTime au,
+                          Pageable pageable);
+
+    @Query("SELECT COUNT(f) FROM Facture f " +
+            "WHERE (:etat IS NULL OR f.etat = :etat) " +
+            "AND (:du IS NULL OR f.dateEmission >= :du) " +
+            "AND (:au IS NULL OR f.dateEmission < :au)")
+    long compterLot(@Param("etat") EtatFacture etat,
+                    @Param("du") LocalDateTime du,
+                    @Param("au") LocalDateTime au);
+
+    /**
+     * Export complet : lignes lues au fil de l'eau par un curseur JDBC (useCursorFetch),
+     * à consommer dans une transaction puis fermer.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.hotel.reservation_service.repository.projection.FactureLigne(" +
+            "f.idFacture, f.dateEmission, f.montantTotal, f.etat, r.idReservation) " +
+            "FROM Facture f JOIN f.reservation r " +
+            "WHERE (:etat IS NULL OR f.etat = :etat) " +
+            "AND (:idClient IS NULL OR r.idClient = :idClient) " +
+            "AND (:idChambre IS NULL OR r.idChambre = :idChambre) " +
+            "AND (:du IS NULL OR f.dateEmission >= :du) " +
+            "AND (:au IS NULL OR f.dateEmission < :au) " +
+            "ORDER BY f.idFacture")
+    Stream<FactureLigne> streamLignes(@Param("etat") EtatFacture etat,
+                                      @Param("idClient") Long idClient,
+                                      @Param("idChambre") Long idChambre,
+                                      @Param("du") LocalDateTime du,
+                                      @Param("au") LocalDateTime au);
+}
@@ -2,14 +2,111 @@ package com.hotel.reservation_service.repository;
 
 import com.hotel.reservation_service.model.Reservation;
 import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.projection.CreneauReservation;
+import com.hotel.reservation_service.repository.projection.ReservationLigne;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    // Les méthodes qui renvoient des entités chargent la facture dans la même requête (jointure)
+    @Override
+    @EntityGraph(attributePaths = "facture")
+    Optional<Reservation> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "facture")
+    List<Reservation> findAll();
+
+    @EntityGraph(attributePaths = "facture")
     List<Reservation> findByIdClient(Long idClient);
+
+    @EntityGraph(attributePaths = "facture")
     List<Reservation> findByStatut(StatutReservation statut);
+
+    @EntityGraph(attributePaths = "facture")
     List<Reservation> findByIdChambre(Long idChambre);
-}
\ No newline at end of file
+
+    /**
+     * Existe-t-il une réservation de la chambre qui chevauche [dateDebut, dateFin[ ?
+     * (index idx_reservations_chambre_statut_dates)
+     */
+    @Query("SELECT COUNT(r) > 0 FROM Reservation r " +
+            "WHERE r.idChambre = :idChambre " +
+            "AND r.statut = :statut " +
+            "AND r.dateDebut < :dateFin " +
+            "AND r.dateFin > :dateDebut " +
+            "AND (:idReservationExclue IS NULL OR r.idReservation <> :idReservationExclue)")
+    boolean existsChevauchement(@Param("idChambre") Long idChambre,
+                                @Param("dateDebut") LocalDate dateDebut,
+                                @Param("dateFin") LocalDate dateFin,
+                                @Param("statut") StatutReservation statut,
+                                @Param("idReservationExclue") Long idReservationExclue);
+
+    // Périodes encore en cours ou à venir (chargement de l'index de disponibilité)
+    @Query("SELECT new com.hotel.reservation_service.repository.projection.CreneauReservation(" +
+            "r.idReservation, r.idChambre, r.dateDebut, r.dateFin) " +
+            "FROM Reservation r WHERE r.statut = :statut AND r.dateFin > :apres")
+    List<CreneauReservation> findCreneaux(@Param("statut") StatutReservation statut,
+                                          @Param("apres") LocalDate apres);
+
+    /**
+     * Page de réservations après le curseur {@code after} (ordre des ID), filtres optionnels.
+     * La période [du, au[ retient les séjours qui la chevauchent.
+     */
+    @Query("SELECT new com.hotel.reservation_service.repository.projection.ReservationLigne(" +
+            "r.idReservation, r.idClient, r.idChambre, r.dateDebut, r.dateFin, r.dateCreation, " +
+            "r.dateModification, r.statut, f.idFacture, f.dateEmission, f.montantTotal, f.etat) " +
+            "FROM Reservation r LEFT JOIN r.facture f " +
+            "WHERE r.idReservation > :after " +
+            "AND (:statut IS NULL OR r.statut = :statut) " +
+            "AND (:idClient IS NULL OR r.idClient = :idClient) " +
+            "AND (:idChambre IS NULL OR r.idChambre = :idChambre) " +
+            "AND (:du IS NULL OR r.dateFin > :du) " +
+            "AND (:au IS NULL OR r.dateDebut < :au) " +
+            "ORDER BY r.idReservation")
+    List<ReservationLigne> findPage(@Param("after") Long after,
+                                    @Param("statut") StatutReservation statut,
+                                    @Param("idClient") Long idClient,
+                                    @Param("idChambre") Long idChambre,
+                                    @Param("du") LocalDate du,
+                                    @Param("au") LocalDate au,
+                                    Pageable pageable);
+
+    /**
+     * Export complet : lignes lues au fil de l'eau par un curseur JDBC (useCursorFetch),
+     * à consommer dans une transaction puis fermer.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.hotel.reservation_service.repository.projection.ReservationLigne(" +
+            "r.idReservation, r.idClient, r.idChambre, r.dateDebut, r.dateFin, r.dateCreation, " +
+            "r.dateModification, r.statut, f.idFacture, f.dateEmission, f.montantTotal, f.etat) " +
+            "FROM Reservation r LEFT JOIN r.facture f " +
+            "WHERE (:statut IS NULL OR r.statut = :statut) " +
+            "AND (:idClient IS NULL OR r.idClient = :idClient) " +
+            "AND (:idChambre IS NULL OR r.idChambre = :idChambre) " +
+            "AND (:du IS NULL OR r.dateFin > :du) " +
+            "AND (:au IS NULL OR r.dateDebut < :au) " +
+            "ORDER BY r.idReservation")
+    Stream<ReservationLigne> streamLignes(@Param("statut") StatutReservation statut,
+                                          @Param("idClient") Long idClient,
+                                          @Param("idChambre") Long idChambre,
+                                          @Param("du") LocalDate du,
+                                          @Param("au") LocalDate au);
+}
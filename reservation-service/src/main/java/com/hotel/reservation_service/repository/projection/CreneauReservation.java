@@ -0,0 +1,9 @@
+package com.hotel.reservation_service.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Période occupée par une réservation (sans charger l'entité ni sa facture)
+ */
+public record CreneauReservation(Long idReservation, Long idChambre, LocalDate dateDebut, LocalDate dateFin) {
+}
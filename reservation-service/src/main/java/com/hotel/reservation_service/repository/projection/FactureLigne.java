@@ -0,0 +1,13 @@
+package com.hotel.reservation_service.repository.projection;
+
+import com.hotel.reservation_service.model.EtatFacture;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de liste d'une facture (sans charger la réservation)
+ */
+public record FactureLigne(Long idFacture, LocalDateTime dateEmission, BigDecimal montantTotal,
+                           EtatFacture etat, Long idReservation) {
+}
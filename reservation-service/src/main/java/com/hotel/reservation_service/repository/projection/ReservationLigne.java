@@ -0,0 +1,20 @@
+package com.hotel.reservation_service.repository.projection;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.StatutReservation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de liste d'une réservation avec sa facture, lue en une seule requête
+ * (les colonnes facture sont nulles si la réservation n'en a pas)
+ */
+public record ReservationLigne(Long idReservation, Long idClient, Long idChambre,
+                               LocalDate dateDebut, LocalDate dateFin,
+                               LocalDateTime dateCreation, LocalDateTime dateModification,
+                               StatutReservation statut,
+                               Long idFacture, LocalDateTime dateEmission,
+                               BigDecimal montantTotal, EtatFacture etat) {
+}
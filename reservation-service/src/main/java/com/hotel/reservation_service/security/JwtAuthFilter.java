@@ -0,0 +1,46 @@
+package com.hotel.reservation_service.security;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authentification sans état par en-tête "Authorization: Bearer <jwt>".
+ * Sans jeton, ou avec un jeton invalide, la requête continue en anonyme (les règles de SecurityConfig décident).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtAuthFilter extends OncePerRequestFilter {
+
+    private final JwtVerificateur jwtVerificateur;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                JetonVerifie jeton = jwtVerificateur.verifier(authHeader.substring(7));
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(jeton.sujet(), null, jeton.authorities()));
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("JWT refusé : {}", e.getMessage());
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,221 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.repository.FactureRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * PDF de toutes les factures d'une période dans une seule archive ZIP :
+ * - factures lues par pages (curseur sur l'ID), réservation chargée dans la même requête
+ * - PDF rendus en parallèle sur le pool pdfExecutor
+ * - écrits dans le ZIP dans l'ordre, au plus 2 × parallélisme PDF en mémoire à la fois
+ * L'archive est écrite sur disque puis téléchargée une fois le lot terminé.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchivePdfService {
+
+    private final FactureRepository factureRepository;
+    private final PdfService pdfService;
+    private final Executor archiveExecutor;
+    private final Executor pdfExecutor;
+
+    private final Map<String, LotPdf> lots = new ConcurrentHashMap<>();
+
+    @Value("${app.pdf.lot.dossier:${java.io.tmpdir}/hotel-factures-lots}")
+    private Path dossier;
+
+    @Value("${app.pdf.lot.page:200}")
+    private int taillePage;
+
+    @Value("${app.pdf.lot.parallelisme:4}")
+    private int parallelisme;
+
+    @Value("${app.pdf.lot.conservation:24h}")
+    private Duration conservation;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(dossier);
+    }
+
+    /**
+     * Lancer un lot ; refusé (TaskRejectedException) si trop de lots sont déjà en attente
+     */
+    public LotPdf demarrer(EtatFacture etat, LocalDate du, LocalDate au) {
+        if (du != null && au != null && !au.isAfter(du)) {
+            throw new IllegalArgumentException("La date de fin doit être après la date de début");
+        }
+
+        LotPdf lot = new LotPdf(etat, du, au);
+        lots.put(lot.getId(), lot);
+        try {
+            archiveExecutor.execute(() -> executer(lot));
+        } catch (RuntimeException e) {
+            lots.remove(lot.getId());
+            throw e;
+        }
+        log.info("📦 Lot PDF {} créé (état {}, du {} au {})", lot.getId(), etat, du, au);
+        return lot;
+    }
+
+    public Optional<LotPdf> getLot(String id) {
+        return Optional.ofNullable(lots.get(id));
+    }
+
+    void executer(LotPdf lot) {
+        LocalDateTime du = lot.getDu() != null ? lot.getDu().atStartOfDay() : null;
+        LocalDateTime au = lot.getAu() != null ? lot.getAu().atStartOfDay() : null;
+        lot.demarrer(factureRepository.compterLot(lot.getEtat(), du, au));
+        long debut = System.currentTimeMillis();
+
+        Path archive = dossier.resolve("factures-" + lot.getId() + ".zip");
+        Path temporaire = dossier.resolve("factures-" + lot.getId() + ".zip.tmp");
+        StringBuilder echecs = new StringBuilder();
+
+        try {
+            try (ZipOutputStream zip = new ZipOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaire), 64 * 1024))) {
+
+                // Fenêtre de rendus en cours : borne la mémoire, garde l'ordre des factures dans le ZIP
+                Deque<CompletableFuture<Rendu>> enCours = new ArrayDeque<>();
+                int fenetre = Math.max(1, parallelisme * 2);
+                long after = 0;
+                List<Facture> page;
+
+                do {
+                    page = factureRepository.findLot(after, lot.getEtat(), du, au, PageRequest.of(0, taillePage));
+                    for (Facture facture : page) {
+                        if (enCours.size() >= fenetre) {
+                            ajouter(zip, enCours.removeFirst().join(), lot, echecs);
+                        }
+                        enCours.addLast(CompletableFuture.supplyAsync(() -> rendre(facture), pdfExecutor));
+                    }
+                    if (!page.isEmpty()) {
+                        after = page.get(page.size() - 1).getIdFacture();
+                        log.info("📦 Lot PDF {} : {}/{} factures", lot.getId(), lot.getTraites().get(), lot.getTotal());
+                    }
+                } while (page.size() == taillePage);
+
+                while (!enCours.isEmpty()) {
+                    ajouter(zip, enCours.removeFirst().join(), lot, echecs);
+                }
+
+                if (!echecs.isEmpty()) {
+                    ajouter(zip, "erreurs.txt", echecs.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            Files.move(temporaire, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            lot.terminer(archive);
+            log.info("✅ Lot PDF {} terminé : {} PDF, {} erreur(s) en {} ms", lot.getId(),
+                    lot.getTraites().get() - lot.getErreurs().get(), lot.getErreurs().get(),
+                    System.currentTimeMillis() - debut);
+
+        } catch (Exception e) {
+            log.error("❌ Lot PDF {} interrompu : {}", lot.getId(), e.getMessage());
+            lot.echouer(e.getMessage());
+            supprimer(temporaire);
+        }
+    }
+
+    private Rendu rendre(Facture facture) {
+        try {
+            return new Rendu(facture.getIdFacture(), pdfService.generateFacturePdf(facture), null);
+        } catch (Exception e) {
+            return new Rendu(facture.getIdFacture(), null, e.getMessage());
+        }
+    }
+
+    private void ajouter(ZipOutputStream zip, Rendu rendu, LotPdf lot, StringBuilder echecs) throws IOException {
+        if (rendu.pdf() != null) {
+            ajouter(zip, "facture-" + rendu.idFacture() + ".pdf", rendu.pdf());
+        } else {
+            // Une facture en échec n'arrête pas le lot : elle est listée dans erreurs.txt
+            lot.getErreurs().incrementAndGet();
+            echecs.append("facture ").append(rendu.idFacture()).append(" : ").append(rendu.erreur()).append('\n');
+        }
+        lot.getTraites().incrementAndGet();
+    }
+
+    // Les PDF sont déjà compressés : stockés tels quels (STORED), sans recompression
+    private static void ajouter(ZipOutputStream zip, String nom, byte[] contenu) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(contenu);
+
+        ZipEntry entree = new ZipEntry(nom);
+        entree.setMethod(ZipEntry.STORED);
+        entree.setSize(contenu.length);
+        entree.setCompressedSize(contenu.length);
+        entree.setCrc(crc.getValue());
+
+        zip.putNextEntry(entree);
+        zip.write(contenu);
+        zip.closeEntry();
+    }
+
+    /**
+     * Copier l'archive d'un lot terminé dans le flux de réponse
+     */
+    public void ecrireArchive(LotPdf lot, OutputStream sortie) throws IOException {
+        Files.copy(lot.getArchive(), sortie);
+    }
+
+    /**
+     * Oublier les lots terminés depuis plus de conservation (et supprimer leur archive)
+     */
+    @Scheduled(fixedDelayString = "${app.pdf.lot.purge-intervalle:1h}")
+    public void purger() {
+        LocalDateTime limite = LocalDateTime.now().minus(conservation);
+        lots.values().removeIf(lot -> {
+            if (lot.getDateFin() == null || lot.getDateFin().isAfter(limite)) {
+                return false;
+            }
+            if (lot.getArchive() != null) {
+                supprimer(lot.getArchive());
+            }
+            return true;
+        });
+    }
+
+    private static void supprimer(Path fichier) {
+        try {
+            Files.deleteIfExists(fichier);
+        } catch (IOException e) {
+            log.warn("⚠️ Impossible de supprimer {} : {}", fichier.getFileName(), e.getMessage());
+        }
+    }
+
+    private record Rendu(Long idFacture, byte[] pdf, String erreur) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.hotel.reservation_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hotel.reservation_service.exception.NotFoundException;
+import com.hotel.reservation_service.service.dto.ChambreListeResponse;
+import com.hotel.reservation_service.service.dto.ChambreResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache local du catalogue des chambres, en deux parties :
+ * - la fiche (prix, type, capacité, étage...) change rarement : gardée {@code ttl}
+ * - le statut (libre, occupee, maintenance...) est re-vérifié une fois plus ancien que {@code statut-ttl},
+ *   par GET /api/chambres/{id}/statut (le reste de la fiche n'est pas relu)
+ * Une mise à jour de statut faite par ce service est reportée dans le cache sans appel.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChambreCatalogueService {
+
+    private static final String LISTE = "toutes";
+
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${services.chambres.url:http://localhost:8083}")
+    private String chambresServiceUrl;
+
+    @Value("${services.chambres.cache.max-size:1000}")
+    private long maxSize;
+
+    @Value("${services.chambres.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${services.chambres.cache.statut-ttl:30s}")
+    private Duration statutTtl;
+
+    @Value("${services.chambres.liste.page-size:500}")
+    private int taillePage;
+
+    private Cache<Long, ChambreResponse.ChambreData> fiches;
+    private Cache<Long, String> statuts;
+
+    // Catalogue complet : une seule entrée, chargée par un seul appelant à la fois
+    // (les autres attendent cette entrée seulement, pas getChambre)
+    private Cache<String, List<ChambreResponse.ChambreData>> liste;
+
+    @PostConstruct
+    public void init() {
+        fiches = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        statuts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(statutTtl)
+                .recordStats()
+                .build();
+        liste = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(statutTtl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, fiches, "chambres");
+        CaffeineCacheMetrics.monitor(meterRegistry, statuts, "chambres.statut");
+        log.info("✅ Cache chambres initialisé (max {}, ttl {}, statut {})", maxSize, ttl, statutTtl);
+    }
+
+    /**
+     * Récupérer une chambre : fiche depuis le cache, statut re-vérifié s'il est trop ancien
+     */
+    public ChambreResponse.ChambreData getChambre(Long idChambre) {
+        ChambreResponse.ChambreData fiche = fiches.getIfPresent(idChambre);
+        if (fiche == null) {
+            // Fiche relue : son statut vient d'être lu avec elle
+            fiche = fiches.get(idChambre, this::chargerFiche);
+            String statut = statuts.getIfPresent(idChambre);
+            return fiche.avecStatut(statut != null ? statut : fiche.getStatut());
+        }
+        log.debug("🗄️ Chambre {} servie depuis le cache", idChambre);
+        return fiche.avecStatut(statuts.get(idChambre, this::chargerStatut));
+    }
+
+    /**
+     * Forcer la relecture du statut d'une chambre auprès du service chambres
+     */
+    public ChambreResponse.ChambreData rafraichir(Long idChambre) {
+        statuts.invalidate(idChambre);
+        return getChambre(idChambre);
+    }
+
+    /**
+     * Toutes les chambres du catalogue (recherche de disponibilités).
+     * La liste est relue au plus une fois par {@code statut-ttl}, page par page ;
+     * entre deux lectures, les statuts connus plus récents la corrigent.
+     */
+    public List<ChambreResponse.ChambreData> getToutesLesChambres() {
+        return liste.get(LISTE, cle -> chargerToutesLesChambres()).stream()
+                .map(chambre -> {
+                    String statut = statuts.getIfPresent(chambre.getIdChambre());
+                    return statut != null && !statut.equals(chambre.getStatut()) ? chambre.avecStatut(statut) : chambre;
+                })
+                .toList();
+    }
+
+    private ChambreResponse.ChambreData chargerFiche(Long idChambre) {
+        String chambreUrl = chambresServiceUrl + "/api/chambres/" + idChambre;
+        log.info("🔍 Appel API Chambre : {}", chambreUrl);
+
+        ChambreResponse.ChambreData chambre = lire(chambreUrl, idChambre);
+        statuts.put(idChambre, chambre.getStatut());
+        return chambre;
+    }
+
+    private String chargerStatut(Long idChambre) {
+        String statutUrl = chambresServiceUrl + "/api/chambres/" + idChambre + "/statut";
+        log.debug("🔍 Appel API Chambre (statut) : {}", statutUrl);
+        return lire(statutUrl, idChambre).getStatut();
+    }
+
+    private ChambreResponse.ChambreData lire(String url, Long idChambre) {
+        ChambreResponse response = restTemplate.getForObject(url, ChambreResponse.class);
+
+        // Vérifier que la réponse est valide
+        if (response == null || !response.isSuccess() || response.getData() == null) {
+            fiches.invalidate(idChambre);
+            throw new NotFoundException("Chambre avec l'ID " + idChambre + " introuvable");
+        }
+        return response.getData();
+    }
+
+    private List<ChambreResponse.ChambreData> chargerToutesLesChambres() {
+        List<ChambreResponse.ChambreData> chambres = new ArrayList<>();
+        int page = 1;
+        int dernierePage;
+        do {
+            String listeUrl = chambresServiceUrl + "/api/chambres?per_page=" + taillePage + "&page=" + page;
+            log.info("🔍 Appel API Chambres : {}", listeUrl);
+
+            ChambreListeResponse response = restTemplate.getForObject(listeUrl, ChambreListeResponse.class);
+            if (response == null || !response.isSuccess() || response.getData() == null) {
+                throw new IllegalStateException("Liste des chambres indisponible");
+            }
+
+            for (ChambreResponse.ChambreData chambre : response.getData().getData()) {
+                chambres.add(chambre);
+                fiches.put(chambre.getIdChambre(), chambre);
+                statuts.put(chambre.getIdChambre(), chambre.getStatut());
+            }
+            dernierePage = response.getData().getLastPage();
+            page++;
+        } while (page <= dernierePage);
+
+        log.info("✅ {} chambres chargées dans le catalogue", chambres.size());
+        return List.copyOf(chambres);
+    }
+
+    /**
+     * Statut modifié par ce service (PUT accepté par le service chambres) : pas besoin de le relire
+     */
+    public void statutModifie(Long idChambre, String statut) {
+        statuts.put(idChambre, statut);
+    }
+
+    /**
+     * Statut inconnu (mise à jour échouée) : relu au prochain accès ; la fiche reste en cache
+     */
+    public void invalider(Long idChambre) {
+        statuts.invalidate(idChambre);
+    }
+
+    public CacheStats stats() {
+        return fiches.stats();
+    }
+
+    public CacheStats statsStatuts() {
+        return statuts.stats();
+    }
+}
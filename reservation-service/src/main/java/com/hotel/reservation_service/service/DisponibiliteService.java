@@ -0,0 +1,93 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.exception.ChambreIndisponibleException;
+import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.ChambreVerrouRepository;
+import com.hotel.reservation_service.repository.ReservationRepository;
+import com.hotel.reservation_service.service.dto.ChambreResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Disponibilité des chambres par période, décidée à partir des réservations
+ * en base (et non plus du statut "libre" du service chambres).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DisponibiliteService {
+
+    // Seules les réservations confirmées occupent la chambre
+    private static final StatutReservation STATUT_BLOQUANT = StatutReservation.CONFIRMEE;
+
+    private final ReservationRepository reservationRepository;
+    private final ChambreVerrouRepository chambreVerrouRepository;
+    private final ChambreCatalogueService chambreCatalogueService;
+    private final IndexDisponibilite indexDisponibilite;
+
+    public void verifierPeriode(LocalDate dateDebut, LocalDate dateFin) {
+        if (dateDebut == null || dateFin == null || !dateFin.isAfter(dateDebut)) {
+            throw new IllegalArgumentException("La date de fin doit être après la date de début");
+        }
+    }
+
+    /**
+     * Recherche groupée : chambres libres sur [dateDebut, dateFin[ parmi tout le catalogue.
+     * Répond depuis le catalogue en cache et l'index en mémoire, sans requête SQL ;
+     * la réservation elle-même reste vérifiée en base par {@link #reserverCreneau}.
+     */
+    public List<ChambreResponse.ChambreData> rechercherChambresLibres(LocalDate dateDebut, LocalDate dateFin,
+                                                                      String type, Integer capacite) {
+        verifierPeriode(dateDebut, dateFin);
+        if (dateDebut.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("La date de début ne peut pas être dans le passé");
+        }
+
+        List<ChambreResponse.ChambreData> libres = chambreCatalogueService.getToutesLesChambres().stream()
+                .filter(chambre -> type == null || type.equalsIgnoreCase(chambre.getType()))
+                .filter(chambre -> capacite == null
+                        || (chambre.getCapacitePersonnes() != null && chambre.getCapacitePersonnes() >= capacite))
+                .filter(chambre -> !chambre.isHorsService())
+                .filter(chambre -> indexDisponibilite.estLibre(chambre.getIdChambre(), dateDebut, dateFin))
+                .toList();
+
+        log.info("🔎 {} chambres libres du {} au {} (type {}, capacité {})",
+                libres.size(), dateDebut, dateFin, type, capacite);
+        return libres;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean estDisponible(Long idChambre, LocalDate dateDebut, LocalDate dateFin) {
+        verifierPeriode(dateDebut, dateFin);
+        return !reservationRepository.existsChevauchement(idChambre, dateDebut, dateFin, STATUT_BLOQUANT, null);
+    }
+
+    /**
+     * Verrouiller la chambre puis vérifier qu'aucune réservation ne chevauche la période.
+     * Doit être appelé dans la transaction qui enregistre la réservation : le verrou
+     * est gardé jusqu'au commit, une réservation concurrente attend puis voit la nôtre.
+     *
+     * @param idReservationExclue réservation à ignorer (modification), ou null
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserverCreneau(Long idChambre, LocalDate dateDebut, LocalDate dateFin, Long idReservationExclue) {
+        verifierPeriode(dateDebut, dateFin);
+
+        chambreVerrouRepository.creerSiAbsent(idChambre);
+        chambreVerrouRepository.verrouiller(idChambre);
+
+        if (reservationRepository.existsChevauchement(idChambre, dateDebut, dateFin,
+                STATUT_BLOQUANT, idReservationExclue)) {
+            log.warn("⛔ Chambre {} déjà réservée entre le {} et le {}", idChambre, dateDebut, dateFin);
+            throw new ChambreIndisponibleException("La chambre " + idChambre + " est déjà réservée entre le "
+                    + dateDebut + " et le " + dateFin);
+        }
+        log.info("🔒 Chambre {} disponible du {} au {}", idChambre, dateDebut, dateFin);
+    }
+}
@@ -0,0 +1,193 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.model.EmailOutbox;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.StatutEmail;
+import com.hotel.reservation_service.repository.EmailOutboxRepository;
+import com.hotel.reservation_service.repository.FactureRepository;
+import com.hotel.reservation_service.service.dto.UtilisateurResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Vide la file des emails de facture (table email_outbox) en arrière-plan :
+ * - réserve un lot d'emails prêts (FOR UPDATE SKIP LOCKED) en repoussant leur prochain essai
+ * - les prépare sur le pool emailExecutor puis les confie à l'expéditeur SMTP (envoi groupé)
+ * - ne réserve plus rien tant que la file SMTP dépasse seuil-file : elle se vide bien avant la fin
+ *   de la réservation, un email encore en file n'est pas repris et envoyé deux fois
+ * - en cas d'échec, nouvel essai avec un délai qui double, puis ECHEC après max-tentatives
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final FactureRepository factureRepository;
+    private final UtilisateurAnnuaireService utilisateurAnnuaireService;
+    private final EmailService emailService;
+    private final ExpediteurSmtp expediteurSmtp;
+    private final Executor emailExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.mail.outbox.lot:20}")
+    private int tailleLot;
+
+    @Value("${app.mail.outbox.max-tentatives:8}")
+    private int maxTentatives;
+
+    @Value("${app.mail.outbox.backoff-initial:30s}")
+    private Duration backoffInitial;
+
+    @Value("${app.mail.outbox.backoff-max:1h}")
+    private Duration backoffMax;
+
+    // Un email réservé mais jamais traité (arrêt de l'instance) redevient prêt après ce délai
+    @Value("${app.mail.outbox.reservation:5m}")
+    private Duration dureeReservation;
+
+    // Emails en file SMTP au-delà desquels on n'en réserve plus (débit limité par fournisseur)
+    @Value("${app.mail.outbox.seuil-file:100}")
+    private int seuilFile;
+
+    // Emails confiés par cette instance et pas encore terminés : une nouvelle réservation ne les renvoie pas
+    private final Set<Long> enCours = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.intervalle:2s}")
+    public void traiter() {
+        int place = seuilFile - expediteurSmtp.getEnAttente();
+        if (place <= 0) {
+            log.debug("📬 File SMTP pleine ({} emails) : pas de nouvelle réservation", expediteurSmtp.getEnAttente());
+            return;
+        }
+
+        List<Long> lot = transactionTemplate.execute(status -> reserverLot(Math.min(tailleLot, place)));
+        if (lot == null || lot.isEmpty()) {
+            return;
+        }
+
+        // Un email déjà en cours ici a seulement vu sa réservation prolongée
+        List<Long> nouveaux = lot.stream().filter(enCours::add).toList();
+        if (nouveaux.isEmpty()) {
+            return;
+        }
+        log.info("📬 {} email(s) de facture à envoyer", nouveaux.size());
+        for (Long id : nouveaux) {
+            emailExecutor.execute(() -> envoyer(id));
+        }
+    }
+
+    private List<Long> reserverLot(int taille) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<EmailOutbox> prets = emailOutboxRepository.findPrets(StatutEmail.EN_ATTENTE, maintenant,
+                PageRequest.of(0, taille));
+
+        // Repousser le prochain essai : les autres passages (ou instances) ne les reprennent pas
+        prets.forEach(email -> email.setProchainEssai(maintenant.plus(dureeReservation)));
+        return prets.stream().map(EmailOutbox::getId).toList();
+    }
+
+    void envoyer(Long idEmail) {
+        boolean confie = false;
+        try {
+            confie = preparer(idEmail);
+        } finally {
+            if (!confie) {
+                enCours.remove(idEmail);
+            }
+        }
+    }
+
+    // true si l'email a été confié à l'expéditeur SMTP (enCours libéré à la fin de l'envoi)
+    private boolean preparer(Long idEmail) {
+        EmailOutbox email = emailOutboxRepository.findById(idEmail).orElse(null);
+        if (email == null || email.getStatut() != StatutEmail.EN_ATTENTE) {
+            return false;
+        }
+
+        try {
+            Facture facture = factureRepository.findById(email.getIdFacture())
+                    .orElseThrow(() -> new IllegalStateException("Facture " + email.getIdFacture() + " introuvable"));
+
+            Optional<String> adresse = utilisateurAnnuaireService.getUtilisateur(email.getIdClient())
+                    .map(UtilisateurResponse::getEmail);
+            if (adresse.isEmpty()) {
+                // Rien à réessayer : le client n'a pas d'adresse
+                log.warn("⚠️ Email non trouvé pour le client {}", email.getIdClient());
+                terminer(email, StatutEmail.ECHEC, "Email non trouvé pour le client " + email.getIdClient());
+                return false;
+            }
+
+            emailService.envoyerFacture(facture, adresse.get()).whenComplete((ok, erreur) -> {
+                try {
+                    if (erreur != null) {
+                        replanifier(email, erreur instanceof CompletionException ? erreur.getCause() : erreur);
+                        return;
+                    }
+                    email.setDateEnvoi(LocalDateTime.now());
+                    terminer(email, StatutEmail.ENVOYE, null);
+                    log.info("✅ Email de la facture {} envoyé à {}", facture.getIdFacture(), adresse.get());
+                } finally {
+                    enCours.remove(idEmail);
+                }
+            });
+            return true;
+
+        } catch (Exception e) {
+            replanifier(email, e);
+            return false;
+        }
+    }
+
+    private void replanifier(EmailOutbox email, Throwable erreur) {
+        int tentatives = email.getTentatives() + 1;
+        email.setTentatives(tentatives);
+        email.setDerniereErreur(tronquer(erreur.getMessage()));
+
+        if (tentatives >= maxTentatives) {
+            log.error("❌ Email de la facture {} abandonné après {} tentatives : {}",
+                    email.getIdFacture(), tentatives, erreur.getMessage());
+            terminer(email, StatutEmail.ECHEC, email.getDerniereErreur());
+            return;
+        }
+
+        Duration delai = delaiAvantEssai(tentatives);
+        email.setProchainEssai(LocalDateTime.now().plus(delai));
+        emailOutboxRepository.save(email);
+        log.warn("⚠️ Échec d'envoi de l'email de la facture {} (tentative {}), nouvel essai dans {} : {}",
+                email.getIdFacture(), tentatives, delai, erreur.getMessage());
+    }
+
+    // backoff-initial, puis ×2 à chaque échec, plafonné à backoff-max
+    Duration delaiAvantEssai(int tentatives) {
+        Duration delai = backoffInitial.multipliedBy(1L << Math.min(tentatives - 1, 20));
+        return delai.compareTo(backoffMax) > 0 ? backoffMax : delai;
+    }
+
+    private void terminer(EmailOutbox email, StatutEmail statut, String erreur) {
+        email.setStatut(statut);
+        email.setDerniereErreur(erreur);
+        emailOutboxRepository.save(email);
+    }
+
+    private static String tronquer(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
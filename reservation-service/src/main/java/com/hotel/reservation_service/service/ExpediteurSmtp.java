@@ -0,0 +1,285 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.config.SmtpProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envoi SMTP sur des connexions gardées ouvertes :
+ * - chaque thread d'envoi garde son transport SMTP connecté et authentifié entre deux messages
+ *   (pas de TCP + STARTTLS + AUTH à chaque email)
+ * - il vide la file par lots : jusqu'à app.mail.smtp.lot messages d'affilée sur la même connexion
+ * - débit limité par fournisseur de messagerie des destinataires (gmail, microsoft...)
+ * Métriques : mail.smtp.file (emails en attente), mail.smtp.envoi (durée d'envoi d'un message),
+ * mail.smtp.lot (messages par lot), mail.smtp.connexions (connexions ouvertes).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpediteurSmtp {
+
+    private static final long VERIFICATION_APRES = TimeUnit.SECONDS.toNanos(5);
+
+    private final JavaMailSenderImpl mailSender;
+    private final SmtpProperties proprietes;
+    private final MeterRegistry meterRegistry;
+    private final Executor smtpExecutor;
+
+    private BlockingQueue<Envoi> file;
+    private final Map<String, LimiteDebit> limitesParDomaine = new HashMap<>();
+    private LimiteDebit limiteParDefaut;
+    private volatile boolean actif;
+
+    private Timer envoisReussis;
+    private Timer envoisEchoues;
+    private DistributionSummary tailleLots;
+    private Counter connexionsOuvertes;
+
+    @PostConstruct
+    public void demarrer() {
+        file = new LinkedBlockingQueue<>(proprietes.getFileMax());
+
+        // Une limite par fournisseur, partagée par tous ses domaines
+        proprietes.getFournisseurs().forEach((nom, fournisseur) -> {
+            LimiteDebit limite = new LimiteDebit(fournisseur.getMessagesParSeconde());
+            fournisseur.getDomaines().forEach(domaine -> limitesParDomaine.put(domaine.toLowerCase(Locale.ROOT), limite));
+        });
+        limiteParDefaut = proprietes.getDebitParDefaut() > 0 ? new LimiteDebit(proprietes.getDebitParDefaut()) : null;
+
+        Gauge.builder("mail.smtp.file", file, BlockingQueue::size).register(meterRegistry);
+        envoisReussis = Timer.builder("mail.smtp.envoi").tag("resultat", "succes").register(meterRegistry);
+        envoisEchoues = Timer.builder("mail.smtp.envoi").tag("resultat", "echec").register(meterRegistry);
+        tailleLots = DistributionSummary.builder("mail.smtp.lot").register(meterRegistry);
+        connexionsOuvertes = Counter.builder("mail.smtp.connexions").register(meterRegistry);
+
+        actif = true;
+        for (int i = 1; i <= proprietes.getConnexions(); i++) {
+            int numero = i;
+            smtpExecutor.execute(() -> boucler(numero));
+        }
+        log.info("✅ Expéditeur SMTP démarré : {} connexion(s) vers {}:{}, lots de {}",
+                proprietes.getConnexions(), mailSender.getHost(), mailSender.getPort(), proprietes.getLot());
+    }
+
+    /**
+     * Les threads d'envoi terminent leur lot en cours ; les emails encore en file sont rendus en échec
+     */
+    @PreDestroy
+    public void arreter() {
+        actif = false;
+        List<Envoi> restants = new ArrayList<>();
+        file.drainTo(restants);
+        restants.forEach(envoi -> envoi.resultat().completeExceptionally(
+                new IllegalStateException("Expéditeur SMTP arrêté")));
+    }
+
+    /**
+     * Mettre un message en file d'envoi ; le résultat est connu une fois le message remis au serveur
+     */
+    public CompletableFuture<Void> soumettre(MimeMessage message) {
+        CompletableFuture<Void> resultat = new CompletableFuture<>();
+        try {
+            // En-têtes (Message-ID, encodages) calculés ici plutôt que sur la connexion
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+
+            if (!actif) {
+                throw new IllegalStateException("Expéditeur SMTP arrêté");
+            }
+            if (!file.offer(new Envoi(message, resultat), proprietes.getAttenteFile().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("File d'envoi SMTP pleine (" + proprietes.getFileMax() + " emails)");
+            }
+        } catch (MessagingException | IllegalStateException e) {
+            resultat.completeExceptionally(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultat.completeExceptionally(e);
+        }
+        return resultat;
+    }
+
+    public int getEnAttente() {
+        return file.size();
+    }
+
+    private void boucler(int numero) {
+        Connexion connexion = new Connexion(numero);
+        List<Envoi> lot = new ArrayList<>(proprietes.getLot());
+        try {
+            while (actif) {
+                Envoi premier = file.poll(1, TimeUnit.SECONDS);
+                if (premier == null) {
+                    connexion.fermerSiInactive();
+                    continue;
+                }
+
+                lot.add(premier);
+                file.drainTo(lot, proprietes.getLot() - 1);
+                tailleLots.record(lot.size());
+                envoyerLot(connexion, lot);
+                lot.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lot.forEach(envoi -> envoi.resultat().completeExceptionally(e));
+        } finally {
+            connexion.fermer();
+        }
+    }
+
+    private void envoyerLot(Connexion connexion, List<Envoi> lot) throws InterruptedException {
+        for (int i = 0; i < lot.size(); i++) {
+            Envoi envoi = lot.get(i);
+
+            Transport transport;
+            try {
+                transport = connexion.ouvrir();
+            } catch (MessagingException e) {
+                // Serveur injoignable : inutile d'essayer le reste du lot
+                log.warn("⚠️ Connexion SMTP {} impossible : {}", connexion.numero, e.getMessage());
+                lot.subList(i, lot.size()).forEach(restant -> restant.resultat().completeExceptionally(e));
+                return;
+            }
+
+            attendreDebit(envoi.message());
+            long debut = System.nanoTime();
+            try {
+                transport.sendMessage(envoi.message(), envoi.message().getAllRecipients());
+                envoisReussis.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+                envoi.resultat().complete(null);
+            } catch (Exception e) {
+                envoisEchoues.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+                // Destinataire refusé : la connexion reste utilisable ; connexion perdue : rouverte au suivant
+                connexion.fermerSiRompue();
+                envoi.resultat().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void attendreDebit(MimeMessage message) throws InterruptedException {
+        long attente = 0;
+        try {
+            for (Address adresse : message.getAllRecipients()) {
+                LimiteDebit limite = limite(adresse);
+                if (limite != null) {
+                    attente = Math.max(attente, limite.reserver());
+                }
+            }
+        } catch (MessagingException e) {
+            // Destinataires illisibles : le serveur refusera le message
+            return;
+        }
+        if (attente > 0) {
+            TimeUnit.NANOSECONDS.sleep(attente);
+        }
+    }
+
+    private LimiteDebit limite(Address adresse) {
+        if (!(adresse instanceof InternetAddress internet) || internet.getAddress() == null) {
+            return limiteParDefaut;
+        }
+        String email = internet.getAddress();
+        String domaine = email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+        return limitesParDomaine.getOrDefault(domaine, limiteParDefaut);
+    }
+
+    /**
+     * Transport SMTP d'un thread d'envoi : ouvert au premier message, gardé entre les lots
+     */
+    private final class Connexion {
+
+        private final int numero;
+        private Transport transport;
+        private long derniereUtilisation;
+
+        Connexion(int numero) {
+            this.numero = numero;
+        }
+
+        Transport ouvrir() throws MessagingException {
+            // Après un moment sans envoi, le serveur a pu fermer la connexion de son côté
+            if (transport != null && System.nanoTime() - derniereUtilisation > VERIFICATION_APRES) {
+                fermerSiRompue();
+            }
+            if (transport == null) {
+                // Même résolution que JavaMailSenderImpl : spring.mail.protocol, sinon smtp
+                String protocole = mailSender.getProtocol();
+                if (protocole == null) {
+                    protocole = mailSender.getSession().getProperty("mail.transport.protocol");
+                }
+                Transport nouveau = mailSender.getSession()
+                        .getTransport(protocole != null ? protocole : JavaMailSenderImpl.DEFAULT_PROTOCOL);
+                String utilisateur = mailSender.getUsername();
+                String motDePasse = mailSender.getPassword();
+                if (utilisateur == null || utilisateur.isEmpty()) {
+                    utilisateur = null;
+                    motDePasse = null;
+                }
+                nouveau.connect(mailSender.getHost(), mailSender.getPort(), utilisateur, motDePasse);
+                transport = nouveau;
+                connexionsOuvertes.increment();
+                log.debug("📡 Connexion SMTP {} ouverte", numero);
+            }
+            derniereUtilisation = System.nanoTime();
+            return transport;
+        }
+
+        void fermerSiRompue() {
+            // isConnected() envoie un NOOP au serveur
+            if (transport != null && !transport.isConnected()) {
+                fermer();
+            }
+        }
+
+        void fermerSiInactive() {
+            if (transport != null
+                    && System.nanoTime() - derniereUtilisation > proprietes.getInactivite().toNanos()) {
+                log.debug("📡 Connexion SMTP {} fermée (inactive)", numero);
+                fermer();
+            }
+        }
+
+        void fermer() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Fermeture de la connexion SMTP {} : {}", numero, e.getMessage());
+            }
+            transport = null;
+        }
+    }
+
+    private record Envoi(MimeMessage message, CompletableFuture<Void> resultat) {
+    }
+}
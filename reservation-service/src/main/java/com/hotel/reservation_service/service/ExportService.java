@@ -0,0 +1,155 @@
+package com.hotel.reservation_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation_service.controller.dto.FactureResponse;
+import com.hotel.reservation_service.controller.dto.ReservationResponse;
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.FactureRepository;
+import com.hotel.reservation_service.repository.ReservationRepository;
+import com.hotel.reservation_service.repository.projection.FactureLigne;
+import com.hotel.reservation_service.repository.projection.ReservationLigne;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export des réservations et factures (comptabilité) en NDJSON ou CSV.
+ * Les lignes sont lues par curseur et écrites une à une : la mémoire utilisée
+ * ne dépend pas du nombre de lignes exportées.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    private final ReservationRepository reservationRepository;
+    private final FactureRepository factureRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format depuis(String format) {
+            for (Format f : values()) {
+                if (f.extension.equalsIgnoreCase(format)) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Format d'export inconnu : " + format + " (ndjson ou csv)");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exporterReservations(Format format, StatutReservation statut, Long idClient, Long idChambre,
+                                     LocalDate du, LocalDate au, OutputStream sortie) throws IOException {
+        long debut = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8), TAILLE_TAMPON);
+        long lignes = 0;
+
+        if (format == Format.CSV) {
+            writer.write("idReservation,idClient,idChambre,dateDebut,dateFin,statut,dateCreation,"
+                    + "dateModification,idFacture,dateEmission,montantTotal,etat\n");
+        }
+
+        try (Stream<ReservationLigne> stream = reservationRepository.streamLignes(statut, idClient, idChambre, du, au)) {
+            Iterator<ReservationLigne> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                ReservationLigne ligne = iterator.next();
+                if (format == Format.CSV) {
+                    ecrireCsv(writer, ligne.idReservation(), ligne.idClient(), ligne.idChambre(), ligne.dateDebut(),
+                            ligne.dateFin(), ligne.statut(), ligne.dateCreation(), ligne.dateModification(),
+                            ligne.idFacture(), ligne.dateEmission(), ligne.montantTotal(), ligne.etat());
+                } else {
+                    writer.write(objectMapper.writeValueAsString(ReservationResponse.fromLigne(ligne)));
+                    writer.write('\n');
+                }
+                lignes++;
+            }
+        }
+
+        writer.flush();
+        log.info("📤 Export réservations ({}) : {} lignes en {} ms", format, lignes, System.currentTimeMillis() - debut);
+    }
+
+    @Transactional(readOnly = true)
+    public void exporterFactures(Format format, EtatFacture etat, Long idClient, Long idChambre,
+                                 LocalDate du, LocalDate au, OutputStream sortie) throws IOException {
+        long debut = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8), TAILLE_TAMPON);
+        long lignes = 0;
+
+        if (format == Format.CSV) {
+            writer.write("idFacture,dateEmission,montantTotal,etat,idReservation\n");
+        }
+
+        try (Stream<FactureLigne> stream = factureRepository.streamLignes(etat, idClient, idChambre,
+                du != null ? du.atStartOfDay() : null, au != null ? au.atStartOfDay() : null)) {
+            Iterator<FactureLigne> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                FactureLigne ligne = iterator.next();
+                if (format == Format.CSV) {
+                    ecrireCsv(writer, ligne.idFacture(), ligne.dateEmission(), ligne.montantTotal(),
+                            ligne.etat(), ligne.idReservation());
+                } else {
+                    writer.write(objectMapper.writeValueAsString(FactureResponse.fromLigne(ligne)));
+                    writer.write('\n');
+                }
+                lignes++;
+            }
+        }
+
+        writer.flush();
+        log.info("📤 Export factures ({}) : {} lignes en {} ms", format, lignes, System.currentTimeMillis() - debut);
+    }
+
+    private static void ecrireCsv(Writer writer, Object... valeurs) throws IOException {
+        for (int i = 0; i < valeurs.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (valeurs[i] != null) {
+                writer.write(echapperCsv(valeurs[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String echapperCsv(String valeur) {
+        if (valeur.indexOf(',') < 0 && valeur.indexOf('"') < 0 && valeur.indexOf('\n') < 0) {
+            return valeur;
+        }
+        return '"' + valeur.replace("\"", "\"\"") + '"';
+    }
+}
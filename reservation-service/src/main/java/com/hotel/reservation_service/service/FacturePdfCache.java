@@ -0,0 +1,271 @@
+package com.hotel.reservation_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Cache des PDF de factures, adressé par contenu :
+ * clé = id facture + empreinte des champs affichés (montant, état, dates, chambre).
+ * Une facture modifiée a donc une nouvelle clé ; l'ancienne version n'est jamais resservie.
+ * - niveau mémoire : borné en octets
+ * - niveau disque : un fichier par version, envoyé tel quel (FileChannel.transferTo)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FacturePdfCache {
+
+    // À incrémenter quand la mise en page du PDF change : invalide toutes les versions
+    private static final String VERSION_RENDU = "2";
+
+    private final PdfService pdfService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.pdf.cache.memoire-max:64MB}")
+    private DataSize memoireMax;
+
+    @Value("${app.pdf.cache.dossier:${java.io.tmpdir}/hotel-factures-pdf}")
+    private Path dossier;
+
+    @Value("${app.pdf.cache.disque-ttl:30d}")
+    private Duration disqueTtl;
+
+    private Cache<String, byte[]> memoire;
+
+    @PostConstruct
+    public void init() throws IOException {
+        memoire = Caffeine.newBuilder()
+                .maximumWeight(memoireMax.toBytes())
+                .weigher((String cle, byte[] pdf) -> pdf.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memoire, "factures-pdf");
+        Files.createDirectories(dossier);
+        log.info("✅ Cache PDF initialisé (mémoire {}, disque {})", memoireMax, dossier);
+    }
+
+    /**
+     * PDF complet en mémoire (pièce jointe d'email)
+     */
+    public byte[] getPdf(Facture facture) {
+        String cle = cle(facture);
+        return memoire.get(cle, c -> lireOuGenerer(facture, c));
+    }
+
+    /**
+     * Écrire le PDF dans le flux de réponse : depuis la mémoire, sinon directement
+     * depuis le fichier sur disque (sans le recopier dans le tas), sinon en le générant
+     * directement dans la réponse (copie écrite en même temps sur disque).
+     */
+    public void ecrire(Facture facture, OutputStream sortie) throws IOException {
+        String cle = cle(facture);
+
+        byte[] enMemoire = memoire.getIfPresent(cle);
+        if (enMemoire != null) {
+            sortie.write(enMemoire);
+            return;
+        }
+
+        Path fichier = fichier(cle);
+        if (Files.exists(fichier)) {
+            log.debug("🗄️ PDF facture {} servi depuis le disque", facture.getIdFacture());
+            transferer(fichier, sortie);
+            return;
+        }
+
+        genererVers(facture, fichier, sortie);
+    }
+
+    /**
+     * Oublier toutes les versions d'une facture (changement d'état, de montant...)
+     */
+    public void invalider(Long idFacture) {
+        String prefixe = idFacture + "-";
+        memoire.asMap().keySet().removeIf(cle -> cle.startsWith(prefixe));
+
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier, prefixe + "*.pdf")) {
+            for (Path fichier : fichiers) {
+                Files.deleteIfExists(fichier);
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Impossible de supprimer les PDF de la facture {} : {}", idFacture, e.getMessage());
+        }
+    }
+
+    public CacheStats stats() {
+        return memoire.stats();
+    }
+
+    /**
+     * Supprimer du disque les versions non utilisées depuis disque-ttl
+     */
+    @Scheduled(fixedDelayString = "${app.pdf.cache.purge-intervalle:6h}")
+    public void purgerDisque() {
+        Instant limite = Instant.now().minus(disqueTtl);
+        int supprimes = 0;
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier, "*.pdf")) {
+            for (Path fichier : fichiers) {
+                if (Files.getLastModifiedTime(fichier).toInstant().isBefore(limite)) {
+                    Files.deleteIfExists(fichier);
+                    supprimes++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Purge du cache PDF incomplète : {}", e.getMessage());
+        }
+        if (supprimes > 0) {
+            log.info("🧹 {} PDF supprimés du cache disque", supprimes);
+        }
+    }
+
+    private byte[] lireOuGenerer(Facture facture, String cle) {
+        Path fichier = fichier(cle);
+        try {
+            if (Files.exists(fichier)) {
+                return Files.readAllBytes(fichier);
+            }
+
+            byte[] pdf = pdfService.generateFacturePdf(facture);
+            enregistrer(fichier, pdf);
+            return pdf;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Génération du PDF de la facture " + facture.getIdFacture()
+                    + " impossible", e);
+        }
+    }
+
+    // Rendu en flux vers le client ; le fichier n'entre dans le cache que si le rendu est complet
+    private void genererVers(Facture facture, Path fichier, OutputStream sortie) throws IOException {
+        Path temporaire = Files.createTempFile(dossier, "ecriture-", ".tmp");
+        try {
+            try (OutputStream copie = new BufferedOutputStream(Files.newOutputStream(temporaire))) {
+                pdfService.writeFacturePdf(facture, new CopieOutputStream(sortie, copie));
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Génération du PDF de la facture " + facture.getIdFacture()
+                    + " impossible", e);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    // Écriture dans un fichier temporaire puis renommage : jamais de PDF tronqué dans le cache
+    private void enregistrer(Path fichier, byte[] pdf) {
+        try {
+            Path temporaire = Files.createTempFile(dossier, "ecriture-", ".tmp");
+            Files.write(temporaire, pdf);
+            Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Le cache disque est facultatif : le PDF reste servi depuis la mémoire
+            log.warn("⚠️ PDF non écrit sur disque ({}) : {}", fichier.getFileName(), e.getMessage());
+        }
+    }
+
+    private static void transferer(Path fichier, OutputStream sortie) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            WritableByteChannel cible = Channels.newChannel(sortie);
+            long position = 0;
+            long taille = canal.size();
+            while (position < taille) {
+                position += canal.transferTo(position, taille - position, cible);
+            }
+        }
+    }
+
+    /**
+     * Écrit chaque octet dans la réponse et dans la copie disque
+     */
+    private static final class CopieOutputStream extends FilterOutputStream {
+
+        private final OutputStream copie;
+
+        CopieOutputStream(OutputStream sortie, OutputStream copie) {
+            super(sortie);
+            this.copie = copie;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copie.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copie.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+            copie.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Les deux flux sont fermés par leur propriétaire
+            flush();
+        }
+    }
+
+    private Path fichier(String cle) {
+        return dossier.resolve(cle + ".pdf");
+    }
+
+    static String cle(Facture facture) {
+        Reservation reservation = facture.getReservation();
+        String contenu = String.join("|", VERSION_RENDU,
+                String.valueOf(facture.getIdFacture()),
+                String.valueOf(facture.getMontantTotal()),
+                String.valueOf(facture.getEtat()),
+                String.valueOf(facture.getDateEmission()),
+                String.valueOf(reservation.getIdReservation()),
+                String.valueOf(reservation.getIdChambre()),
+                String.valueOf(reservation.getDateDebut()),
+                String.valueOf(reservation.getDateFin()));
+        try {
+            byte[] empreinte = MessageDigest.getInstance("SHA-256").digest(contenu.getBytes(StandardCharsets.UTF_8));
+            return facture.getIdFacture() + "-" + HexFormat.of().formatHex(empreinte, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.exception.NotFoundException;
+import com.hotel.reservation_service.model.EmailOutbox;
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.EmailOutboxRepository;
+import com.hotel.reservation_service.repository.FactureRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FactureService {
+
+    private final FactureRepository factureRepository;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final FacturePdfCache facturePdfCache;
+
+    /**
+     * Marquer une facture comme payée (appelé par le service paiements).
+     * L'email de facture est seulement mis en file dans la même transaction :
+     * il part en arrière-plan, la réponse n'attend ni le PDF ni le SMTP.
+     * Idempotent : le service paiements réessaie tant qu'il n'a pas eu de réponse,
+     * une facture déjà PAYEE n'est pas retraitée (pas de second email).
+     * La réservation n'est pas modifiée : CONFIRMEE, elle bloque déjà la chambre ; ANNULEE ou TERMINEE,
+     * la payer ne la fait pas revenir (la chambre a pu être réservée par un autre client entre-temps).
+     */
+    @Transactional
+    public Facture marquerPayee(Long idFacture) {
+        Facture facture = factureRepository.findById(idFacture)
+                .orElseThrow(() -> new NotFoundException("Facture non trouvée"));
+
+        if (facture.getEtat() == EtatFacture.PAYEE) {
+            log.info("↩️ Facture {} déjà payée : rien à faire", idFacture);
+            return facture;
+        }
+
+        // Mettre à jour le statut de la facture
+        facture.setEtat(EtatFacture.PAYEE);
+        facturePdfCache.invalider(idFacture);
+
+        Reservation reservation = facture.getReservation();
+        if (reservation.getStatut() != StatutReservation.CONFIRMEE) {
+            log.warn("⚠️ Facture {} payée pour la réservation {} {} : réservation inchangée",
+                    idFacture, reservation.getIdReservation(), reservation.getStatut());
+        }
+
+        emailOutboxRepository.save(EmailOutbox.factureAEnvoyer(facture.getIdFacture(), reservation.getIdClient()));
+        log.info("📬 Email de la facture {} mis en file pour le client {}", idFacture, reservation.getIdClient());
+
+        return facture;
+    }
+}
@@ -0,0 +1,156 @@
+package com.hotel.reservation_service.service;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateExceptionHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Corps des emails à partir de gabarits FreeMarker (classpath:/templates/email) :
+ * - chaque gabarit est analysé une seule fois puis gardé en cache (pas de relecture du classpath)
+ * - variantes par langue : facture_en.ftlh est choisi pour Locale.ENGLISH, facture.ftlh sinon
+ * - rendu dans un tampon réutilisé par thread, encodé directement en UTF-8 (corps prêt pour le message)
+ * Les gabarits .ftlh échappent le HTML automatiquement.
+ */
+@Component
+@Slf4j
+public class GabaritsEmail {
+
+    public static final String FACTURE = "facture.ftlh";
+
+    // Gabarits et langues analysés au démarrage
+    private static final List<String> GABARITS = List.of(FACTURE);
+    private static final List<Locale> LANGUES = List.of(Locale.FRENCH, Locale.ENGLISH);
+
+    // Au-delà (en caractères), le tampon n'est pas gardé (un email exceptionnellement long ne reste pas en mémoire)
+    private static final int TAMPON_MAX = 64 * 1024;
+
+    private final Configuration configuration;
+    private final ThreadLocal<Tampon> tampons = ThreadLocal.withInitial(Tampon::new);
+
+    public GabaritsEmail() {
+        configuration = new Configuration(Configuration.VERSION_2_3_34);
+        configuration.setClassForTemplateLoading(GabaritsEmail.class, "/templates/email");
+        configuration.setDefaultEncoding("UTF-8");
+        configuration.setLocale(Locale.FRENCH);
+        configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        configuration.setLogTemplateExceptions(false);
+        configuration.setWrapUncheckedExceptions(true);
+        // Gabarits livrés avec l'application : une fois analysés, jamais revérifiés
+        configuration.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+
+        for (String gabarit : GABARITS) {
+            for (Locale langue : LANGUES) {
+                template(gabarit, langue);
+            }
+        }
+        log.info("✅ Gabarits d'email chargés : {} ({})", GABARITS, LANGUES);
+    }
+
+    /**
+     * Rendre un gabarit en UTF-8 ; le modèle ne contient que des valeurs déjà formatées
+     */
+    public byte[] rendre(String gabarit, Locale langue, Map<String, ?> modele) {
+        Template template = template(gabarit, langue);
+        Tampon tampon = tampons.get();
+        tampon.vider();
+        try {
+            template.process(modele, tampon);
+            return tampon.enUtf8();
+        } catch (TemplateException | IOException e) {
+            throw new IllegalStateException("Rendu du gabarit " + gabarit + " impossible", e);
+        } finally {
+            if (tampon.caracteres.length > TAMPON_MAX) {
+                tampons.remove();
+            }
+        }
+    }
+
+    private Template template(String gabarit, Locale langue) {
+        try {
+            return configuration.getTemplate(gabarit, langue);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Gabarit d'email introuvable : " + gabarit, e);
+        }
+    }
+
+    /**
+     * Writer sur un tableau de caractères réutilisé, encodé directement en UTF-8 :
+     * pas de String intermédiaire (le corps contient un emoji, une String coûterait 2 octets par caractère)
+     */
+    private static final class Tampon extends Writer {
+
+        private char[] caracteres = new char[8 * 1024];
+        private int taille;
+        private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer octets = ByteBuffer.allocate(8 * 1024);
+
+        void vider() {
+            taille = 0;
+        }
+
+        byte[] enUtf8() {
+            // Au plus 3 octets UTF-8 par caractère UTF-16
+            int maximum = taille * 3;
+            if (octets.capacity() < maximum) {
+                octets = ByteBuffer.allocate(maximum);
+            }
+            octets.clear();
+            utf8.reset();
+            utf8.encode(CharBuffer.wrap(caracteres, 0, taille), octets, true);
+            utf8.flush(octets);
+            return Arrays.copyOf(octets.array(), octets.position());
+        }
+
+        private void agrandir(int minimum) {
+            if (minimum > caracteres.length) {
+                caracteres = Arrays.copyOf(caracteres, Math.max(minimum, caracteres.length * 2));
+            }
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            agrandir(taille + len);
+            System.arraycopy(cbuf, off, caracteres, taille, len);
+            taille += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            agrandir(taille + len);
+            str.getChars(off, off + len, caracteres, taille);
+            taille += len;
+        }
+
+        @Override
+        public void write(int c) {
+            agrandir(taille + 1);
+            caracteres[taille++] = (char) c;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
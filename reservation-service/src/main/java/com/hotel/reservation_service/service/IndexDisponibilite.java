@@ -0,0 +1,193 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.ReservationRepository;
+import com.hotel.reservation_service.repository.projection.CreneauReservation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index en mémoire des périodes réservées, par chambre.
+ * Chargé au démarrage depuis la base puis tenu à jour après chaque commit
+ * (création, modification, annulation, fin, suppression).
+ * Sert uniquement à la recherche : la base reste la référence au moment de réserver.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndexDisponibilite {
+
+    private final ReservationRepository reservationRepository;
+
+    private final Map<Long, Planning> plannings = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construire() {
+        long debut = System.currentTimeMillis();
+        List<CreneauReservation> creneaux =
+                reservationRepository.findCreneaux(StatutReservation.CONFIRMEE, LocalDate.now());
+
+        Map<Long, List<long[]>> parChambre = new ConcurrentHashMap<>();
+        for (CreneauReservation creneau : creneaux) {
+            parChambre.computeIfAbsent(creneau.idChambre(), id -> new ArrayList<>())
+                    .add(new long[]{creneau.idReservation(), creneau.dateDebut().toEpochDay(),
+                            creneau.dateFin().toEpochDay()});
+        }
+
+        plannings.clear();
+        parChambre.forEach((idChambre, liste) -> plannings.put(idChambre, Planning.de(liste)));
+        log.info("✅ Index de disponibilité chargé : {} réservations, {} chambres en {} ms",
+                creneaux.size(), plannings.size(), System.currentTimeMillis() - debut);
+    }
+
+    /**
+     * La chambre est-elle libre sur [dateDebut, dateFin[ ? (O(log n) par chambre)
+     */
+    public boolean estLibre(Long idChambre, LocalDate dateDebut, LocalDate dateFin) {
+        Planning planning = plannings.get(idChambre);
+        return planning == null || !planning.chevauche(dateDebut.toEpochDay(), dateFin.toEpochDay());
+    }
+
+    /**
+     * Prendre en compte une réservation enregistrée (après le commit)
+     */
+    public void enregistrer(Reservation reservation) {
+        Long idChambre = reservation.getIdChambre();
+        Long idReservation = reservation.getIdReservation();
+        long debut = reservation.getDateDebut().toEpochDay();
+        long fin = reservation.getDateFin().toEpochDay();
+        boolean occupe = reservation.getStatut() == StatutReservation.CONFIRMEE;
+
+        apresCommit(() -> plannings.compute(idChambre, (id, planning) -> {
+            Planning base = planning == null ? Planning.VIDE : planning.sans(idReservation);
+            Planning resultat = occupe ? base.avec(idReservation, debut, fin) : base;
+            return resultat.estVide() ? null : resultat;
+        }));
+    }
+
+    /**
+     * Libérer la période d'une réservation (annulation, fin, suppression)
+     */
+    public void retirer(Long idChambre, Long idReservation) {
+        apresCommit(() -> plannings.computeIfPresent(idChambre, (id, planning) -> {
+            Planning resultat = planning.sans(idReservation);
+            return resultat.estVide() ? null : resultat;
+        }));
+    }
+
+    private void apresCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Périodes d'une chambre triées par date de début (jours epoch), immuable.
+     * finMax[i] = plus grande date de fin parmi les créneaux 0..i, ce qui permet
+     * de répondre par une seule recherche dichotomique même si des créneaux se chevauchent.
+     */
+    static final class Planning {
+
+        static final Planning VIDE = new Planning(new long[0], new long[0], new long[0]);
+
+        private final long[] ids;
+        private final long[] debuts;
+        private final long[] fins;
+        private final long[] finMax;
+
+        private Planning(long[] ids, long[] debuts, long[] fins) {
+            this.ids = ids;
+            this.debuts = debuts;
+            this.fins = fins;
+            this.finMax = new long[fins.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < fins.length; i++) {
+                max = Math.max(max, fins[i]);
+                finMax[i] = max;
+            }
+        }
+
+        static Planning de(List<long[]> creneaux) {
+            List<long[]> tries = new ArrayList<>(creneaux);
+            tries.sort(Comparator.comparingLong(c -> c[1]));
+            long[] ids = new long[tries.size()];
+            long[] debuts = new long[tries.size()];
+            long[] fins = new long[tries.size()];
+            for (int i = 0; i < tries.size(); i++) {
+                ids[i] = tries.get(i)[0];
+                debuts[i] = tries.get(i)[1];
+                fins[i] = tries.get(i)[2];
+            }
+            return new Planning(ids, debuts, fins);
+        }
+
+        boolean chevauche(long debut, long fin) {
+            int i = dernierCreneauAvant(fin);
+            return i >= 0 && finMax[i] > debut;
+        }
+
+        // Indice du dernier créneau qui commence strictement avant 'fin' (-1 si aucun)
+        private int dernierCreneauAvant(long fin) {
+            int bas = 0;
+            int haut = debuts.length - 1;
+            int resultat = -1;
+            while (bas <= haut) {
+                int milieu = (bas + haut) >>> 1;
+                if (debuts[milieu] < fin) {
+                    resultat = milieu;
+                    bas = milieu + 1;
+                } else {
+                    haut = milieu - 1;
+                }
+            }
+            return resultat;
+        }
+
+        Planning avec(long idReservation, long debut, long fin) {
+            List<long[]> creneaux = enListe(LocalDate.now().toEpochDay());
+            creneaux.add(new long[]{idReservation, debut, fin});
+            return de(creneaux);
+        }
+
+        Planning sans(long idReservation) {
+            List<long[]> creneaux = enListe(LocalDate.now().toEpochDay());
+            creneaux.removeIf(c -> c[0] == idReservation);
+            return de(creneaux);
+        }
+
+        boolean estVide() {
+            return ids.length == 0;
+        }
+
+        // Copie des créneaux encore utiles (on en profite pour oublier les périodes passées)
+        private List<long[]> enListe(long aujourdhui) {
+            List<long[]> creneaux = new ArrayList<>(ids.length + 1);
+            for (int i = 0; i < ids.length; i++) {
+                if (fins[i] > aujourdhui) {
+                    creneaux.add(new long[]{ids[i], debuts[i], fins[i]});
+                }
+            }
+            return creneaux;
+        }
+    }
+}
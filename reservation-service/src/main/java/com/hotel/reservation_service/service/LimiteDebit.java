@@ -0,0 +1,30 @@
+package com.hotel.reservation_service.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit max vers un fournisseur de messagerie : un message toutes les 1/débit secondes,
+ * avec une rafale d'au plus une seconde de débit après une période calme.
+ */
+final class LimiteDebit {
+
+    private final long intervalle;
+    private final long rafale;
+    private long prochainCreneau;
+
+    LimiteDebit(double messagesParSeconde) {
+        this.intervalle = (long) (TimeUnit.SECONDS.toNanos(1) / messagesParSeconde);
+        this.rafale = Math.max(0, TimeUnit.SECONDS.toNanos(1) - intervalle);
+        this.prochainCreneau = System.nanoTime() - rafale;
+    }
+
+    /**
+     * Réserver le prochain créneau ; renvoie l'attente (en ns) avant de pouvoir envoyer
+     */
+    synchronized long reserver() {
+        long maintenant = System.nanoTime();
+        long creneau = Math.max(prochainCreneau, maintenant - rafale);
+        prochainCreneau = creneau + intervalle;
+        return Math.max(0, creneau - maintenant);
+    }
+}
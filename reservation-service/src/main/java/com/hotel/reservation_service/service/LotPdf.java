@@ -0,0 +1,62 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Génération en masse des PDF de factures vers une archive ZIP : état et progression
+ */
+@Getter
+public class LotPdf {
+
+    public enum Statut {
+        EN_ATTENTE, EN_COURS, TERMINE, ECHEC
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final EtatFacture etat;
+    private final LocalDate du;
+    private final LocalDate au;
+    private final LocalDateTime dateCreation = LocalDateTime.now();
+
+    private volatile Statut statut = Statut.EN_ATTENTE;
+    private volatile long total;
+    private final AtomicInteger traites = new AtomicInteger();
+    private final AtomicInteger erreurs = new AtomicInteger();
+    private volatile LocalDateTime dateFin;
+    private volatile String message;
+    private volatile Path archive;
+
+    LotPdf(EtatFacture etat, LocalDate du, LocalDate au) {
+        this.etat = etat;
+        this.du = du;
+        this.au = au;
+    }
+
+    void demarrer(long total) {
+        this.total = total;
+        this.statut = Statut.EN_COURS;
+    }
+
+    void terminer(Path archive) {
+        this.archive = archive;
+        this.dateFin = LocalDateTime.now();
+        this.statut = Statut.TERMINE;
+    }
+
+    void echouer(String message) {
+        this.message = message;
+        this.dateFin = LocalDateTime.now();
+        this.statut = Statut.ECHEC;
+    }
+
+    public int getPourcentage() {
+        return total == 0 ? (statut == Statut.TERMINE ? 100 : 0) : (int) (traites.get() * 100 / total);
+    }
+}
@@ -1,22 +1,58 @@
 package com.hotel.reservation_service.service;
 
+import com.hotel.reservation_service.model.EtatFacture;
 import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.Color;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.Property;
 import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
 import com.itextpdf.layout.properties.VerticalAlignment;
+import com.itextpdf.layout.renderer.DrawContext;
+import com.itextpdf.layout.renderer.IRenderer;
+import com.itextpdf.layout.renderer.ParagraphRenderer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.format.DateTimeFormatter;
-
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rendu des factures à partir d'un gabarit préparé une seule fois au démarrage :
+ * toute la partie fixe (en-tête, cadres, libellés, tableau, conditions, pied de page)
+ * est mise en page une fois, et son flux de dessin est réutilisé tel quel.
+ * Par facture, seuls les champs variables sont mis en page, dans les zones
+ * mesurées lors de la préparation du gabarit.
+ */
 @Service
 @Slf4j
 public class PdfService {
@@ -27,173 +63,150 @@ public class PdfService {
     private static final DeviceRgb COLOR_GREY = new DeviceRgb(236, 240, 241);       // Gris clair
     private static final DeviceRgb COLOR_SUCCESS = new DeviceRgb(46, 204, 113);     // Vert
     private static final DeviceRgb COLOR_TEXT = new DeviceRgb(149, 165, 166);       // Gris texte
+    private static final DeviceRgb COLOR_ROW = new DeviceRgb(245, 245, 245);        // Gris ligne
+
+    private static final DateTimeFormatter FORMAT_EMISSION = DateTimeFormatter.ofPattern("dd MMMM yyyy", Locale.FRANCE);
+
+    // Styles immuables des champs variables (partagés par tous les rendus)
+    private static final Style STYLE_INFO = new Style().setFontSize(11);
+    private static final Style STYLE_LIGNE = new Style().setFontSize(10);
+    private static final Style STYLE_TOTAL = new Style().setFontSize(18).setBold().setFontColor(COLOR_ACCENT)
+            .setTextAlignment(TextAlignment.CENTER);
+
+    /**
+     * Champs remplis à chaque facture, à l'emplacement réservé dans le gabarit
+     */
+    private enum Champ {
+        NUMERO(STYLE_INFO, "N° Facture: 0000000"),
+        EMISSION(STYLE_INFO, "Date d'émission: 00 septembre 0000"),
+        ETAT(STYLE_INFO, "État: ANNULEE"),
+        RESERVATION(STYLE_INFO, "Réservation: #0000000"),
+        CHAMBRE(STYLE_INFO, "Chambre: #0000"),
+        DUREE(STYLE_INFO, "Durée: 000 nuit(s)"),
+        PERIODE(STYLE_LIGNE, "0000-00-00 au 0000-00-00"),
+        NUITS(STYLE_LIGNE, "000"),
+        MONTANT(STYLE_LIGNE, "0000000.00 MAD"),
+        MONTANT_TOTAL(STYLE_TOTAL, "0000000.00 MAD");
+
+        private final Style style;
+        // Texte le plus large attendu : sert à dimensionner les colonnes du gabarit
+        private final String modele;
+
+        Champ(Style style, String modele) {
+            this.style = style;
+            this.modele = modele;
+        }
 
-    public byte[] generateFacturePdf(Facture facture) throws Exception {
-        log.info("Génération PDF premium pour facture {}", facture.getIdFacture());
+        float taille() {
+            return style.<UnitValue>getProperty(Property.FONT_SIZE).getValue();
+        }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
-        PdfDocument pdf = new PdfDocument(writer);
-        Document document = new Document(pdf);
-        document.setMargins(20, 20, 20, 20);
+        boolean gras() {
+            return Boolean.TRUE.equals(style.getProperty(Property.BOLD_SIMULATION));
+        }
 
-        try {
-            // ==================== EN-TÊTE ====================
-            Table headerTable = new Table(2).useAllAvailableWidth();
-
-            // Logo + Titre
-            Cell logoCell = new Cell()
-                    .add(new Paragraph("🏨 HotelMS")
-                            .setFontSize(28)
-                            .setBold()
-                            .setFontColor(COLOR_PRIMARY))
-                    .setBorder(null)
-                    .setVerticalAlignment(VerticalAlignment.TOP);
-
-            // Info entreprise
-            Cell infoCell = new Cell()
-                    .add(new Paragraph("Maroc | Casablanca\n📞 +212 5 22 98 76 54\n📧 contact@hotelms.com")
-                            .setFontSize(10)
-                            .setTextAlignment(TextAlignment.RIGHT))
-                    .setBorder(null)
-                    .setVerticalAlignment(VerticalAlignment.TOP);
-
-            headerTable.addCell(logoCell);
-            headerTable.addCell(infoCell);
-            document.add(headerTable);
-
-            document.add(new Paragraph("\n"));
-
-            // ==================== TITRE FACTURE ====================
-            Paragraph title = new Paragraph("FACTURE")
-                    .setFontSize(24)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFontColor(COLOR_PRIMARY);
-            document.add(title);
-
-            // Ligne séparatrice
-            Table separatorLine = new Table(1).useAllAvailableWidth();
-            Cell separator = new Cell().setHeight(2).setBackgroundColor(COLOR_PRIMARY).setBorder(null);
-            separatorLine.addCell(separator);
-            document.add(separatorLine);
-
-            document.add(new Paragraph("\n"));
-
-            // ==================== INFOS FACTURE ====================
-            Table infoTable = new Table(2).useAllAvailableWidth();
-            infoTable.setMarginBottom(20);
-
-            // Colonne gauche
-            Cell leftInfo = new Cell()
-                    .add(new Paragraph("INFORMATIONS FACTURE")
-                            .setFontSize(12)
-                            .setBold()
-                            .setFontColor(COLOR_PRIMARY))
-                    .add(new Paragraph("\n"))
-                    .add(new Paragraph("N° Facture: " + facture.getIdFacture())
-                            .setFontSize(11))
-                    .add(new Paragraph("Date d'émission: " +
-                            facture.getDateEmission().format(DateTimeFormatter.ofPattern("dd MMMM yyyy", java.util.Locale.FRANCE)))
-                            .setFontSize(11))
-                    .add(new Paragraph("État: " + facture.getEtat())
-                            .setFontSize(11)
-                            .setFontColor(facture.getEtat().toString().equals("PAYEE") ? COLOR_SUCCESS : COLOR_ACCENT))
-                    .setBorder(null)
-                    .setPadding(10)
-                    .setBackgroundColor(COLOR_GREY);
-
-            // Colonne droite
-            Cell rightInfo = new Cell()
-                    .add(new Paragraph("DÉTAILS RÉSERVATION")
-                            .setFontSize(12)
-                            .setBold()
-                            .setFontColor(COLOR_PRIMARY))
-                    .add(new Paragraph("\n"))
-                    .add(new Paragraph("Réservation: #" + facture.getReservation().getIdReservation())
-                            .setFontSize(11))
-                    .add(new Paragraph("Chambre: #" + facture.getReservation().getIdChambre())
-                            .setFontSize(11))
-                    .add(new Paragraph("Durée: " + calculateNights(facture.getReservation().getDateDebut(),
-                            facture.getReservation().getDateFin()) + " nuit(s)")
-                            .setFontSize(11))
-                    .setBorder(null)
-                    .setPadding(10)
-                    .setBackgroundColor(COLOR_GREY);
-
-            infoTable.addCell(leftInfo);
-            infoTable.addCell(rightInfo);
-            document.add(infoTable);
-
-            document.add(new Paragraph("\n"));
-
-            // ==================== TABLEAU DÉTAILS ====================
-            Table detailsTable = new Table(new float[]{2, 3, 2, 2}).useAllAvailableWidth();
-            detailsTable.setMarginBottom(20);
-
-            // En-têtes
-            addTableHeader(detailsTable, "Description");
-            addTableHeader(detailsTable, "Période");
-            addTableHeader(detailsTable, "Nuits");
-            addTableHeader(detailsTable, "Montant");
-
-            // Données
-            addTableRow(detailsTable, "Séjour à l'hôtel",
-                    facture.getReservation().getDateDebut() + " au " + facture.getReservation().getDateFin(),
-                    String.valueOf(calculateNights(facture.getReservation().getDateDebut(), facture.getReservation().getDateFin())),
-                    facture.getMontantTotal() + " MAD");
-
-            document.add(detailsTable);
-
-            // ==================== TOTAL ====================
-            Table totalTable = new Table(2).useAllAvailableWidth();
-            totalTable.setMarginBottom(20);
-
-            Cell emptyCell = new Cell().setBorder(null);
-            Cell totalCell = new Cell()
-                    .add(new Paragraph("MONTANT TOTAL TTC")
-                            .setBold()
-                            .setFontSize(14))
-                    .add(new Paragraph(facture.getMontantTotal() + " MAD")
-                            .setFontSize(18)
-                            .setBold()
-                            .setFontColor(COLOR_ACCENT))
-                    .setBackgroundColor(COLOR_GREY)
-                    .setPadding(15)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setBorder(null);
-
-            totalTable.addCell(emptyCell);
-            totalTable.addCell(totalCell);
-            document.add(totalTable);
-
-            document.add(new Paragraph("\n"));
-
-            // ==================== CONDITIONS ====================
-            document.add(new Paragraph("CONDITIONS GÉNÉRALES")
-                    .setFontSize(12)
-                    .setBold()
-                    .setFontColor(COLOR_PRIMARY));
-
-            document.add(new Paragraph("• Paiement à la réception ou avant le départ\n" +
-                    "• Annulation jusqu'à 24h avant l'arrivée\n" +
-                    "• TVA incluse dans le tarif\n" +
-                    "• Merci de votre confiance !")
-                    .setFontSize(10)
-                    .setTextAlignment(TextAlignment.LEFT));
-
-            document.add(new Paragraph("\n"));
-
-            // ==================== FOOTER ====================
-            document.add(new Paragraph("HotelMS - Gestion Hôtelière Moderne")
-                    .setFontSize(9)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFontColor(COLOR_TEXT));
+        boolean centre() {
+            return style.getProperty(Property.TEXT_ALIGNMENT) == TextAlignment.CENTER;
+        }
+    }
+
+    /**
+     * Position mesurée d'un champ : zone du texte et ligne de base de sa première ligne
+     */
+    private record Emplacement(float x, float largeur, float ligneDeBase) {
+    }
+
+    private final FontProgram police;
+    private final byte[] contenuGabarit;
+    private final PdfName nomPolice;
+    private final Map<Champ, Emplacement> emplacements;
 
+    public PdfService() {
+        try {
+            police = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+
+            PdfDocument pdf = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+            PdfFont normale = PdfFontFactory.createFont(police, PdfEncodings.WINANSI);
+            Map<Champ, Emplacement> mesures = new EnumMap<>(Champ.class);
+
+            // Mise en page différée : le dessin (et la mesure des zones) se fait au flush
+            Document document = new Document(pdf, PageSize.A4, false);
+            document.setMargins(20, 20, 20, 20);
+            document.setFont(normale);
+            ajouterPartieFixe(document, mesures);
+            document.flush();
+
+            if (pdf.getNumberOfPages() != 1 || mesures.size() != Champ.values().length) {
+                throw new IllegalStateException("Le gabarit de facture doit tenir sur une page");
+            }
+            PdfPage page = pdf.getFirstPage();
+            contenuGabarit = page.getContentBytes();
+            nomPolice = page.getResources().addFont(pdf, normale);
+            emplacements = Collections.unmodifiableMap(mesures);
             document.close();
 
-            log.info("✅ PDF premium généré avec succès");
-            return baos.toByteArray();
+            log.info("✅ Gabarit PDF des factures préparé ({} octets de dessin, {} champs)",
+                    contenuGabarit.length, emplacements.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Préparation du gabarit PDF impossible", e);
+        }
+    }
+
+    /**
+     * PDF complet en mémoire : seulement quand il faut un byte[] (pièce jointe d'email)
+     */
+    public byte[] generateFacturePdf(Facture facture) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeFacturePdf(facture, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Générer le PDF directement dans un flux (réponse HTTP, fichier) :
+     * les pages sont écrites au fil de la mise en page, le document n'est pas gardé en mémoire.
+     * Le flux n'est pas fermé.
+     */
+    public void writeFacturePdf(Facture facture, OutputStream sortie) throws Exception {
+        log.debug("Génération PDF pour facture {}", facture.getIdFacture());
+
+        PdfWriter writer = new PdfWriter(sortie);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+
+        try {
+            // Police déjà chargée : seulement rattachée au document, sous le nom attendu par le gabarit
+            PdfFont normale = PdfFontFactory.createFont(police, PdfEncodings.WINANSI);
+            PdfPage page = pdf.addNewPage(PageSize.A4);
+            if (!nomPolice.equals(page.getResources().addFont(pdf, normale))) {
+                throw new IllegalStateException("Ressource de police inattendue pour le gabarit de facture");
+            }
+            page.getFirstContentStream().setData(contenuGabarit);
+
+            Reservation reservation = facture.getReservation();
+            long nuits = ChronoUnit.DAYS.between(reservation.getDateDebut(), reservation.getDateFin());
+            String montant = facture.getMontantTotal() + " MAD";
+
+            // Champs variables écrits directement à leur ligne de base : aucune mise en page
+            PdfCanvas champs = new PdfCanvas(page.newContentStreamAfter(), page.getResources(), pdf);
+            champs.beginText();
+            remplir(champs, normale, Champ.NUMERO, "N° Facture: " + facture.getIdFacture(), ColorConstants.BLACK);
+            remplir(champs, normale, Champ.EMISSION,
+                    "Date d'émission: " + facture.getDateEmission().format(FORMAT_EMISSION), ColorConstants.BLACK);
+            remplir(champs, normale, Champ.ETAT, "État: " + facture.getEtat(),
+                    facture.getEtat() == EtatFacture.PAYEE ? COLOR_SUCCESS : COLOR_ACCENT);
+            remplir(champs, normale, Champ.RESERVATION, "Réservation: #" + reservation.getIdReservation(), ColorConstants.BLACK);
+            remplir(champs, normale, Champ.CHAMBRE, "Chambre: #" + reservation.getIdChambre(), ColorConstants.BLACK);
+            remplir(champs, normale, Champ.DUREE, "Durée: " + nuits + " nuit(s)", ColorConstants.BLACK);
+            remplir(champs, normale, Champ.PERIODE,
+                    reservation.getDateDebut() + " au " + reservation.getDateFin(), ColorConstants.BLACK);
+            remplir(champs, normale, Champ.NUITS, String.valueOf(nuits), ColorConstants.BLACK);
+            remplir(champs, normale, Champ.MONTANT, montant, ColorConstants.BLACK);
+            remplir(champs, normale, Champ.MONTANT_TOTAL, montant, COLOR_ACCENT);
+            champs.endText();
+
+            pdf.close();
+
+            log.debug("✅ PDF de la facture {} généré", facture.getIdFacture());
 
         } catch (Exception e) {
             log.error("❌ Erreur lors de la génération du PDF", e);
@@ -201,8 +214,200 @@ public class PdfService {
         }
     }
 
+    private void remplir(PdfCanvas champs, PdfFont police, Champ champ, String texte, Color couleur) {
+        Emplacement emplacement = emplacements.get(champ);
+        float taille = champ.taille();
+        float x = emplacement.x();
+        if (champ.centre()) {
+            x += (emplacement.largeur() - police.getWidth(texte, taille)) / 2;
+        }
+
+        champs.setFontAndSize(police, taille).setFillColor(couleur);
+        if (champ.gras()) {
+            // Même gras simulé que la mise en page iText (contour de la couleur du texte)
+            champs.setTextRenderingMode(PdfCanvasConstants.TextRenderingMode.FILL_STROKE)
+                    .setLineWidth(taille / 30).setStrokeColor(couleur);
+        } else {
+            champs.setTextRenderingMode(PdfCanvasConstants.TextRenderingMode.FILL);
+        }
+        champs.setTextMatrix(x, emplacement.ligneDeBase()).showText(texte);
+    }
+
+    // ==================== GABARIT (mis en page une seule fois) ====================
+
+    private static void ajouterPartieFixe(Document document, Map<Champ, Emplacement> zones) {
+        // ==================== EN-TÊTE ====================
+        Table headerTable = new Table(2).useAllAvailableWidth();
+
+        // Logo + Titre
+        Cell logoCell = new Cell()
+                .add(new Paragraph("🏨 HotelMS")
+                        .setFontSize(28)
+                        .setBold()
+                        .setFontColor(COLOR_PRIMARY))
+                .setBorder(null)
+                .setVerticalAlignment(VerticalAlignment.TOP);
+
+        // Info entreprise
+        Cell infoCell = new Cell()
+                .add(new Paragraph("Maroc | Casablanca\n📞 +212 5 22 98 76 54\n📧 contact@hotelms.com")
+                        .setFontSize(10)
+                        .setTextAlignment(TextAlignment.RIGHT))
+                .setBorder(null)
+                .setVerticalAlignment(VerticalAlignment.TOP);
+
+        headerTable.addCell(logoCell);
+        headerTable.addCell(infoCell);
+        document.add(headerTable);
+
+        document.add(new Paragraph("\n"));
+
+        // ==================== TITRE FACTURE ====================
+        document.add(new Paragraph("FACTURE")
+                .setFontSize(24)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setFontColor(COLOR_PRIMARY));
+
+        // Ligne séparatrice
+        Table separatorLine = new Table(1).useAllAvailableWidth();
+        separatorLine.addCell(new Cell().setHeight(2).setBackgroundColor(COLOR_PRIMARY).setBorder(null));
+        document.add(separatorLine);
+
+        document.add(new Paragraph("\n"));
+
+        // ==================== INFOS FACTURE ====================
+        Table infoTable = new Table(2).useAllAvailableWidth();
+        infoTable.setMarginBottom(20);
+
+        // Colonne gauche
+        Cell leftInfo = new Cell()
+                .add(new Paragraph("INFORMATIONS FACTURE")
+                        .setFontSize(12)
+                        .setBold()
+                        .setFontColor(COLOR_PRIMARY))
+                .add(new Paragraph("\n"))
+                .add(emplacement(Champ.NUMERO, zones))
+                .add(emplacement(Champ.EMISSION, zones))
+                .add(emplacement(Champ.ETAT, zones))
+                .setBorder(null)
+                .setPadding(10)
+                .setBackgroundColor(COLOR_GREY);
+
+        // Colonne droite
+        Cell rightInfo = new Cell()
+                .add(new Paragraph("DÉTAILS RÉSERVATION")
+                        .setFontSize(12)
+                        .setBold()
+                        .setFontColor(COLOR_PRIMARY))
+                .add(new Paragraph("\n"))
+                .add(emplacement(Champ.RESERVATION, zones))
+                .add(emplacement(Champ.CHAMBRE, zones))
+                .add(emplacement(Champ.DUREE, zones))
+                .setBorder(null)
+                .setPadding(10)
+                .setBackgroundColor(COLOR_GREY);
+
+        infoTable.addCell(leftInfo);
+        infoTable.addCell(rightInfo);
+        document.add(infoTable);
+
+        document.add(new Paragraph("\n"));
+
+        // ==================== TABLEAU DÉTAILS ====================
+        Table detailsTable = new Table(new float[]{2, 3, 2, 2}).useAllAvailableWidth();
+        detailsTable.setMarginBottom(20);
+
+        // En-têtes
+        addTableHeader(detailsTable, "Description");
+        addTableHeader(detailsTable, "Période");
+        addTableHeader(detailsTable, "Nuits");
+        addTableHeader(detailsTable, "Montant");
+
+        // Données
+        addTableRow(detailsTable, new Paragraph("Séjour à l'hôtel").setFontSize(10));
+        addTableRow(detailsTable, emplacement(Champ.PERIODE, zones));
+        addTableRow(detailsTable, emplacement(Champ.NUITS, zones));
+        addTableRow(detailsTable, emplacement(Champ.MONTANT, zones));
+
+        document.add(detailsTable);
+
+        // ==================== TOTAL ====================
+        Table totalTable = new Table(2).useAllAvailableWidth();
+        totalTable.setMarginBottom(20);
+
+        Cell emptyCell = new Cell().setBorder(null);
+        Cell totalCell = new Cell()
+                .add(new Paragraph("MONTANT TOTAL TTC")
+                        .setBold()
+                        .setFontSize(14))
+                .add(emplacement(Champ.MONTANT_TOTAL, zones))
+                .setBackgroundColor(COLOR_GREY)
+                .setPadding(15)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setBorder(null);
+
+        totalTable.addCell(emptyCell);
+        totalTable.addCell(totalCell);
+        document.add(totalTable);
+
+        document.add(new Paragraph("\n"));
+
+        // ==================== CONDITIONS ====================
+        document.add(new Paragraph("CONDITIONS GÉNÉRALES")
+                .setFontSize(12)
+                .setBold()
+                .setFontColor(COLOR_PRIMARY));
+
+        document.add(new Paragraph("• Paiement à la réception ou avant le départ\n" +
+                "• Annulation jusqu'à 24h avant l'arrivée\n" +
+                "• TVA incluse dans le tarif\n" +
+                "• Merci de votre confiance !")
+                .setFontSize(10)
+                .setTextAlignment(TextAlignment.LEFT));
+
+        document.add(new Paragraph("\n"));
+
+        // ==================== FOOTER ====================
+        document.add(new Paragraph("HotelMS - Gestion Hôtelière Moderne")
+                .setFontSize(9)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setFontColor(COLOR_TEXT));
+    }
+
+    // Paragraphe fantôme : occupe la place du champ dans la mise en page sans être dessiné,
+    // et retient la position obtenue
+    private static Paragraph emplacement(Champ champ, Map<Champ, Emplacement> zones) {
+        Paragraph paragraphe = new Paragraph(champ.modele).addStyle(champ.style);
+        paragraphe.setNextRenderer(new EmplacementRenderer(paragraphe, champ, zones));
+        return paragraphe;
+    }
+
+    private static final class EmplacementRenderer extends ParagraphRenderer {
+
+        private final Champ champ;
+        private final Map<Champ, Emplacement> zones;
+
+        EmplacementRenderer(Paragraph paragraphe, Champ champ, Map<Champ, Emplacement> zones) {
+            super(paragraphe);
+            this.champ = champ;
+            this.zones = zones;
+        }
+
+        @Override
+        public IRenderer getNextRenderer() {
+            return new EmplacementRenderer((Paragraph) modelElement, champ, zones);
+        }
+
+        @Override
+        public void draw(DrawContext drawContext) {
+            Rectangle zone = getInnerAreaBBox();
+            zones.put(champ, new Emplacement(zone.getX(), zone.getWidth(), lines.get(0).getYLine()));
+        }
+    }
+
     // Méthodes utilitaires
-    private void addTableHeader(Table table, String text) {
+    private static void addTableHeader(Table table, String text) {
         Cell cell = new Cell()
                 .add(new Paragraph(text).setBold().setFontSize(11))
                 .setBackgroundColor(COLOR_PRIMARY)
@@ -212,19 +417,12 @@ public class PdfService {
         table.addCell(cell);
     }
 
-    private void addTableRow(Table table, String... values) {
-        DeviceRgb rowColor = new DeviceRgb(245, 245, 245);
-        for (String value : values) {
-            Cell cell = new Cell()
-                    .add(new Paragraph(value).setFontSize(10))
-                    .setPadding(10)
-                    .setBorderTop(null)
-                    .setBackgroundColor(rowColor);
-            table.addCell(cell);
-        }
-    }
-
-    private long calculateNights(java.time.LocalDate start, java.time.LocalDate end) {
-        return java.time.temporal.ChronoUnit.DAYS.between(start, end);
+    private static void addTableRow(Table table, Paragraph contenu) {
+        Cell cell = new Cell()
+                .add(contenu)
+                .setPadding(10)
+                .setBorderTop(null)
+                .setBackgroundColor(COLOR_ROW);
+        table.addCell(cell);
     }
 }
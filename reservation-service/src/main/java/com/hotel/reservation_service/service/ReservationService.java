@@ -1,28 +1,42 @@
 package com.hotel.reservation_service.service;
 
+import com.hotel.reservation_service.config.AppelAnnulable;
+import com.hotel.reservation_service.controller.dto.PageCurseur;
 import com.hotel.reservation_service.controller.dto.ReservationRequest;
+import com.hotel.reservation_service.controller.dto.ReservationResponse;
 import com.hotel.reservation_service.exception.NotFoundException;
 import com.hotel.reservation_service.model.*;
 import com.hotel.reservation_service.repository.FactureRepository;
 import com.hotel.reservation_service.repository.ReservationRepository;
+import com.hotel.reservation_service.repository.projection.ReservationLigne;
 import com.hotel.reservation_service.service.dto.ChambreResponse;
 import com.hotel.reservation_service.service.dto.UtilisateurResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
@@ -33,13 +47,22 @@ public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final FactureRepository factureRepository;
     private final RestTemplate restTemplate;
-
-    @Value("${services.utilisateurs.url:http://localhost:8081}")
-    private String utilisateursServiceUrl;
+    private final Executor validationExecutor;
+    private final ChambreCatalogueService chambreCatalogueService;
+    private final UtilisateurAnnuaireService utilisateurAnnuaireService;
+    private final DisponibiliteService disponibiliteService;
+    private final IndexDisponibilite indexDisponibilite;
+    private final FacturePdfCache facturePdfCache;
 
     @Value("${services.chambres.url:http://localhost:8083}")
     private String chambresServiceUrl;
 
+    @Value("${services.validation.timeout-ms:2000}")
+    private long validationTimeoutMs;
+
+    @Value("${services.validation.deadline-ms:3000}")
+    private long validationDeadlineMs;
+
     @Value("${services.chambres.jwt-token:}")
     private String chambresJwtToken;
 
@@ -47,51 +70,45 @@ public class ReservationService {
         log.info("Création d'une réservation pour le client {} et chambre {}",
                 request.getIdClient(), request.getIdChambre());
 
-        // 1. Vérifier que l'utilisateur existe
-        // 1. Vérifier que l'utilisateur existe
-        try {
-            String userExistsUrl = utilisateursServiceUrl + "/api/users/exists/" + request.getIdClient();
-            log.info("🔍 Vérification utilisateur : {}", userExistsUrl);
+        disponibiliteService.verifierPeriode(request.getDateDebut(), request.getDateFin());
 
-            Boolean userExists = restTemplate.getForObject(userExistsUrl, Boolean.class);
+        // 1. + 2. Vérifier l'utilisateur et la chambre en parallèle
+        long echeance = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(validationDeadlineMs);
 
-            if (userExists == null || !userExists) {
-                throw new NotFoundException("Client avec l'ID " + request.getIdClient() + " introuvable");
-            }
+        // Appels annulables : une validation échouée libère tout de suite le thread de l'autre (abort HTTP)
+        AppelAnnulable appelUtilisateur = new AppelAnnulable();
+        AppelAnnulable appelChambre = new AppelAnnulable();
+
+        CompletableFuture<Void> utilisateurFuture = CompletableFuture
+                .runAsync(() -> appelUtilisateur.executer(() -> verifierUtilisateur(request.getIdClient(), echeance)),
+                        validationExecutor)
+                .orTimeout(validationTimeoutMs, TimeUnit.MILLISECONDS);
 
-            log.info("✅ Utilisateur {} existe", request.getIdClient());
+        CompletableFuture<ChambreResponse.ChambreData> chambreFuture = CompletableFuture
+                .supplyAsync(() -> appelChambre.executer(() -> recupererChambreDisponible(request.getIdChambre())),
+                        validationExecutor)
+                .orTimeout(validationTimeoutMs, TimeUnit.MILLISECONDS);
+
+        try {
+            attendre(utilisateurFuture, appelUtilisateur, echeance);
         } catch (Exception e) {
+            appelChambre.annuler();
             log.error("❌ Erreur lors de la vérification de l'utilisateur : {}", e.getMessage());
             throw new NotFoundException("Client avec l'ID " + request.getIdClient() + " introuvable");
         }
 
-
-        // 2. Vérifier que la chambre existe et est disponible (commenté pour l'instant)
         ChambreResponse.ChambreData chambre;
         try {
-            String chambreUrl = chambresServiceUrl + "/api/chambres/" + request.getIdChambre();
-            log.info("🔍 Appel API Chambre : {}", chambreUrl);
-
-            ChambreResponse response = restTemplate.getForObject(chambreUrl, ChambreResponse.class);
-
-            // Vérifier que la réponse est valide
-            if (response == null || !response.isSuccess() || response.getData() == null) {
-                throw new NotFoundException("Chambre avec l'ID " + request.getIdChambre() + " introuvable");
-            }
-
-            // Extraire les données
-            chambre = response.getData();
-            log.info("✅ Chambre trouvée : {} - Statut : {}", chambre.getNumero(), chambre.getStatut());
-
-            // Vérifier le statut
-            if (!"libre".equalsIgnoreCase(chambre.getStatut())) {
-                throw new IllegalStateException("La chambre " + chambre.getNumero() + " n'est pas disponible");
-            }
+            chambre = attendre(chambreFuture, appelChambre, echeance);
         } catch (Exception e) {
             log.error("❌ Erreur lors de la vérification de la chambre : {}", e.getMessage());
             throw new NotFoundException("Chambre avec l'ID " + request.getIdChambre() + " introuvable ou indisponible");
         }
 
+        // 3. Vérifier qu'aucune réservation ne chevauche la période (verrou sur la chambre)
+        disponibiliteService.reserverCreneau(request.getIdChambre(), request.getDateDebut(),
+                request.getDateFin(), null);
+
         // Calculer le montant total
         long nombreNuits = ChronoUnit.DAYS.between(request.getDateDebut(), request.getDateFin());
 
@@ -122,13 +139,83 @@ public class ReservationService {
 
         Reservation saved = reservationRepository.save(reservation);
         log.info("✅ Réservation créée avec succès - ID: {}", saved.getIdReservation());
+        indexDisponibilite.enregistrer(saved);
 
-        // 3. Mettre à jour le statut de la chambre à "occupee" avec JWT
-        updateChambreStatut(request.getIdChambre(), "occupee");
+        // 4. Mettre à jour le statut de la chambre à "occupee" avec JWT, une fois le verrou de la chambre
+        // relâché (commit) : les réservations concurrentes n'attendent pas l'appel au service chambres
+        apresCommit(() -> updateChambreStatut(request.getIdChambre(), "occupee"));
 
         return saved;
     }
 
+    private void verifierUtilisateur(Long idClient, long echeance) {
+        log.info("🔍 Vérification utilisateur : {}", idClient);
+
+        // Chargement partagé avec les autres réservations du même client : on l'attend sans l'annuler
+        long restant = Math.min(echeance - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(validationTimeoutMs));
+        if (!utilisateurAnnuaireService.existe(idClient, Duration.ofNanos(restant))) {
+            throw new NotFoundException("Client avec l'ID " + idClient + " introuvable");
+        }
+
+        log.info("✅ Utilisateur {} existe", idClient);
+    }
+
+    private ChambreResponse.ChambreData recupererChambreDisponible(Long idChambre) {
+        // Prix, type, capacité... servis depuis le cache local
+        ChambreResponse.ChambreData chambre = chambreCatalogueService.getChambre(idChambre);
+
+        // Hors service en cache : relire avant de refuser
+        if (chambre.isHorsService()) {
+            chambre = chambreCatalogueService.rafraichir(idChambre);
+        }
+        log.info("✅ Chambre trouvée : {} - Statut : {}", chambre.getNumero(), chambre.getStatut());
+
+        // L'occupation par dates est vérifiée en base (DisponibiliteService) ;
+        // ici on refuse seulement les chambres en maintenance / hors service
+        if (chambre.isHorsService()) {
+            throw new IllegalStateException("La chambre " + chambre.getNumero() + " n'est pas disponible");
+        }
+        return chambre;
+    }
+
+    /**
+     * Attendre un appel de validation sans dépasser l'échéance globale.
+     * Déballe l'exception d'origine pour que le message loggé reste lisible.
+     * Délai dépassé (échéance ou orTimeout) : la requête HTTP encore en cours est annulée.
+     */
+    private <T> T attendre(CompletableFuture<T> future, AppelAnnulable appel, long echeance) throws Exception {
+        long restant = echeance - System.nanoTime();
+        try {
+            return future.get(Math.max(restant, 0), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                appel.annuler();
+            }
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (TimeoutException e) {
+            appel.annuler();
+            throw new TimeoutException("Délai de validation dépassé");
+        }
+    }
+
+    /**
+     * Appels au service chambres après le commit (comme IndexDisponibilite.enregistrer) :
+     * la transaction ne garde ni connexion ni verrou pendant l'aller-retour réseau,
+     * et rien n'est envoyé si elle est annulée
+     */
+    private void apresCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     private void updateChambreStatut(Long idChambre, String statut) {
         try {
             String updateChambreUrl = chambresServiceUrl + "/api/chambres/" + idChambre + "/statut";
@@ -151,9 +238,13 @@ public class ReservationService {
 
             restTemplate.exchange(updateChambreUrl, HttpMethod.PUT, entity, String.class);
 
+            // Nouveau statut connu : reporté dans le cache, la fiche de la chambre reste servie depuis le cache
+            chambreCatalogueService.statutModifie(idChambre, statut);
             log.info("✅ Statut de la chambre {} mis à jour à '{}'", idChambre, statut);
         } catch (Exception e) {
             log.error("❌ Impossible de mettre à jour le statut de la chambre : {}", e.getMessage());
+            // Le statut a (peut-être) changé : relu au prochain accès
+            chambreCatalogueService.invalider(idChambre);
         }
     }
 
@@ -163,20 +254,33 @@ public class ReservationService {
                 .orElseThrow(() -> new NotFoundException("Réservation introuvable avec l'ID: " + id));
     }
 
-    public List<Reservation> getAllReservations() {
-        log.info("Récupération de toutes les réservations");
-        return reservationRepository.findAll();
-    }
-
-    public List<Reservation> getReservationsByClient(Long idClient) {
-        log.info("Récupération des réservations pour le client {}", idClient);
-        return reservationRepository.findByIdClient(idClient);
+    /**
+     * Liste paginée par curseur : les filtres sont appliqués en base et seules
+     * les colonnes affichées sont lues (pas d'entités chargées en mémoire).
+     */
+    @Transactional(readOnly = true)
+    public PageCurseur<ReservationResponse> listerReservations(Long after, Integer limit, StatutReservation statut,
+                                                               Long idClient, Long idChambre,
+                                                               LocalDate du, LocalDate au) {
+        log.info("Récupération des réservations après {} (statut {}, client {}, chambre {}, du {} au {})",
+                after, statut, idClient, idChambre, du, au);
+
+        Pageable demande = PageCurseur.demande(limit);
+        List<ReservationLigne> lignes = reservationRepository.findPage(after != null ? after : 0L,
+                statut, idClient, idChambre, du, au, demande);
+        return PageCurseur.de(lignes, demande, ReservationLigne::idReservation, ReservationResponse::fromLigne);
     }
 
     public Reservation updateReservation(Long id, ReservationRequest request) {
         log.info("Mise à jour de la réservation {}", id);
 
         Reservation existing = getReservationById(id);
+        Long ancienneChambre = existing.getIdChambre();
+
+        if (existing.getStatut() == StatutReservation.CONFIRMEE) {
+            disponibiliteService.reserverCreneau(request.getIdChambre(), request.getDateDebut(),
+                    request.getDateFin(), id);
+        }
 
         existing.setIdClient(request.getIdClient());
         existing.setIdChambre(request.getIdChambre());
@@ -190,9 +294,15 @@ public class ReservationService {
                     request.getPrixParNuit() : BigDecimal.valueOf(100.00);
             BigDecimal montantTotal = prixParNuit.multiply(BigDecimal.valueOf(nombreNuits));
             existing.getFacture().setMontantTotal(montantTotal);
+            facturePdfCache.invalider(existing.getFacture().getIdFacture());
         }
 
-        return reservationRepository.save(existing);
+        Reservation saved = reservationRepository.save(existing);
+        if (!ancienneChambre.equals(saved.getIdChambre())) {
+            indexDisponibilite.retirer(ancienneChambre, id);
+        }
+        indexDisponibilite.enregistrer(saved);
+        return saved;
     }
 
     public void cancelReservation(Long id) {
@@ -203,9 +313,10 @@ public class ReservationService {
 
         reservation.setStatut(StatutReservation.ANNULEE);
         reservationRepository.save(reservation);
+        indexDisponibilite.retirer(idChambre, id);
 
         // Remettre la chambre à "libre" avec JWT
-        updateChambreStatut(idChambre, "libre");
+        apresCommit(() -> updateChambreStatut(idChambre, "libre"));
 
         log.info("Réservation {} annulée avec succès", id);
     }
@@ -218,9 +329,10 @@ public class ReservationService {
 
         reservation.setStatut(StatutReservation.TERMINEE);
         reservationRepository.save(reservation);
+        indexDisponibilite.retirer(idChambre, id);
 
         // Remettre la chambre à "libre" après checkout avec JWT
-        updateChambreStatut(idChambre, "libre");
+        apresCommit(() -> updateChambreStatut(idChambre, "libre"));
 
         log.info("Réservation {} terminée avec succès", id);
     }
@@ -228,11 +340,10 @@ public class ReservationService {
     public void deleteReservation(Long id) {
         log.info("Suppression de la réservation {}", id);
 
-        if (!reservationRepository.existsById(id)) {
-            throw new NotFoundException("Réservation introuvable avec l'ID: " + id);
-        }
+        Reservation reservation = getReservationById(id);
 
         reservationRepository.deleteById(id);
+        indexDisponibilite.retirer(reservation.getIdChambre(), id);
         log.info("Réservation {} supprimée avec succès", id);
     }
 }
@@ -0,0 +1,165 @@
+package com.hotel.reservation_service.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hotel.reservation_service.service.dto.UtilisateurResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Annuaire local des utilisateurs (cache côté client du service utilisateurs).
+ * - utilisateur trouvé : gardé {@code positive-ttl}
+ * - utilisateur introuvable : gardé {@code negative-ttl} (plus court)
+ * - les requêtes simultanées pour le même ID partagent un seul appel distant, lancé sur le pool
+ *   annuaireExecutor : hors de tout {@link com.hotel.reservation_service.config.AppelAnnulable}, l'abandon
+ *   d'un appelant (délai de sa réservation dépassé) n'annule pas la requête des autres
+ * - chaque appelant attend le résultat au plus son propre délai
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UtilisateurAnnuaireService {
+
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Executor annuaireExecutor;
+
+    @Value("${services.utilisateurs.url:http://localhost:8081}")
+    private String utilisateursServiceUrl;
+
+    @Value("${services.utilisateurs.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${services.utilisateurs.cache.positive-ttl:10m}")
+    private Duration positiveTtl;
+
+    @Value("${services.utilisateurs.cache.negative-ttl:30s}")
+    private Duration negativeTtl;
+
+    // Attente max d'un appelant sans délai propre (connexion + lecture du client HTTP)
+    @Value("${services.utilisateurs.attente-max:7s}")
+    private Duration attenteMax;
+
+    private AsyncCache<Long, Optional<UtilisateurResponse>> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Optional<UtilisateurResponse>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<UtilisateurResponse> utilisateur, long now) {
+                        return (utilisateur.isPresent() ? positiveTtl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<UtilisateurResponse> utilisateur,
+                                                  long now, long currentDuration) {
+                        return expireAfterCreate(id, utilisateur, now);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<UtilisateurResponse> utilisateur,
+                                                long now, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .executor(annuaireExecutor)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "utilisateurs");
+        log.info("✅ Cache utilisateurs initialisé (max {}, trouvé {}, introuvable {})",
+                maxSize, positiveTtl, negativeTtl);
+    }
+
+    /**
+     * Récupérer un utilisateur (vide s'il n'existe pas)
+     */
+    public Optional<UtilisateurResponse> getUtilisateur(Long idUtilisateur) {
+        return getUtilisateur(idUtilisateur, attenteMax);
+    }
+
+    /**
+     * Récupérer un utilisateur en l'attendant au plus {@code attente} ; au-delà l'appel distant
+     * continue pour les autres appelants et le cache
+     */
+    public Optional<UtilisateurResponse> getUtilisateur(Long idUtilisateur, Duration attente) {
+        // Premier appelant : chargement lancé sur annuaireExecutor
+        CompletableFuture<Optional<UtilisateurResponse>> resultat = cache.get(idUtilisateur,
+                (id, executor) -> CompletableFuture.supplyAsync(() -> charger(id), executor));
+        try {
+            return attendre(idUtilisateur, resultat, attente);
+        } catch (RuntimeException e) {
+            // Un échec n'est jamais mis en cache : retiré avant de répondre (Caffeine le retire aussi,
+            // mais après coup), l'appel suivant recharge
+            if (resultat.isCompletedExceptionally()) {
+                cache.asMap().remove(idUtilisateur, resultat);
+            }
+            throw e;
+        }
+    }
+
+    public boolean existe(Long idUtilisateur) {
+        return getUtilisateur(idUtilisateur).isPresent();
+    }
+
+    public boolean existe(Long idUtilisateur, Duration attente) {
+        return getUtilisateur(idUtilisateur, attente).isPresent();
+    }
+
+    /**
+     * Invalider un utilisateur (désactivation / suppression côté service utilisateurs)
+     */
+    public void invalider(Long idUtilisateur) {
+        cache.synchronous().invalidate(idUtilisateur);
+        log.info("🗑️ Utilisateur {} retiré du cache", idUtilisateur);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    private Optional<UtilisateurResponse> charger(Long idUtilisateur) {
+        String userUrl = utilisateursServiceUrl + "/api/users/" + idUtilisateur;
+        log.info("🔍 Appel API Utilisateur : {}", userUrl);
+
+        try {
+            return Optional.ofNullable(restTemplate.getForObject(userUrl, UtilisateurResponse.class));
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<UtilisateurResponse> attendre(Long idUtilisateur,
+                                                          CompletableFuture<Optional<UtilisateurResponse>> future,
+                                                          Duration attente) {
+        try {
+            return future.get(Math.max(attente.toNanos(), 0), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Utilisateur " + idUtilisateur + " : pas de réponse du service utilisateurs en "
+                    + attente.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente de l'utilisateur " + idUtilisateur + " interrompue", e);
+        }
+    }
+}
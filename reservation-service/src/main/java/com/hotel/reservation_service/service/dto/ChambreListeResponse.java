@@ -0,0 +1,29 @@
+package com.hotel.reservation_service.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Réponse paginée de GET /api/chambres (service chambres)
+ */
+@Data
+public class ChambreListeResponse {
+    private boolean success;
+
+    private Page data;
+
+    private String message;
+
+    @Data
+    public static class Page {
+        @JsonProperty("current_page")
+        private int currentPage;
+
+        @JsonProperty("last_page")
+        private int lastPage;
+
+        private List<ChambreResponse.ChambreData> data;
+    }
+}
@@ -1,5 +1,6 @@
 package com.hotel.reservation_service.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
@@ -41,5 +42,31 @@ public class ChambreResponse {
         private String type;
 
         private String vue;
+
+        /**
+         * Copie de la fiche avec un autre statut (la fiche en cache n'est jamais modifiée)
+         */
+        public ChambreData avecStatut(String nouveauStatut) {
+            ChambreData copie = new ChambreData();
+            copie.setIdChambre(idChambre);
+            copie.setCapacitePersonnes(capacitePersonnes);
+            copie.setDescription(description);
+            copie.setEtage(etage);
+            copie.setNbLits(nbLits);
+            copie.setNumero(numero);
+            copie.setPhotoUrl(photoUrl);
+            copie.setPrixParNuit(prixParNuit);
+            copie.setStatut(nouveauStatut);
+            copie.setSuperficie(superficie);
+            copie.setType(type);
+            copie.setVue(vue);
+            return copie;
+        }
+
+        // Chambre en maintenance / hors service : jamais proposée ni réservable
+        @JsonIgnore
+        public boolean isHorsService() {
+            return "maintenance".equalsIgnoreCase(statut) || "hors_service".equalsIgnoreCase(statut);
+        }
     }
 }
@@ -0,0 +1,89 @@
+package com.hotel.reservation_service.benchmark;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.service.EmailService;
+import com.hotel.reservation_service.service.GabaritsEmail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation par email de facture : concaténation initiale contre gabarit FreeMarker précompilé
+ * (gc.alloc.rate.norm = octets alloués par corps d'email). La version initiale s'arrête à la String,
+ * avant son encodage en UTF-8 par JavaMail : la comparaison est défavorable au gabarit.
+ *
+ * Lancement :
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *   -Dexec.args="-cp %classpath com.hotel.reservation_service.benchmark.EmailFactureBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailFactureBenchmark {
+
+    private Facture facture;
+    private ContenuEmailInitial contenuInitial;
+    private EmailService emailService;
+
+    @Setup
+    public void setUp() {
+        Reservation reservation = new Reservation();
+        reservation.setIdReservation(3L);
+        reservation.setIdChambre(7L);
+        reservation.setDateDebut(LocalDate.of(2025, 6, 1));
+        reservation.setDateFin(LocalDate.of(2025, 6, 3));
+
+        facture = new Facture();
+        facture.setIdFacture(9L);
+        facture.setDateEmission(LocalDateTime.of(2025, 5, 20, 10, 0));
+        facture.setMontantTotal(new BigDecimal("300.00"));
+        facture.setEtat(EtatFacture.PAYEE);
+        facture.setReservation(reservation);
+
+        contenuInitial = new ContenuEmailInitial();
+        emailService = new EmailService(null, null, new GabaritsEmail(), null);
+        ReflectionTestUtils.setField(emailService, "langue", Locale.FRENCH);
+    }
+
+    @Benchmark
+    public String initial() {
+        return contenuInitial.buildEmailContent(facture);
+    }
+
+    @Benchmark
+    public byte[] gabarit() {
+        return emailService.buildEmailContent(facture);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(EmailFactureBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
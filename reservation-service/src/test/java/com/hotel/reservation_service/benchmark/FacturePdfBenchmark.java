@@ -0,0 +1,89 @@
+package com.hotel.reservation_service.benchmark;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.service.PdfService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temps CPU et allocations par facture : rendu initial contre rendu par gabarit (PdfService).
+ * Le profileur GC donne l'allocation par opération (gc.alloc.rate.norm).
+ *
+ * Lancement :
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *   -Dexec.args="-cp %classpath com.hotel.reservation_service.benchmark.FacturePdfBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FacturePdfBenchmark {
+
+    private Facture facture;
+    private RenduFactureInitial renduInitial;
+    private PdfService renduGabarit;
+
+    @Setup
+    public void setUp() {
+        Reservation reservation = new Reservation();
+        reservation.setIdReservation(3L);
+        reservation.setIdChambre(7L);
+        reservation.setDateDebut(LocalDate.of(2025, 6, 1));
+        reservation.setDateFin(LocalDate.of(2025, 6, 3));
+
+        facture = new Facture();
+        facture.setIdFacture(9L);
+        facture.setDateEmission(LocalDateTime.of(2025, 5, 20, 10, 0));
+        facture.setMontantTotal(new BigDecimal("300.00"));
+        facture.setEtat(EtatFacture.PAYEE);
+        facture.setReservation(reservation);
+
+        renduInitial = new RenduFactureInitial();
+        renduGabarit = new PdfService();
+    }
+
+    @Benchmark
+    public int initial() throws Exception {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream(8192);
+        renduInitial.writeFacturePdf(facture, sortie);
+        return sortie.size();
+    }
+
+    @Benchmark
+    public int gabarit() throws Exception {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream(8192);
+        renduGabarit.writeFacturePdf(facture, sortie);
+        return sortie.size();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(FacturePdfBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
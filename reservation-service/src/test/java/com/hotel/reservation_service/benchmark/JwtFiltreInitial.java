@@ -0,0 +1,81 @@
+package com.hotel.reservation_service.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Filtre JWT de user-service avant le cache (validateToken puis extractClaims, un parser construit
+ * à chaque appel), gardé tel quel comme point de comparaison pour JwtFiltreBenchmark
+ */
+class JwtFiltreInitial extends OncePerRequestFilter {
+
+    private final SecretKey secretKey;
+
+    JwtFiltreInitial(SecretKey secretKey) {
+        this.secretKey = secretKey;
+    }
+
+    private Claims extractClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private boolean validateToken(String token) {
+        try {
+            extractClaims(token);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+
+            try {
+                if (validateToken(token)) {
+                    var claims = extractClaims(token);
+                    String username = claims.getSubject();
+                    String role = claims.get("role", String.class);
+
+                    var authorities = Collections.singletonList(
+                            new SimpleGrantedAuthority(role)
+                    );
+
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(
+                                    username, null, authorities
+                            );
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
+            } catch (Exception e) {
+                System.out.println("JWT error: " + e.getMessage());
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
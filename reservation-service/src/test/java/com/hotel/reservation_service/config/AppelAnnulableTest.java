@@ -0,0 +1,92 @@
+package com.hotel.reservation_service.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Une validation refusée libère le thread de l'autre appel sans attendre le timeout de lecture
+ */
+class AppelAnnulableTest {
+
+    private HttpServer serveur;
+    private CountDownLatch requeteRecue;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        requeteRecue = new CountDownLatch(1);
+        serveur = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serveur.setExecutor(Executors.newCachedThreadPool());
+        // Service lent : répond après 10 s
+        serveur.createContext("/lent", echange -> {
+            requeteRecue.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            echange.sendResponseHeaders(200, -1);
+            echange.close();
+        });
+        serveur.start();
+
+        httpClient = HttpClients.createDefault();
+        restTemplate = new RestTemplate(new FabriqueRequetesAnnulables(httpClient));
+        pool = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.shutdownNow();
+        httpClient.close();
+        serveur.stop(0);
+    }
+
+    @Test
+    void annulerInterromptLaRequeteEnCours() throws Exception {
+        String url = "http://127.0.0.1:" + serveur.getAddress().getPort() + "/lent";
+        AppelAnnulable appel = new AppelAnnulable();
+
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(
+                () -> appel.executer(() -> restTemplate.getForObject(url, String.class)), pool);
+        assertThat(requeteRecue.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long debut = System.nanoTime();
+        appel.annuler();
+
+        assertThatThrownBy(() -> future.get(2, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut)).isLessThan(2_000);
+
+        // Le thread du pool est de nouveau libre
+        assertThat(pool.submit(() -> "libre").get(1, TimeUnit.SECONDS)).isEqualTo("libre");
+    }
+
+    @Test
+    void appelAnnuleAvantDeDemarrerNeLancePasDeRequete() {
+        AppelAnnulable appel = new AppelAnnulable();
+        appel.annuler();
+
+        assertThatThrownBy(() -> appel.executer(() -> restTemplate.getForObject(
+                "http://127.0.0.1:" + serveur.getAddress().getPort() + "/lent", String.class)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(requeteRecue.getCount()).isEqualTo(1);
+    }
+}
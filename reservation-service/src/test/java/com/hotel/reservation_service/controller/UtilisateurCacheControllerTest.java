@@ -0,0 +1,82 @@
+package com.hotel.reservation_service.controller;
+
+import com.hotel.reservation_service.config.SecurityConfig;
+import com.hotel.reservation_service.security.JwtAuthFilter;
+import com.hotel.reservation_service.security.JwtVerificateur;
+import com.hotel.reservation_service.service.UtilisateurAnnuaireService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Invalidation du cache utilisateurs : réservée au jeton de service (rôle SERVICE)
+ */
+@WebMvcTest(UtilisateurCacheController.class)
+@Import({SecurityConfig.class, JwtAuthFilter.class, JwtVerificateur.class, UtilisateurCacheControllerTest.Config.class})
+class UtilisateurCacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UtilisateurAnnuaireService utilisateurAnnuaireService;
+
+    @Value("${app.jwt.secret}")
+    private String secret;
+
+    @Test
+    void jetonDeServiceInvalideLeCache() throws Exception {
+        mockMvc.perform(delete("/api/utilisateurs/7/cache").header("Authorization", "Bearer " + jeton("SERVICE")))
+                .andExpect(status().isNoContent());
+
+        verify(utilisateurAnnuaireService).invalider(7L);
+    }
+
+    @Test
+    void sansJetonOuAvecUnJetonUtilisateurRefuse() throws Exception {
+        mockMvc.perform(delete("/api/utilisateurs/7/cache"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/utilisateurs/7/cache").header("Authorization", "Bearer " + jeton("CLIENT")))
+                .andExpect(status().isForbidden());
+
+        verify(utilisateurAnnuaireService, never()).invalider(7L);
+    }
+
+    private String jeton(String role) {
+        return Jwts.builder()
+                .setSubject("user-service")
+                .claim("role", role)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.hotel.reservation_service.controller.dto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCurseurTest {
+
+    @Test
+    void uneLigneDePlusDonneLeCurseurSuivant() {
+        Pageable demande = PageCurseur.demande(3);
+        assertThat(demande.getPageSize()).isEqualTo(4);
+
+        PageCurseur<String> page = PageCurseur.de(List.of(10L, 11L, 12L, 13L), demande,
+                Function.identity(), String::valueOf);
+
+        assertThat(page.elements()).containsExactly("10", "11", "12");
+        assertThat(page.suivant()).isEqualTo(12L);
+        assertThat(page.enReponse().getHeaders().getFirst("X-Next-After")).isEqualTo("12");
+    }
+
+    @Test
+    void dernierePageSansCurseur() {
+        PageCurseur<String> page = PageCurseur.de(List.of(10L, 11L), PageCurseur.demande(3),
+                Function.identity(), String::valueOf);
+
+        assertThat(page.elements()).containsExactly("10", "11");
+        assertThat(page.suivant()).isNull();
+        assertThat(page.enReponse().getHeaders().containsKey("X-Next-After")).isFalse();
+    }
+
+    @Test
+    void limiteHorsBornesRefusee() {
+        assertThatThrownBy(() -> PageCurseur.demande(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCurseur.demande(PageCurseur.LIMITE_MAX + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,141 @@
+package com.hotel.reservation_service.repository;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.projection.ReservationLigne;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Non-régression N+1 : le nombre de requêtes SQL des listes ne doit pas
+ * dépendre du nombre de lignes (statistiques Hibernate, base H2).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class ReservationRepositoryRequetesTest {
+
+    private static final long CLIENT = 42L;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    private Statistics statistiques;
+
+    @BeforeEach
+    void setUp() {
+        statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listePagineeEnUneRequeteQuelQueSoitLeNombreDeLignes() {
+        assertThat(requetesPourLignes(3, () -> reservationRepository.findPage(
+                0L, null, CLIENT, null, null, null, PageRequest.of(0, 100))))
+                .isEqualTo(requetesPourLignes(30, () -> reservationRepository.findPage(
+                        0L, null, CLIENT, null, null, null, PageRequest.of(0, 100))))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void reservationsAvecFactureEnUneRequete() {
+        assertThat(requetesPourLignes(3, () -> reservationRepository.findByIdClient(CLIENT).stream()
+                .map(r -> r.getFacture().getMontantTotal()).toList()))
+                .isEqualTo(requetesPourLignes(30, () -> reservationRepository.findByIdClient(CLIENT).stream()
+                        .map(r -> r.getFacture().getMontantTotal()).toList()))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void facturesAvecReservationEnUneRequete() {
+        assertThat(requetesPourLignes(3, () -> factureRepository.findByEtat(EtatFacture.EMISE).stream()
+                .map(f -> f.getReservation().getDateDebut()).toList()))
+                .isEqualTo(requetesPourLignes(30, () -> factureRepository.findByEtat(EtatFacture.EMISE).stream()
+                        .map(f -> f.getReservation().getDateDebut()).toList()))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void exportEnUneRequete() {
+        assertThat(requetesPourLignes(30, () -> {
+            try (Stream<ReservationLigne> lignes = reservationRepository.streamLignes(
+                    StatutReservation.CONFIRMEE, CLIENT, null, null, null)) {
+                return lignes.toList();
+            }
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void reservationParIdAvecSaFacture() {
+        persister(1);
+        Long id = reservationRepository.findByIdClient(CLIENT).get(0).getIdReservation();
+        entityManager.clear();
+        statistiques.clear();
+
+        Reservation reservation = reservationRepository.findById(id).orElseThrow();
+
+        assertThat(reservation.getFacture().getMontantTotal()).isEqualByComparingTo("200");
+        assertThat(statistiques.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private long requetesPourLignes(int nombre, Supplier<List<?>> requete) {
+        persister(nombre);
+        entityManager.clear();
+        statistiques.clear();
+
+        List<?> resultat = requete.get();
+
+        assertThat(resultat).hasSize(nombre);
+        return statistiques.getPrepareStatementCount();
+    }
+
+    private void persister(int nombre) {
+        factureRepository.deleteAllInBatch();
+        reservationRepository.deleteAllInBatch();
+        LocalDate debut = LocalDate.now().plusDays(1);
+        for (int i = 0; i < nombre; i++) {
+            Reservation reservation = new Reservation();
+            reservation.setIdClient(CLIENT);
+            reservation.setIdChambre((long) i);
+            reservation.setDateDebut(debut);
+            reservation.setDateFin(debut.plusDays(2));
+            reservation.setStatut(StatutReservation.CONFIRMEE);
+
+            Facture facture = new Facture();
+            facture.setMontantTotal(BigDecimal.valueOf(200));
+            facture.setEtat(EtatFacture.EMISE);
+            facture.setReservation(reservation);
+            reservation.setFacture(facture);
+
+            entityManager.persist(reservation);
+        }
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,91 @@
+package com.hotel.reservation_service.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtre JWT : jeton de user-service accepté, jeton invalide ou expiré traité en anonyme
+ */
+class JwtAuthFilterTest {
+
+    private static final String SECRET = "secret-de-test-assez-long-pour-hmac-sha256-gestion-hotel";
+
+    private SimpleMeterRegistry registry;
+    private JwtAuthFilter filtre;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        JwtVerificateur verificateur = new JwtVerificateur(registry);
+        ReflectionTestUtils.setField(verificateur, "secret", SECRET);
+        ReflectionTestUtils.setField(verificateur, "cacheMax", 100L);
+        verificateur.init();
+        filtre = new JwtAuthFilter(verificateur);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void jetonValideAuthentifieAvecSonRole() throws Exception {
+        Authentication authentification = filtrer(jeton(SECRET, "client@example.com", 60_000));
+
+        assertThat(authentification).isNotNull();
+        assertThat(authentification.getName()).isEqualTo("client@example.com");
+        assertThat(authentification.getAuthorities()).extracting("authority").containsExactly("CLIENT");
+    }
+
+    @Test
+    void jetonDejaVuLuDansLeCache() throws Exception {
+        String jeton = jeton(SECRET, "client@example.com", 60_000);
+
+        filtrer(jeton);
+        SecurityContextHolder.clearContext();
+        assertThat(filtrer(jeton)).isNotNull();
+
+        assertThat(registry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void jetonMalSigneOuExpireRequeteAnonyme() throws Exception {
+        assertThat(filtrer(jeton("un-autre-secret-assez-long-pour-hmac-sha256-gestion", "pirate", 60_000))).isNull();
+        assertThat(filtrer(jeton(SECRET, "client@example.com", -1_000))).isNull();
+        assertThat(filtrer("pas-un-jwt")).isNull();
+    }
+
+    private Authentication filtrer(String jeton) throws Exception {
+        MockHttpServletRequest requete = new MockHttpServletRequest("GET", "/api/reservations");
+        requete.addHeader("Authorization", "Bearer " + jeton);
+        filtre.doFilter(requete, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static String jeton(String secret, String sujet, long dureeMs) {
+        return Jwts.builder()
+                .setSubject(sujet)
+                .claim("role", "CLIENT")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + dureeMs))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
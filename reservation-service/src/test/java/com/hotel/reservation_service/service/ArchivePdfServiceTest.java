@@ -0,0 +1,142 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.repository.FactureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ArchivePdfServiceTest {
+
+    @TempDir
+    Path dossier;
+
+    private PdfService pdfService;
+    private ArchivePdfService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 5 factures, pages de 2 : trois requêtes
+        List<Facture> factures = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            factures.add(facture(id));
+        }
+        FactureRepository factureRepository = mock(FactureRepository.class);
+        when(factureRepository.compterLot(eq(EtatFacture.PAYEE), any(), any())).thenReturn(5L);
+        when(factureRepository.findLot(anyLong(), eq(EtatFacture.PAYEE), any(), any(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    long after = inv.getArgument(0);
+                    return factures.stream().filter(f -> f.getIdFacture() > after).limit(2).toList();
+                });
+
+        pdfService = mock(PdfService.class);
+        when(pdfService.generateFacturePdf(any(Facture.class))).thenAnswer(inv -> {
+            Facture facture = inv.getArgument(0);
+            if (facture.getIdFacture() == 4L) {
+                throw new IllegalStateException("rendu impossible");
+            }
+            return ("%PDF " + facture.getIdFacture()).getBytes(StandardCharsets.UTF_8);
+        });
+
+        service = new ArchivePdfService(factureRepository, pdfService, Runnable::run, Runnable::run);
+        ReflectionTestUtils.setField(service, "dossier", dossier);
+        ReflectionTestUtils.setField(service, "taillePage", 2);
+        ReflectionTestUtils.setField(service, "parallelisme", 1);
+        ReflectionTestUtils.setField(service, "conservation", Duration.ofHours(1));
+        service.init();
+    }
+
+    @Test
+    void archiveContientUnPdfParFactureDansLOrdreEtLesErreurs() throws Exception {
+        LotPdf lot = service.demarrer(EtatFacture.PAYEE, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 6, 1));
+
+        assertThat(lot.getStatut()).isEqualTo(LotPdf.Statut.TERMINE);
+        assertThat(lot.getTotal()).isEqualTo(5);
+        assertThat(lot.getTraites().get()).isEqualTo(5);
+        assertThat(lot.getErreurs().get()).isEqualTo(1);
+        assertThat(lot.getPourcentage()).isEqualTo(100);
+
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        service.ecrireArchive(lot, sortie);
+        Map<String, String> entrees = lireZip(sortie.toByteArray());
+
+        assertThat(entrees.keySet()).containsExactly("facture-1.pdf", "facture-2.pdf", "facture-3.pdf",
+                "facture-5.pdf", "erreurs.txt");
+        assertThat(entrees.get("facture-3.pdf")).isEqualTo("%PDF 3");
+        assertThat(entrees.get("erreurs.txt")).contains("facture 4 : rendu impossible");
+    }
+
+    @Test
+    void lotRetrouvePuisPurgeAvecSonArchive() throws Exception {
+        LotPdf lot = service.demarrer(EtatFacture.PAYEE, null, null);
+        assertThat(service.getLot(lot.getId())).contains(lot);
+
+        ReflectionTestUtils.setField(service, "conservation", Duration.ZERO);
+        service.purger();
+
+        assertThat(service.getLot(lot.getId())).isEmpty();
+        assertThat(Files.exists(lot.getArchive())).isFalse();
+    }
+
+    @Test
+    void periodeInverseeRefusee() {
+        assertThatThrownBy(() -> service.demarrer(EtatFacture.PAYEE, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 5, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Map<String, String> lireZip(byte[] zip) throws IOException {
+        Map<String, String> entrees = new LinkedHashMap<>();
+        try (ZipInputStream entree = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry suivante;
+            while ((suivante = entree.getNextEntry()) != null) {
+                entrees.put(suivante.getName(), new String(entree.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entrees;
+    }
+
+    private static Facture facture(long id) {
+        Reservation reservation = new Reservation();
+        reservation.setIdReservation(id);
+        reservation.setIdChambre(7L);
+        reservation.setDateDebut(LocalDate.of(2025, 6, 1));
+        reservation.setDateFin(LocalDate.of(2025, 6, 3));
+
+        Facture facture = new Facture();
+        facture.setIdFacture(id);
+        facture.setDateEmission(LocalDateTime.of(2025, 5, 20, 10, 0));
+        facture.setMontantTotal(new BigDecimal("300.00"));
+        facture.setEtat(EtatFacture.PAYEE);
+        facture.setReservation(reservation);
+        return facture;
+    }
+}
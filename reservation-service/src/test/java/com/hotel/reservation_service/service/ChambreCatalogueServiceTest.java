@@ -0,0 +1,142 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.service.dto.ChambreListeResponse;
+import com.hotel.reservation_service.service.dto.ChambreResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChambreCatalogueServiceTest {
+
+    private static final String URL = "http://chambres/api/chambres/7";
+    private static final String URL_STATUT = URL + "/statut";
+
+    private RestTemplate restTemplate;
+    private ChambreCatalogueService catalogue;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        when(restTemplate.getForObject(eq(URL), eq(ChambreResponse.class))).thenReturn(reponse("libre"));
+        when(restTemplate.getForObject(eq(URL_STATUT), eq(ChambreResponse.class))).thenReturn(reponse("occupee"));
+
+        catalogue = new ChambreCatalogueService(restTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(catalogue, "chambresServiceUrl", "http://chambres");
+        ReflectionTestUtils.setField(catalogue, "maxSize", 10L);
+        ReflectionTestUtils.setField(catalogue, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(catalogue, "statutTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(catalogue, "taillePage", 500);
+        catalogue.init();
+    }
+
+    @Test
+    void chambreServieDepuisLeCacheApresLePremierAppel() {
+        catalogue.getChambre(7L);
+        ChambreResponse.ChambreData chambre = catalogue.getChambre(7L);
+
+        assertThat(chambre.getPrixParNuit()).isEqualTo(150.0);
+        verify(restTemplate, times(1)).getForObject(eq(URL), eq(ChambreResponse.class));
+        assertThat(catalogue.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invaliderRelitLeStatutSeulement() {
+        catalogue.getChambre(7L);
+        catalogue.invalider(7L);
+        ChambreResponse.ChambreData chambre = catalogue.getChambre(7L);
+
+        assertThat(chambre.getStatut()).isEqualTo("occupee");
+        assertThat(chambre.getPrixParNuit()).isEqualTo(150.0);
+        verify(restTemplate, times(1)).getForObject(eq(URL), eq(ChambreResponse.class));
+        verify(restTemplate, times(1)).getForObject(eq(URL_STATUT), eq(ChambreResponse.class));
+    }
+
+    @Test
+    void statutTropAncienEstRevalideSansRelireLaFiche() {
+        ReflectionTestUtils.setField(catalogue, "statutTtl", Duration.ZERO);
+        catalogue.init();
+
+        catalogue.getChambre(7L);
+        catalogue.getChambre(7L);
+        catalogue.getChambre(7L);
+
+        verify(restTemplate, times(1)).getForObject(eq(URL), eq(ChambreResponse.class));
+        verify(restTemplate, times(2)).getForObject(eq(URL_STATUT), eq(ChambreResponse.class));
+    }
+
+    @Test
+    void statutModifieServiSansAppel() {
+        catalogue.getChambre(7L);
+        catalogue.statutModifie(7L, "occupee");
+
+        assertThat(catalogue.getChambre(7L).getStatut()).isEqualTo("occupee");
+        verify(restTemplate, times(1)).getForObject(eq(URL), eq(ChambreResponse.class));
+        verify(restTemplate, times(0)).getForObject(eq(URL_STATUT), eq(ChambreResponse.class));
+    }
+
+    @Test
+    void chargementDuCatalogueNeBloquePasGetChambre() throws Exception {
+        catalogue.getChambre(7L);
+
+        CountDownLatch listeEnCours = new CountDownLatch(1);
+        CountDownLatch libererListe = new CountDownLatch(1);
+        when(restTemplate.getForObject(contains("per_page"), eq(ChambreListeResponse.class))).thenAnswer(inv -> {
+            listeEnCours.countDown();
+            libererListe.await(5, TimeUnit.SECONDS);
+            return liste();
+        });
+
+        CompletableFuture<List<ChambreResponse.ChambreData>> chargement =
+                CompletableFuture.supplyAsync(catalogue::getToutesLesChambres);
+        assertThat(listeEnCours.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Pendant le chargement paginé du catalogue, une chambre en cache reste servie
+        CompletableFuture<ChambreResponse.ChambreData> chambre =
+                CompletableFuture.supplyAsync(() -> catalogue.getChambre(7L));
+        assertThat(chambre.get(1, TimeUnit.SECONDS).getNumero()).isEqualTo("107");
+
+        libererListe.countDown();
+        assertThat(chargement.get(5, TimeUnit.SECONDS)).hasSize(1);
+    }
+
+    private static ChambreListeResponse liste() {
+        ChambreListeResponse.Page page = new ChambreListeResponse.Page();
+        page.setCurrentPage(1);
+        page.setLastPage(1);
+        page.setData(List.of(reponse("libre").getData()));
+
+        ChambreListeResponse response = new ChambreListeResponse();
+        response.setSuccess(true);
+        response.setData(page);
+        return response;
+    }
+
+    private static ChambreResponse reponse(String statut) {
+        ChambreResponse.ChambreData data = new ChambreResponse.ChambreData();
+        data.setIdChambre(7L);
+        data.setNumero("107");
+        data.setPrixParNuit(150.0);
+        data.setStatut(statut);
+
+        ChambreResponse response = new ChambreResponse();
+        response.setSuccess(true);
+        response.setData(data);
+        return response;
+    }
+}
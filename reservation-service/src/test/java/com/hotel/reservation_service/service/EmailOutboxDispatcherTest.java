@@ -0,0 +1,254 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.config.SmtpProperties;
+import com.hotel.reservation_service.model.EmailOutbox;
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.model.StatutEmail;
+import com.hotel.reservation_service.repository.EmailOutboxRepository;
+import com.hotel.reservation_service.repository.FactureRepository;
+import com.hotel.reservation_service.service.dto.UtilisateurResponse;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * File d'envoi des factures contre un serveur SMTP local (GreenMail)
+ */
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutbox email;
+    private EmailOutboxRepository outboxRepository;
+    private JavaMailSenderImpl mailSender;
+    private EmailService emailService;
+    private EmailOutboxDispatcher dispatcher;
+    private ExpediteurSmtp expediteur;
+    private ExecutorService smtpExecutor;
+
+    @TempDir
+    Path dossierPdf;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        email = EmailOutbox.factureAEnvoyer(9L, 5L);
+        email.setId(1L);
+
+        outboxRepository = mock(EmailOutboxRepository.class);
+        when(outboxRepository.findPrets(eq(StatutEmail.EN_ATTENTE), any(), any())).thenReturn(List.of(email));
+        when(outboxRepository.findById(1L)).thenReturn(Optional.of(email));
+        when(outboxRepository.save(any(EmailOutbox.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        FactureRepository factureRepository = mock(FactureRepository.class);
+        when(factureRepository.findById(9L)).thenReturn(Optional.of(facture()));
+
+        UtilisateurResponse client = new UtilisateurResponse();
+        client.setEmail("client@example.com");
+        UtilisateurAnnuaireService annuaire = mock(UtilisateurAnnuaireService.class);
+        when(annuaire.getUtilisateur(5L)).thenReturn(Optional.of(client));
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        FacturePdfCache pdfCache = new FacturePdfCache(new PdfService(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pdfCache, "memoireMax", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(pdfCache, "dossier", dossierPdf);
+        pdfCache.init();
+        smtpExecutor = Executors.newSingleThreadExecutor();
+        expediteur = new ExpediteurSmtp(mailSender, new SmtpProperties(), new SimpleMeterRegistry(), smtpExecutor);
+        expediteur.demarrer();
+        emailService = new EmailService(mailSender, pdfCache, new GabaritsEmail(), expediteur);
+        ReflectionTestUtils.setField(emailService, "mailFrom", "contact@hotelms.com");
+        ReflectionTestUtils.setField(emailService, "mailFromName", "HotelMS");
+        ReflectionTestUtils.setField(emailService, "langue", Locale.FRENCH);
+
+        dispatcher = new EmailOutboxDispatcher(outboxRepository, factureRepository, annuaire, emailService,
+                expediteur, Runnable::run, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(dispatcher, "tailleLot", 20);
+        ReflectionTestUtils.setField(dispatcher, "maxTentatives", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitial", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dispatcher, "backoffMax", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(dispatcher, "dureeReservation", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(dispatcher, "seuilFile", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        expediteur.arreter();
+        smtpExecutor.shutdownNow();
+    }
+
+    @Test
+    void emailEnvoyeAvecLePdfPuisMarqueEnvoye() throws Exception {
+        traiterEtAttendre();
+
+        MimeMessage[] recus = greenMail.getReceivedMessages();
+        assertThat(recus).hasSize(1);
+        assertThat(recus[0].getSubject()).isEqualTo("Facture #9 - HotelMS");
+        assertThat(recus[0].getAllRecipients()[0].toString()).isEqualTo("client@example.com");
+        assertThat(corpsHtml(recus[0])).contains("🏨 HotelMS", "Réservation: #3", "300.00 MAD", "PAYEE");
+        assertThat(email.getStatut()).isEqualTo(StatutEmail.ENVOYE);
+        assertThat(email.getDateEnvoi()).isNotNull();
+    }
+
+    @Test
+    void smtpIndisponibleReplanifieAvecBackoff() throws Exception {
+        greenMail.stop();
+
+        traiterEtAttendre();
+
+        assertThat(email.getStatut()).isEqualTo(StatutEmail.EN_ATTENTE);
+        assertThat(email.getTentatives()).isEqualTo(1);
+        assertThat(email.getDerniereErreur()).isNotBlank();
+        assertThat(email.getProchainEssai()).isAfter(LocalDateTime.now().plusSeconds(25));
+    }
+
+    @Test
+    void abandonApresLeNombreMaxDeTentatives() throws Exception {
+        greenMail.stop();
+        email.setTentatives(2);
+
+        traiterEtAttendre();
+
+        assertThat(email.getStatut()).isEqualTo(StatutEmail.ECHEC);
+        assertThat(email.getTentatives()).isEqualTo(3);
+    }
+
+    @Test
+    void fileSmtpPlusLenteQueLaReservationSansDoubleEnvoi() throws Exception {
+        // 2 emails / s vers example.com, et une réservation déjà expirée à chaque passage
+        SmtpProperties.Fournisseur lent = new SmtpProperties.Fournisseur();
+        lent.setDomaines(List.of("example.com"));
+        lent.setMessagesParSeconde(2);
+        SmtpProperties proprietes = new SmtpProperties();
+        proprietes.setConnexions(1);
+        proprietes.getFournisseurs().put("lent", lent);
+        expediteur.arreter();
+        expediteur = new ExpediteurSmtp(mailSender, proprietes, new SimpleMeterRegistry(), smtpExecutor);
+        expediteur.demarrer();
+        ReflectionTestUtils.setField(emailService, "expediteurSmtp", expediteur);
+        ReflectionTestUtils.setField(dispatcher, "expediteurSmtp", expediteur);
+        ReflectionTestUtils.setField(dispatcher, "dureeReservation", Duration.ZERO);
+
+        List<EmailOutbox> emails = List.of(email, emailOutbox(2L), emailOutbox(3L), emailOutbox(4L));
+        when(outboxRepository.findPrets(eq(StatutEmail.EN_ATTENTE), any(), any())).thenAnswer(inv ->
+                emails.stream().filter(e -> e.getStatut() == StatutEmail.EN_ATTENTE).toList());
+
+        long limite = System.currentTimeMillis() + 10_000;
+        while (emails.stream().anyMatch(e -> e.getStatut() == StatutEmail.EN_ATTENTE)
+                && System.currentTimeMillis() < limite) {
+            dispatcher.traiter();
+            Thread.sleep(100);
+        }
+        // Un doublon mis en file partirait après les originaux
+        while (expediteur.getEnAttente() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(1_000);
+
+        assertThat(emails).allMatch(e -> e.getStatut() == StatutEmail.ENVOYE);
+        assertThat(greenMail.getReceivedMessages()).hasSize(4);
+    }
+
+    @Test
+    void pasDeReservationQuandLaFileSmtpDepasseLeSeuil() {
+        ReflectionTestUtils.setField(dispatcher, "seuilFile", 0);
+
+        dispatcher.traiter();
+
+        verify(outboxRepository, never()).findPrets(any(), any(), any());
+    }
+
+    @Test
+    void delaiDoubleJusquAuPlafond() {
+        assertThat(dispatcher.delaiAvantEssai(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(dispatcher.delaiAvantEssai(2)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(dispatcher.delaiAvantEssai(3)).isEqualTo(Duration.ofSeconds(120));
+        assertThat(dispatcher.delaiAvantEssai(10)).isEqualTo(Duration.ofMinutes(2));
+    }
+
+    // L'envoi se termine sur le thread SMTP : envoyé, replanifié (tentative comptée) ou abandonné
+    private void traiterEtAttendre() throws InterruptedException {
+        int tentatives = email.getTentatives();
+        dispatcher.traiter();
+        long limite = System.currentTimeMillis() + 10_000;
+        while (email.getStatut() == StatutEmail.EN_ATTENTE && email.getTentatives() == tentatives
+                && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static String corpsHtml(Part part) throws Exception {
+        if (part.isMimeType("text/html")) {
+            return (String) part.getContent();
+        }
+        if (part.getContent() instanceof Multipart multipart) {
+            for (int i = 0; i < multipart.getCount(); i++) {
+                String html = corpsHtml(multipart.getBodyPart(i));
+                if (html != null) {
+                    return html;
+                }
+            }
+        }
+        return null;
+    }
+
+    private EmailOutbox emailOutbox(Long id) {
+        EmailOutbox autre = EmailOutbox.factureAEnvoyer(9L, 5L);
+        autre.setId(id);
+        when(outboxRepository.findById(id)).thenReturn(Optional.of(autre));
+        return autre;
+    }
+
+    private static Facture facture() {
+        Reservation reservation = new Reservation();
+        reservation.setIdReservation(3L);
+        reservation.setIdClient(5L);
+        reservation.setIdChambre(7L);
+        reservation.setDateDebut(LocalDate.of(2025, 6, 1));
+        reservation.setDateFin(LocalDate.of(2025, 6, 3));
+
+        Facture facture = new Facture();
+        facture.setIdFacture(9L);
+        facture.setDateEmission(LocalDateTime.of(2025, 5, 20, 10, 0));
+        facture.setMontantTotal(new BigDecimal("300.00"));
+        facture.setEtat(EtatFacture.PAYEE);
+        facture.setReservation(reservation);
+        return facture;
+    }
+}
@@ -0,0 +1,117 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.config.SmtpProperties;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expéditeur SMTP contre un serveur local (GreenMail) : connexion réutilisée, débit par fournisseur
+ */
+class ExpediteurSmtpTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private JavaMailSenderImpl mailSender;
+    private SmtpProperties proprietes;
+    private SimpleMeterRegistry registry;
+    private ExecutorService smtpExecutor;
+    private ExpediteurSmtp expediteur;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        proprietes = new SmtpProperties();
+        proprietes.setConnexions(1);
+        registry = new SimpleMeterRegistry();
+        smtpExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        expediteur.arreter();
+        smtpExecutor.shutdownNow();
+    }
+
+    @Test
+    void emailsEnvoyesSurUneSeuleConnexion() throws Exception {
+        demarrer();
+
+        List<CompletableFuture<Void>> envois = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            envois.add(expediteur.soumettre(message("client" + i + "@example.com")));
+        }
+        CompletableFuture.allOf(envois.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(10);
+        assertThat(registry.get("mail.smtp.connexions").counter().count()).isEqualTo(1);
+        assertThat(registry.get("mail.smtp.envoi").tag("resultat", "succes").timer().count()).isEqualTo(10);
+        assertThat(registry.get("mail.smtp.file").gauge().value()).isZero();
+    }
+
+    @Test
+    void debitLimiteParFournisseur() throws Exception {
+        SmtpProperties.Fournisseur exemple = new SmtpProperties.Fournisseur();
+        exemple.setDomaines(List.of("example.com"));
+        exemple.setMessagesParSeconde(4);
+        proprietes.getFournisseurs().put("exemple", exemple);
+        demarrer();
+
+        // Rafale de 4 messages, puis un toutes les 250 ms
+        long debut = System.nanoTime();
+        List<CompletableFuture<Void>> envois = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            envois.add(expediteur.soumettre(message("client" + i + "@example.com")));
+        }
+        CompletableFuture.allOf(envois.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut)).isGreaterThanOrEqualTo(900);
+        assertThat(greenMail.getReceivedMessages()).hasSize(8);
+    }
+
+    @Test
+    void serveurInjoignableEchecRemonte() throws Exception {
+        demarrer();
+        greenMail.stop();
+
+        CompletableFuture<Void> envoi = expediteur.soumettre(message("client@example.com"));
+
+        assertThat(envoi).failsWithin(10, TimeUnit.SECONDS);
+        assertThat(registry.get("mail.smtp.connexions").counter().count()).isZero();
+    }
+
+    private void demarrer() {
+        expediteur = new ExpediteurSmtp(mailSender, proprietes, registry, smtpExecutor);
+        expediteur.demarrer();
+    }
+
+    private MimeMessage message(String destinataire) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom("contact@hotelms.com");
+        helper.setTo(destinataire);
+        helper.setSubject("Test");
+        helper.setText("Bonjour");
+        return message;
+    }
+}
@@ -0,0 +1,82 @@
+package com.hotel.reservation_service.service;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.FactureRepository;
+import com.hotel.reservation_service.repository.ReservationRepository;
+import com.hotel.reservation_service.repository.projection.ReservationLigne;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportServiceTest {
+
+    private static final LocalDate DEBUT = LocalDate.of(2025, 6, 1);
+    private static final LocalDateTime CREATION = LocalDateTime.of(2025, 5, 20, 10, 30);
+
+    private ReservationRepository reservationRepository;
+    private ExportService exportService;
+    private final AtomicBoolean fluxFerme = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = mock(ReservationRepository.class);
+        when(reservationRepository.streamLignes(any(), any(), any(), any(), any())).thenAnswer(inv -> Stream.of(
+                new ReservationLigne(1L, 5L, 7L, DEBUT, DEBUT.plusDays(2), CREATION, CREATION,
+                        StatutReservation.CONFIRMEE, 11L, CREATION, new BigDecimal("300.00"), EtatFacture.EMISE),
+                new ReservationLigne(2L, 6L, 8L, DEBUT, DEBUT.plusDays(1), CREATION, CREATION,
+                        StatutReservation.ANNULEE, null, null, null, null))
+                .onClose(() -> fluxFerme.set(true)));
+
+        exportService = new ExportService(reservationRepository, mock(FactureRepository.class),
+                // Même réglage que l'ObjectMapper de Spring Boot : dates ISO
+                Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+    }
+
+    @Test
+    void exportCsvUneLigneParReservation() throws Exception {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        exportService.exporterReservations(ExportService.Format.CSV, null, null, null, null, null, sortie);
+
+        String[] lignes = sortie.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lignes).hasSize(3);
+        assertThat(lignes[1]).isEqualTo("1,5,7,2025-06-01,2025-06-03,CONFIRMEE,2025-05-20T10:30,"
+                + "2025-05-20T10:30,11,2025-05-20T10:30,300.00,EMISE");
+        assertThat(lignes[2]).isEqualTo("2,6,8,2025-06-01,2025-06-02,ANNULEE,2025-05-20T10:30,2025-05-20T10:30,,,,");
+        assertThat(fluxFerme).isTrue();
+    }
+
+    @Test
+    void exportNdjsonUnObjetJsonParLigne() throws Exception {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        exportService.exporterReservations(ExportService.Format.NDJSON, null, null, null, null, null, sortie);
+
+        String[] lignes = sortie.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lignes).hasSize(2);
+        assertThat(lignes[0]).startsWith("{\"idReservation\":1,").contains("\"dateDebut\":\"2025-06-01\"")
+                .contains("\"facture\":{\"idFacture\":11");
+        assertThat(lignes[1]).contains("\"facture\":null");
+        assertThat(fluxFerme).isTrue();
+    }
+
+    @Test
+    void formatInconnuRefuse() {
+        assertThat(ExportService.Format.depuis("CSV")).isEqualTo(ExportService.Format.CSV);
+        assertThatThrownBy(() -> ExportService.Format.depuis("xml")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
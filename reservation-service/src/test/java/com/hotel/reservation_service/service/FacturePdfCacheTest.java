@@ -0,0 +1,125 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FacturePdfCacheTest {
+
+    @TempDir
+    Path dossier;
+
+    private PdfService pdfService;
+    private FacturePdfCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pdfService = mock(PdfService.class);
+        when(pdfService.generateFacturePdf(any(Facture.class)))
+                .thenAnswer(inv -> ("%PDF " + ((Facture) inv.getArgument(0)).getEtat())
+                        .getBytes(StandardCharsets.UTF_8));
+        cache = nouveauCache(pdfService);
+    }
+
+    @Test
+    void pdfGenereUneSeuleFoisPuisServiDepuisLaMemoire() throws Exception {
+        Facture facture = facture(EtatFacture.EMISE);
+
+        cache.getPdf(facture);
+        byte[] pdf = cache.getPdf(facture);
+
+        assertThat(new String(pdf, StandardCharsets.UTF_8)).isEqualTo("%PDF EMISE");
+        verify(pdfService, times(1)).generateFacturePdf(any(Facture.class));
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pdfReluDepuisLeDisqueApresRedemarrage() throws Exception {
+        cache.getPdf(facture(EtatFacture.EMISE));
+
+        PdfService autrePdfService = mock(PdfService.class);
+        FacturePdfCache apresRedemarrage = nouveauCache(autrePdfService);
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        apresRedemarrage.ecrire(facture(EtatFacture.EMISE), sortie);
+
+        assertThat(sortie.toString(StandardCharsets.UTF_8)).isEqualTo("%PDF EMISE");
+        verify(autrePdfService, never()).generateFacturePdf(any(Facture.class));
+    }
+
+    @Test
+    void changementEtatDonneUneNouvelleVersionEtInvaliderNettoieLeDisque() throws Exception {
+        Facture facture = facture(EtatFacture.EMISE);
+        cache.getPdf(facture);
+
+        facture.setEtat(EtatFacture.PAYEE);
+        assertThat(new String(cache.getPdf(facture), StandardCharsets.UTF_8)).isEqualTo("%PDF PAYEE");
+        verify(pdfService, times(2)).generateFacturePdf(any(Facture.class));
+
+        cache.invalider(9L);
+        try (var fichiers = Files.list(dossier)) {
+            assertThat(fichiers).isEmpty();
+        }
+    }
+
+    @Test
+    void pdfAbsentRenduDirectementDansLaReponseEtCopieSurDisque() throws Exception {
+        FacturePdfCache reel = nouveauCache(new PdfService());
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+
+        reel.ecrire(facture(EtatFacture.PAYEE), sortie);
+
+        byte[] pdf = sortie.toByteArray();
+        assertThat(new String(pdf, 0, 5, StandardCharsets.US_ASCII)).isEqualTo("%PDF-");
+        try (var fichiers = Files.list(dossier)) {
+            Path fichier = fichiers.filter(f -> f.toString().endsWith(".pdf")).findFirst().orElseThrow();
+            assertThat(Files.readAllBytes(fichier)).isEqualTo(pdf);
+        }
+        assertThat(reel.stats().loadCount()).isZero();
+    }
+
+    private FacturePdfCache nouveauCache(PdfService service) throws Exception {
+        FacturePdfCache nouveau = new FacturePdfCache(service, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(nouveau, "memoireMax", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(nouveau, "dossier", dossier);
+        nouveau.init();
+        return nouveau;
+    }
+
+    private static Facture facture(EtatFacture etat) {
+        Reservation reservation = new Reservation();
+        reservation.setIdReservation(3L);
+        reservation.setIdChambre(7L);
+        reservation.setDateDebut(LocalDate.of(2025, 6, 1));
+        reservation.setDateFin(LocalDate.of(2025, 6, 3));
+
+        Facture facture = new Facture();
+        facture.setIdFacture(9L);
+        facture.setDateEmission(LocalDateTime.of(2025, 5, 20, 10, 0));
+        facture.setMontantTotal(new BigDecimal("300.00"));
+        facture.setEtat(etat);
+        facture.setReservation(reservation);
+        return facture;
+    }
+}
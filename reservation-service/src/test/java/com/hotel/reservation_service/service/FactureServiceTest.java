@@ -0,0 +1,89 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.model.EmailOutbox;
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.EmailOutboxRepository;
+import com.hotel.reservation_service.repository.FactureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Passage d'une facture à PAYEE : appelé de nouveau par le service paiements tant qu'il n'a pas de réponse
+ */
+class FactureServiceTest {
+
+    private Facture facture;
+    private EmailOutboxRepository emailOutboxRepository;
+    private FactureService factureService;
+
+    @BeforeEach
+    void setUp() {
+        Reservation reservation = new Reservation();
+        reservation.setIdReservation(3L);
+        reservation.setIdClient(5L);
+        reservation.setIdChambre(7L);
+        reservation.setDateDebut(LocalDate.of(2025, 6, 1));
+        reservation.setDateFin(LocalDate.of(2025, 6, 3));
+
+        facture = new Facture();
+        facture.setIdFacture(9L);
+        facture.setMontantTotal(new BigDecimal("300.00"));
+        facture.setEtat(EtatFacture.EMISE);
+        facture.setReservation(reservation);
+
+        FactureRepository factureRepository = mock(FactureRepository.class);
+        when(factureRepository.findById(9L)).thenReturn(Optional.of(facture));
+        emailOutboxRepository = mock(EmailOutboxRepository.class);
+
+        factureService = new FactureService(factureRepository, emailOutboxRepository, mock(FacturePdfCache.class));
+    }
+
+    @Test
+    void facturePayeeEtEmailMisEnFile() {
+        factureService.marquerPayee(9L);
+
+        assertThat(facture.getEtat()).isEqualTo(EtatFacture.PAYEE);
+        assertThat(facture.getReservation().getStatut()).isEqualTo(StatutReservation.CONFIRMEE);
+        verify(emailOutboxRepository).save(any(EmailOutbox.class));
+    }
+
+    @Test
+    void reservationAnnuleeOuTermineeResteInchangee() {
+        facture.getReservation().setStatut(StatutReservation.ANNULEE);
+
+        factureService.marquerPayee(9L);
+
+        assertThat(facture.getEtat()).isEqualTo(EtatFacture.PAYEE);
+        assertThat(facture.getReservation().getStatut()).isEqualTo(StatutReservation.ANNULEE);
+        verify(emailOutboxRepository).save(any(EmailOutbox.class));
+
+        facture.setEtat(EtatFacture.EMISE);
+        facture.getReservation().setStatut(StatutReservation.TERMINEE);
+
+        factureService.marquerPayee(9L);
+
+        assertThat(facture.getReservation().getStatut()).isEqualTo(StatutReservation.TERMINEE);
+    }
+
+    @Test
+    void secondAppelSansNouvelEmail() {
+        factureService.marquerPayee(9L);
+        factureService.marquerPayee(9L);
+
+        verify(emailOutboxRepository, times(1)).save(any(EmailOutbox.class));
+    }
+}
@@ -0,0 +1,58 @@
+package com.hotel.reservation_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gabarits d'email : variante par langue, échappement HTML, tampon réutilisé
+ */
+class GabaritsEmailTest {
+
+    private final GabaritsEmail gabaritsEmail = new GabaritsEmail();
+
+    @Test
+    void gabaritFrancaisOuAnglaisSelonLaLangue() {
+        String francais = rendre(Locale.FRENCH, modele("3"));
+        String anglais = rendre(Locale.ENGLISH, modele("3"));
+
+        assertThat(francais).contains("Bonjour,", "🏨 HotelMS", "Réservation: #3", "01 juin 2025");
+        assertThat(anglais).contains("Hello,", "🏨 HotelMS").doesNotContain("Bonjour,");
+    }
+
+    @Test
+    void valeursEchappees() {
+        String html = rendre(Locale.FRENCH, modele("<script>"));
+
+        assertThat(html).contains("&lt;script&gt;").doesNotContain("<script>");
+    }
+
+    @Test
+    void rendusSuccessifsIndependants() {
+        String premier = rendre(Locale.FRENCH, modele("111"));
+        String second = rendre(Locale.FRENCH, modele("2"));
+
+        assertThat(premier).contains("#111");
+        assertThat(second).contains("#2").doesNotContain("#111");
+        assertThat(second).endsWith(premier.substring(premier.length() - 20));
+    }
+
+    private String rendre(Locale langue, Map<String, Object> modele) {
+        return new String(gabaritsEmail.rendre(GabaritsEmail.FACTURE, langue, modele), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Object> modele(String idReservation) {
+        return Map.of(
+                "idReservation", idReservation,
+                "idChambre", "7",
+                "du", "01 juin 2025",
+                "au", "03 juin 2025",
+                "montant", "300.00",
+                "etat", "PAYEE",
+                "payee", true);
+    }
+}
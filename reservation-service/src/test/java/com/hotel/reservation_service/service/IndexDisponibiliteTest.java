@@ -0,0 +1,69 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.model.StatutReservation;
+import com.hotel.reservation_service.repository.ReservationRepository;
+import com.hotel.reservation_service.repository.projection.CreneauReservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndexDisponibiliteTest {
+
+    private final LocalDate j = LocalDate.now().plusDays(10);
+
+    private IndexDisponibilite index;
+
+    @BeforeEach
+    void setUp() {
+        ReservationRepository reservationRepository = mock(ReservationRepository.class);
+        when(reservationRepository.findCreneaux(eq(StatutReservation.CONFIRMEE), any(LocalDate.class)))
+                .thenReturn(List.of(
+                        new CreneauReservation(1L, 7L, j, j.plusDays(3)),
+                        // Long séjour qui englobe le suivant : teste le maximum des fins
+                        new CreneauReservation(2L, 8L, j, j.plusDays(20)),
+                        new CreneauReservation(3L, 8L, j.plusDays(2), j.plusDays(4))));
+
+        index = new IndexDisponibilite(reservationRepository);
+        index.construire();
+    }
+
+    @Test
+    void periodeQuiChevaucheEstOccupee() {
+        assertThat(index.estLibre(7L, j.plusDays(2), j.plusDays(5))).isFalse();
+        assertThat(index.estLibre(7L, j.minusDays(2), j.plusDays(1))).isFalse();
+        assertThat(index.estLibre(8L, j.plusDays(10), j.plusDays(11))).isFalse();
+    }
+
+    @Test
+    void departEtArriveeLeMemeJourNeSeChevauchentPas() {
+        assertThat(index.estLibre(7L, j.plusDays(3), j.plusDays(5))).isTrue();
+        assertThat(index.estLibre(7L, j.minusDays(3), j)).isTrue();
+        assertThat(index.estLibre(99L, j, j.plusDays(1))).isTrue();
+    }
+
+    @Test
+    void indexSuitLesCreationsEtAnnulations() {
+        Reservation reservation = new Reservation();
+        reservation.setIdReservation(4L);
+        reservation.setIdChambre(7L);
+        reservation.setDateDebut(j.plusDays(5));
+        reservation.setDateFin(j.plusDays(6));
+        reservation.setStatut(StatutReservation.CONFIRMEE);
+
+        index.enregistrer(reservation);
+        assertThat(index.estLibre(7L, j.plusDays(5), j.plusDays(6))).isFalse();
+
+        index.retirer(7L, 4L);
+        assertThat(index.estLibre(7L, j.plusDays(5), j.plusDays(6))).isTrue();
+        assertThat(index.estLibre(7L, j, j.plusDays(1))).isFalse();
+    }
+}
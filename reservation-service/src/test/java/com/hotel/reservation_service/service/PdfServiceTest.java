@@ -0,0 +1,67 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.model.EtatFacture;
+import com.hotel.reservation_service.model.Facture;
+import com.hotel.reservation_service.model.Reservation;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Le gabarit est préparé une fois ; chaque facture n'y ajoute que ses champs
+ */
+class PdfServiceTest {
+
+    private final PdfService pdfService = new PdfService();
+
+    @Test
+    void champsDeLaFactureRemplisDansLeGabarit() throws Exception {
+        String texte = texte(pdfService.generateFacturePdf(facture(9L, "300.00", EtatFacture.PAYEE)));
+
+        assertThat(texte).contains("FACTURE", "INFORMATIONS FACTURE", "CONDITIONS GÉNÉRALES",
+                "N° Facture: 9", "Date d'émission: 20 mai 2025", "État: PAYEE",
+                "Réservation: #3", "Chambre: #7", "Durée: 2 nuit(s)",
+                "2025-06-01 au 2025-06-03", "300.00 MAD");
+    }
+
+    @Test
+    void gabaritReutiliseSansGarderLesChampsPrecedents() throws Exception {
+        pdfService.generateFacturePdf(facture(9L, "300.00", EtatFacture.PAYEE));
+
+        String texte = texte(pdfService.generateFacturePdf(facture(10L, "1250.50", EtatFacture.EMISE)));
+
+        assertThat(texte).contains("N° Facture: 10", "État: EMISE", "1250.50 MAD")
+                .doesNotContain("N° Facture: 9", "300.00 MAD");
+    }
+
+    private static String texte(byte[] pdf) throws Exception {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            assertThat(document.getNumberOfPages()).isEqualTo(1);
+            return PdfTextExtractor.getTextFromPage(document.getFirstPage());
+        }
+    }
+
+    private static Facture facture(Long id, String montant, EtatFacture etat) {
+        Reservation reservation = new Reservation();
+        reservation.setIdReservation(3L);
+        reservation.setIdChambre(7L);
+        reservation.setDateDebut(LocalDate.of(2025, 6, 1));
+        reservation.setDateFin(LocalDate.of(2025, 6, 3));
+
+        Facture facture = new Facture();
+        facture.setIdFacture(id);
+        facture.setDateEmission(LocalDateTime.of(2025, 5, 20, 10, 0));
+        facture.setMontantTotal(new BigDecimal(montant));
+        facture.setEtat(etat);
+        facture.setReservation(reservation);
+        return facture;
+    }
+}
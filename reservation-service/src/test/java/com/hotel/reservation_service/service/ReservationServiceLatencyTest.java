@@ -0,0 +1,121 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.controller.MockChambreController;
+import com.hotel.reservation_service.controller.MockUtilisateurController;
+import com.hotel.reservation_service.controller.dto.ReservationRequest;
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.repository.FactureRepository;
+import com.hotel.reservation_service.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockMvcClientHttpRequestFactory;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie que les validations utilisateur + chambre sont faites en parallèle :
+ * la latence de createReservation doit suivre l'appel le plus lent, pas la somme.
+ */
+class ReservationServiceLatencyTest {
+
+    private static final long LATENCE_MS = 400;
+
+    private RestTemplate restTemplate;
+    private ReservationRepository reservationRepository;
+    private ThreadPoolTaskExecutor validationExecutor;
+
+    @BeforeEach
+    void setUp() {
+        MockChambreController mockChambre = new MockChambreController();
+        mockChambre.setLatenceMs(LATENCE_MS);
+        MockUtilisateurController mockUtilisateur = new MockUtilisateurController();
+        mockUtilisateur.setLatenceMs(LATENCE_MS);
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(mockChambre, mockUtilisateur).build();
+        restTemplate = new RestTemplate(new MockMvcClientHttpRequestFactory(mockMvc));
+
+        reservationRepository = mock(ReservationRepository.class);
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        validationExecutor = new ThreadPoolTaskExecutor();
+        validationExecutor.setCorePoolSize(4);
+        validationExecutor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        validationExecutor.shutdown();
+    }
+
+    @Test
+    void createReservationAttendLAppelLePlusLentEtPasLaSomme() {
+        // Référence : exécution dans le thread appelant = appels séquentiels
+        long sequentiel = mesurer(creerService(Runnable::run));
+        long parallele = mesurer(creerService(validationExecutor));
+
+        assertThat(sequentiel).isGreaterThanOrEqualTo(2 * LATENCE_MS);
+        assertThat(parallele).isGreaterThanOrEqualTo(LATENCE_MS);
+        assertThat(parallele).isLessThan(LATENCE_MS + LATENCE_MS / 2);
+    }
+
+    @Test
+    void createReservationUtiliseLesDonneesDeLaChambre() {
+        Reservation reservation = creerService(validationExecutor).createReservation(requete());
+
+        assertThat(reservation.getFacture()).isNotNull();
+        // 150 MAD × 3 nuits (prix du mock chambre)
+        assertThat(reservation.getFacture().getMontantTotal().doubleValue()).isEqualTo(450.0);
+    }
+
+    private ReservationService creerService(Executor executor) {
+        ChambreCatalogueService catalogue = new ChambreCatalogueService(restTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(catalogue, "chambresServiceUrl", "http://localhost/mock");
+        ReflectionTestUtils.setField(catalogue, "maxSize", 100L);
+        ReflectionTestUtils.setField(catalogue, "ttl", Duration.ofMinutes(10));
+        // Pas de cache du statut : chaque réservation interroge le mock chambres
+        ReflectionTestUtils.setField(catalogue, "statutTtl", Duration.ZERO);
+        catalogue.init();
+
+        UtilisateurAnnuaireService annuaire = new UtilisateurAnnuaireService(restTemplate, new SimpleMeterRegistry(), executor);
+        ReflectionTestUtils.setField(annuaire, "utilisateursServiceUrl", "http://localhost/mock");
+        ReflectionTestUtils.setField(annuaire, "maxSize", 100L);
+        // Pas de cache utilisateur : chaque réservation interroge le mock utilisateurs
+        ReflectionTestUtils.setField(annuaire, "positiveTtl", Duration.ZERO);
+        ReflectionTestUtils.setField(annuaire, "negativeTtl", Duration.ZERO);
+        annuaire.init();
+
+        ReservationService service = new ReservationService(
+                reservationRepository, mock(FactureRepository.class), restTemplate, executor, catalogue, annuaire,
+                mock(DisponibiliteService.class), mock(IndexDisponibilite.class),
+                mock(FacturePdfCache.class));
+        ReflectionTestUtils.setField(service, "chambresServiceUrl", "http://localhost/mock");
+        ReflectionTestUtils.setField(service, "validationTimeoutMs", 5_000L);
+        ReflectionTestUtils.setField(service, "validationDeadlineMs", 5_000L);
+        return service;
+    }
+
+    private long mesurer(ReservationService service) {
+        long debut = System.nanoTime();
+        service.createReservation(requete());
+        return (System.nanoTime() - debut) / 1_000_000;
+    }
+
+    private ReservationRequest requete() {
+        LocalDate debut = LocalDate.now().plusDays(1);
+        return new ReservationRequest(1L, 2L, debut, debut.plusDays(3), null);
+    }
+}
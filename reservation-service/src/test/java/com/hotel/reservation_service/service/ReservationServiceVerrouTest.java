@@ -0,0 +1,110 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.controller.dto.ReservationRequest;
+import com.hotel.reservation_service.model.Reservation;
+import com.hotel.reservation_service.repository.FactureRepository;
+import com.hotel.reservation_service.repository.ReservationRepository;
+import com.hotel.reservation_service.service.dto.ChambreResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Le verrou de la chambre (reserverCreneau) n'est gardé que jusqu'au commit :
+ * le service chambres n'est appelé qu'après, jamais pendant la transaction.
+ */
+class ReservationServiceVerrouTest {
+
+    private RestTemplate restTemplate;
+    private DisponibiliteService disponibiliteService;
+    private ChambreCatalogueService catalogue;
+    private ReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        disponibiliteService = mock(DisponibiliteService.class);
+
+        ChambreResponse.ChambreData chambre = new ChambreResponse.ChambreData();
+        chambre.setIdChambre(2L);
+        chambre.setNumero("102");
+        chambre.setPrixParNuit(150.0);
+        chambre.setStatut("libre");
+        catalogue = mock(ChambreCatalogueService.class);
+        when(catalogue.getChambre(2L)).thenReturn(chambre);
+
+        UtilisateurAnnuaireService annuaire = mock(UtilisateurAnnuaireService.class);
+        when(annuaire.existe(eq(1L), any(Duration.class))).thenReturn(true);
+
+        ReservationRepository reservationRepository = mock(ReservationRepository.class);
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service = new ReservationService(reservationRepository, mock(FactureRepository.class), restTemplate,
+                Runnable::run, catalogue, annuaire, disponibiliteService, mock(IndexDisponibilite.class),
+                mock(FacturePdfCache.class));
+        ReflectionTestUtils.setField(service, "chambresServiceUrl", "http://chambres");
+        ReflectionTestUtils.setField(service, "validationTimeoutMs", 5_000L);
+        ReflectionTestUtils.setField(service, "validationDeadlineMs", 5_000L);
+
+        // Transaction simulée : les synchronisations sont déclenchées à la main
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void statutChambreMisAJourApresLeCommitSeulement() {
+        service.createReservation(requete());
+
+        // Transaction encore ouverte (verrou tenu) : aucun appel réseau
+        verify(disponibiliteService).reserverCreneau(eq(2L), any(), any(), eq(null));
+        verify(restTemplate, never()).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class));
+        verify(catalogue, never()).statutModifie(2L, "occupee");
+
+        List<TransactionSynchronization> synchronisations = TransactionSynchronizationManager.getSynchronizations();
+        synchronisations.forEach(TransactionSynchronization::afterCommit);
+
+        var ordre = inOrder(disponibiliteService, restTemplate, catalogue);
+        ordre.verify(disponibiliteService).reserverCreneau(eq(2L), any(), any(), eq(null));
+        ordre.verify(restTemplate).exchange(eq("http://chambres/api/chambres/2/statut"), eq(HttpMethod.PUT),
+                any(HttpEntity.class), eq(String.class));
+        ordre.verify(catalogue).statutModifie(2L, "occupee");
+    }
+
+    @Test
+    void aucunAppelSiLaTransactionEstAnnulee() {
+        service.createReservation(requete());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(restTemplate, never()).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class));
+    }
+
+    private ReservationRequest requete() {
+        LocalDate debut = LocalDate.now().plusDays(1);
+        return new ReservationRequest(1L, 2L, debut, debut.plusDays(3), null);
+    }
+}
@@ -0,0 +1,158 @@
+package com.hotel.reservation_service.service;
+
+import com.hotel.reservation_service.service.dto.UtilisateurResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UtilisateurAnnuaireServiceTest {
+
+    private static final String URL_CONNU = "http://users/api/users/1";
+    private static final String URL_INCONNU = "http://users/api/users/2";
+
+    private RestTemplate restTemplate;
+    private ExecutorService annuaireExecutor;
+    private UtilisateurAnnuaireService annuaire;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+
+        UtilisateurResponse utilisateur = new UtilisateurResponse();
+        utilisateur.setId(1L);
+        utilisateur.setEmail("client@hotel.com");
+        when(restTemplate.getForObject(eq(URL_CONNU), eq(UtilisateurResponse.class))).thenReturn(utilisateur);
+        when(restTemplate.getForObject(eq(URL_INCONNU), eq(UtilisateurResponse.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        annuaireExecutor = Executors.newFixedThreadPool(2);
+        annuaire = new UtilisateurAnnuaireService(restTemplate, new SimpleMeterRegistry(), annuaireExecutor);
+        ReflectionTestUtils.setField(annuaire, "utilisateursServiceUrl", "http://users");
+        ReflectionTestUtils.setField(annuaire, "maxSize", 100L);
+        ReflectionTestUtils.setField(annuaire, "positiveTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(annuaire, "negativeTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(annuaire, "attenteMax", Duration.ofSeconds(5));
+        annuaire.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        annuaireExecutor.shutdownNow();
+    }
+
+    @Test
+    void utilisateurTrouveEtIntrouvableSontMisEnCache() {
+        assertThat(annuaire.existe(1L)).isTrue();
+        assertThat(annuaire.existe(1L)).isTrue();
+        assertThat(annuaire.existe(2L)).isFalse();
+        assertThat(annuaire.existe(2L)).isFalse();
+
+        verify(restTemplate, times(1)).getForObject(eq(URL_CONNU), eq(UtilisateurResponse.class));
+        verify(restTemplate, times(1)).getForObject(eq(URL_INCONNU), eq(UtilisateurResponse.class));
+    }
+
+    @Test
+    void invaliderForceUnNouvelAppel() {
+        annuaire.getUtilisateur(1L);
+        annuaire.invalider(1L);
+        annuaire.getUtilisateur(1L);
+
+        verify(restTemplate, times(2)).getForObject(eq(URL_CONNU), eq(UtilisateurResponse.class));
+    }
+
+    @Test
+    void requetesSimultaneesPartagentUnSeulAppel() throws Exception {
+        CountDownLatch appelEnCours = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+        UtilisateurResponse utilisateur = new UtilisateurResponse();
+        when(restTemplate.getForObject(eq(URL_CONNU), eq(UtilisateurResponse.class))).thenAnswer(inv -> {
+            appelEnCours.countDown();
+            liberer.await();
+            return utilisateur;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> resultats = new ArrayList<>();
+            resultats.add(pool.submit(() -> annuaire.existe(1L)));
+            appelEnCours.await();
+            for (int i = 0; i < 7; i++) {
+                resultats.add(pool.submit(() -> annuaire.existe(1L)));
+            }
+            Thread.sleep(100);
+            liberer.countDown();
+
+            for (Future<Boolean> resultat : resultats) {
+                assertThat(resultat.get()).isTrue();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(restTemplate, times(1)).getForObject(eq(URL_CONNU), eq(UtilisateurResponse.class));
+    }
+
+    @Test
+    void unAppelantQuiAbandonneNAnnulePasLeChargementDesAutres() throws Exception {
+        CountDownLatch liberer = new CountDownLatch(1);
+        AtomicReference<String> threadChargement = new AtomicReference<>();
+        UtilisateurResponse utilisateur = new UtilisateurResponse();
+        when(restTemplate.getForObject(eq(URL_CONNU), eq(UtilisateurResponse.class))).thenAnswer(inv -> {
+            threadChargement.set(Thread.currentThread().getName());
+            liberer.await();
+            return utilisateur;
+        });
+
+        // Le premier appelant n'attend que 50 ms (délai de sa réservation dépassé)
+        assertThatThrownBy(() -> annuaire.getUtilisateur(1L, Duration.ofMillis(50)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pas de réponse");
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> suivant = pool.submit(() -> annuaire.existe(1L, Duration.ofSeconds(5)));
+            Thread.sleep(50);
+            liberer.countDown();
+
+            assertThat(suivant.get()).isTrue();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(threadChargement.get()).isNotEqualTo(Thread.currentThread().getName());
+        verify(restTemplate, times(1)).getForObject(eq(URL_CONNU), eq(UtilisateurResponse.class));
+    }
+
+    @Test
+    void unEchecNEstPasMisEnCache() {
+        when(restTemplate.getForObject(eq(URL_CONNU), eq(UtilisateurResponse.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"))
+                .thenReturn(new UtilisateurResponse());
+
+        assertThatThrownBy(() -> annuaire.getUtilisateur(1L)).isInstanceOf(ResourceAccessException.class);
+        assertThat(annuaire.existe(1L)).isTrue();
+    }
+}
@@ -2,6 +2,9 @@ package com.hotel.controllers;
 
 import com.hotel.entities.Utilisateur;
 import com.hotel.entities.Role;
+import com.hotel.services.JetonRafraichissementService;
+import com.hotel.services.ReservationCacheNotifier;
+import com.hotel.services.StatistiquesUtilisateursService;
 import com.hotel.services.UtilisateurService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,10 +23,19 @@ public class AdminController {
 
     private final UtilisateurService utilisateurService;
     private final PasswordEncoder passwordEncoder;
-
-    public AdminController(UtilisateurService utilisateurService, PasswordEncoder passwordEncoder) {
+    private final ReservationCacheNotifier reservationCacheNotifier;
+    private final JetonRafraichissementService jetonRafraichissementService;
+    private final StatistiquesUtilisateursService statistiquesUtilisateurs;
+
+    public AdminController(UtilisateurService utilisateurService, PasswordEncoder passwordEncoder,
+                           ReservationCacheNotifier reservationCacheNotifier,
+                           JetonRafraichissementService jetonRafraichissementService,
+                           StatistiquesUtilisateursService statistiquesUtilisateurs) {
         this.utilisateurService = utilisateurService;
         this.passwordEncoder = passwordEncoder;
+        this.reservationCacheNotifier = reservationCacheNotifier;
+        this.jetonRafraichissementService = jetonRafraichissementService;
+        this.statistiquesUtilisateurs = statistiquesUtilisateurs;
     }
 
     // GET tous les utilisateurs
@@ -73,6 +85,9 @@ public class AdminController {
             }
 
             Utilisateur userToUpdate = existing.get();
+            String ancienEmail = userToUpdate.getEmail();
+            Role ancienRole = userToUpdate.getRole();
+            String ancienHash = userToUpdate.getMotDePasse();
 
             // Vérifier si l'email est déjà utilisé par un autre utilisateur
             if (!userToUpdate.getEmail().equals(utilisateur.getEmail())) {
@@ -97,6 +112,14 @@ public class AdminController {
             }
 
             Utilisateur updated = utilisateurService.save(userToUpdate);
+
+            // Email, rôle ou mot de passe changé : les jetons émis avant portent l'ancien sujet ou l'ancien rôle
+            if (!ancienEmail.equals(updated.getEmail()) || ancienRole != updated.getRole()
+                    || !ancienHash.equals(updated.getMotDePasse())) {
+                jetonRafraichissementService.fermerSessions(updated.getId(), ancienEmail);
+            }
+            reservationCacheNotifier.invaliderUtilisateur(id);
+
             return ResponseEntity.ok(updated);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -124,6 +147,14 @@ public class AdminController {
 
             Utilisateur updated = utilisateurService.save(user);
 
+            // Compte désactivé : ses connexions en cours sont fermées tout de suite
+            if (!request.isActif()) {
+                jetonRafraichissementService.fermerSessions(updated.getId(), updated.getEmail());
+            }
+
+            // Le service réservations garde les utilisateurs en cache
+            reservationCacheNotifier.invaliderUtilisateur(id);
+
             return ResponseEntity.ok(updated);
 
         } catch (Exception e) {
@@ -153,6 +184,8 @@ public class AdminController {
             }
 
             utilisateurService.deleteById(id);
+            jetonRafraichissementService.fermerSessions(id, user.get().getEmail());
+            reservationCacheNotifier.invaliderUtilisateur(id);
 
             Map<String, String> response = new HashMap<>();
             response.put("message", "Utilisateur supprimé avec succès");
@@ -168,29 +201,16 @@ public class AdminController {
     @GetMapping("/stats")
     public ResponseEntity<?> getAdminStats() {
         try {
-            List<Utilisateur> allUsers = utilisateurService.findAll();
-
-            long totalUsers = allUsers.size();
-            long clients = allUsers.stream()
-                    .filter(u -> u.getRole() == Role.CLIENT)
-                    .count();
-            long admins = allUsers.stream()
-                    .filter(u -> u.getRole() == Role.ADMIN)
-                    .count();
-            long receptionnistes = allUsers.stream()
-                    .filter(u -> u.getRole() == Role.RECEPTIONNISTE)
-                    .count();
-            long activeUsers = allUsers.stream()
-                    .filter(Utilisateur::isActif)
-                    .count();
+            // Comptages faits par la base et gardés quelques secondes (indépendant du nombre d'utilisateurs)
+            StatistiquesUtilisateursService.Statistiques s = statistiquesUtilisateurs.statistiques();
 
             Map<String, Object> stats = new HashMap<>();
-            stats.put("totalUsers", totalUsers);
-            stats.put("clients", clients);
-            stats.put("admins", admins);
-            stats.put("receptionnistes", receptionnistes);
-            stats.put("activeUsers", activeUsers);
-            stats.put("inactiveUsers", totalUsers - activeUsers);
+            stats.put("totalUsers", s.total());
+            stats.put("clients", s.clients());
+            stats.put("admins", s.admins());
+            stats.put("receptionnistes", s.receptionnistes());
+            stats.put("activeUsers", s.actifs());
+            stats.put("inactiveUsers", s.inactifs());
 
             return ResponseEntity.ok(stats);
 
@@ -2,9 +2,18 @@ package com.hotel.controllers;
 
 import com.hotel.entities.Role;
 import com.hotel.entities.Utilisateur;
+import com.hotel.security.AdresseClient;
+import com.hotel.security.HachageMotDePasse;
+import com.hotel.security.HachageSatureException;
 import com.hotel.security.JwtUtil;
+import com.hotel.security.LimiteurConnexions;
+import com.hotel.services.JetonRafraichissementService;
+import com.hotel.services.ReservationCacheNotifier;
 import com.hotel.services.UtilisateurService;
 import com.hotel.services.EmailService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,6 +27,7 @@ import java.util.HashMap;
 import java.util.Optional;
 import java.util.Random;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -27,13 +37,26 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final EmailService emailService;
+    private final HachageMotDePasse hachageMotDePasse;
+    private final LimiteurConnexions limiteurConnexions;
+    private final JetonRafraichissementService jetonRafraichissementService;
+    private final AdresseClient adresseClient;
+    private final ReservationCacheNotifier reservationCacheNotifier;
 
     public AuthController(UtilisateurService service, PasswordEncoder passwordEncoder,
-                          JwtUtil jwtUtil, EmailService emailService) {
+                          JwtUtil jwtUtil, EmailService emailService,
+                          HachageMotDePasse hachageMotDePasse, LimiteurConnexions limiteurConnexions,
+                          JetonRafraichissementService jetonRafraichissementService,
+                          AdresseClient adresseClient, ReservationCacheNotifier reservationCacheNotifier) {
         this.service = service;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
         this.emailService = emailService;
+        this.hachageMotDePasse = hachageMotDePasse;
+        this.limiteurConnexions = limiteurConnexions;
+        this.jetonRafraichissementService = jetonRafraichissementService;
+        this.adresseClient = adresseClient;
+        this.reservationCacheNotifier = reservationCacheNotifier;
     }
 
     @PostMapping("/register")
@@ -46,14 +69,7 @@ public class AuthController {
             utilisateur.setMotDePasse(passwordEncoder.encode(utilisateur.getMotDePasse()));
             Utilisateur saved = service.register(utilisateur);
 
-            // Générer le token JWT
-            String token = jwtUtil.generateToken(saved.getEmail(), saved.getRole().name());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("user", mapUserToResponse(saved));
-            response.put("token", token);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(reponseConnexion(saved, jetonRafraichissementService.emettre(saved)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -93,6 +109,7 @@ public class AuthController {
             }
 
             Utilisateur userToUpdate = existing.get();
+            String ancienHash = userToUpdate.getMotDePasse();
 
             // Mettre à jour les champs autorisés
             if (updates.containsKey("nom")) {
@@ -116,6 +133,12 @@ public class AuthController {
             }
 
             Utilisateur updated = service.save(userToUpdate);
+
+            // Email ou mot de passe changé : les connexions ouvertes avec l'ancien sont fermées
+            if (!email.equals(updated.getEmail()) || !ancienHash.equals(updated.getMotDePasse())) {
+                jetonRafraichissementService.fermerSessions(updated.getId(), email);
+            }
+            reservationCacheNotifier.invaliderUtilisateur(updated.getId());
             return ResponseEntity.ok(mapUserToResponse(updated));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erreur modification profil: " + e.getMessage());
@@ -153,25 +176,103 @@ public class AuthController {
         }
     }
 
+    /**
+     * Connexion : tentatives limitées par IP et par email (429), puis BCrypt sur le pool de hachage.
+     * Le thread Tomcat est rendu pendant le calcul ; pool plein : 429 sans attendre.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Utilisateur loginReq) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Utilisateur loginReq, HttpServletRequest request) {
+        long attente = limiteurConnexions.reserver(adresseClient.resoudre(request), loginReq.getEmail());
+        if (attente > 0) {
+            return CompletableFuture.completedFuture(tropDeTentatives(attente,
+                    "Trop de tentatives de connexion, réessayez dans " + attente + " s"));
+        }
+
         Optional<Utilisateur> u = service.findByEmail(loginReq.getEmail());
+        if (u.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(401).body("Email ou mot de passe incorrect"));
+        }
+
+        Utilisateur user = u.get();
+        return hachageMotDePasse.verifier(loginReq.getMotDePasse(), user.getMotDePasse())
+                .<ResponseEntity<?>>thenApply(valide -> {
+                    if (!valide) {
+                        return ResponseEntity.status(401).body("Email ou mot de passe incorrect");
+                    }
+
+                    if (!user.isActif()) {
+                        return ResponseEntity.status(403).body("Compte désactivé");
+                    }
+
+                    mettreAJourHash(user, loginReq.getMotDePasse());
+
+                    return ResponseEntity.ok(reponseConnexion(user, jetonRafraichissementService.emettre(user)));
+                })
+                .exceptionally(e -> {
+                    if (e.getCause() instanceof HachageSatureException sature) {
+                        return tropDeTentatives(1, sature.getMessage());
+                    }
+                    System.err.println("❌ Erreur connexion: " + e.getMessage());
+                    return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
+                });
+    }
 
-        if (u.isPresent()) {
-            Utilisateur user = u.get();
+    /**
+     * Nouveau jeton d'accès contre le jeton de rafraîchissement, qui est remplacé (usage unique)
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> request) {
+        return jetonRafraichissementService.renouveler(request.get("refreshToken"))
+                .<ResponseEntity<?>>map(rotation -> ResponseEntity.ok(reponseConnexion(rotation.utilisateur(), rotation.jeton())))
+                .orElseGet(() -> ResponseEntity.status(401).body("Session expirée, reconnectez-vous"));
+    }
 
-            if (passwordEncoder.matches(loginReq.getMotDePasse(), user.getMotDePasse())) {
-                // Générer le token JWT
-                String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+    /**
+     * Déconnexion : le jeton de rafraîchissement n'est plus accepté
+     * (le jeton d'accès, de courte durée, expire de lui-même)
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody(required = false) Map<String, String> request) {
+        if (request != null) {
+            jetonRafraichissementService.revoquer(request.get("refreshToken"));
+        }
+        return ResponseEntity.noContent().build();
+    }
 
-                Map<String, Object> response = new HashMap<>();
-                response.put("user", mapUserToResponse(user));
-                response.put("token", token);
+    private Map<String, Object> reponseConnexion(Utilisateur user, String refreshToken) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("user", mapUserToResponse(user));
+        response.put("token", jwtUtil.generateToken(user.getEmail(), user.getRole().name()));
+        response.put("refreshToken", refreshToken);
+        return response;
+    }
 
-                return ResponseEntity.ok(response);
-            }
+    /**
+     * Hash calculé avec un coût BCrypt inférieur à app.auth.bcrypt.cout : recalculé en arrière-plan
+     * (la réponse ne l'attend pas ; pool plein, ce sera pour la prochaine connexion)
+     */
+    private void mettreAJourHash(Utilisateur user, String motDePasse) {
+        if (!hachageMotDePasse.aMettreAJour(user.getMotDePasse())) {
+            return;
         }
-        return ResponseEntity.status(401).body("Email ou mot de passe incorrect");
+        String ancien = user.getMotDePasse();
+        hachageMotDePasse.encoder(motDePasse)
+                .thenAccept(nouveau -> {
+                    if (service.remplacerHash(user.getId(), ancien, nouveau)) {
+                        System.out.println("🔐 Hash du mot de passe mis à jour pour " + user.getEmail());
+                    }
+                })
+                .exceptionally(e -> {
+                    System.err.println("⚠️ Mise à jour du hash impossible pour " + user.getEmail() + ": " + e.getMessage());
+                    return null;
+                });
+    }
+
+    private ResponseEntity<?> tropDeTentatives(long secondes, String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(secondes))
+                .body(message);
     }
 
     // NOUVELLES MÉTHODES POUR RÉINITIALISATION MOT DE PASSE
@@ -242,6 +343,8 @@ public class AuthController {
             user.setResetToken(null);
             user.setTokenExpiry(null);
             service.save(user);
+            // Mot de passe peut-être compromis : aucune connexion ouverte avec l'ancien ne survit
+            jetonRafraichissementService.fermerSessions(user.getId(), user.getEmail());
 
             return ResponseEntity.ok().body(Map.of(
                     "message", "Mot de passe réinitialisé avec succès"
@@ -271,6 +374,7 @@ public class AuthController {
             // Mettre à jour le mot de passe dans la base
             user.setMotDePasse(passwordEncoder.encode(tempPassword));
             service.save(user);
+            jetonRafraichissementService.fermerSessions(user.getId(), user.getEmail());
 
             // Envoyer le mot de passe par email
             emailService.sendPasswordEmail(email, tempPassword, user.getNom(), user.getPrenom());
@@ -344,6 +448,8 @@ public class AuthController {
             // Mettre à jour le mot de passe
             user.setMotDePasse(passwordEncoder.encode(newPassword));
             service.save(user);
+            // Toutes les connexions sont fermées, celle-ci comprise : reconnexion avec le nouveau mot de passe
+            jetonRafraichissementService.fermerSessions(user.getId(), user.getEmail());
 
             return ResponseEntity.ok().body("Mot de passe modifié avec succès");
 
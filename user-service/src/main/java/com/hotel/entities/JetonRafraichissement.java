@@ -0,0 +1,67 @@
+package com.hotel.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Jeton de rafraîchissement : seule son empreinte SHA-256 est stockée.
+ * Rotation à chaque usage ; tous les jetons issus d'une même connexion partagent une famille,
+ * révoquée entièrement si un jeton déjà utilisé est présenté de nouveau (jeton volé).
+ */
+@Entity
+@Table(name = "jetons_rafraichissement", indexes = {
+        @Index(name = "idx_jetons_rafraichissement_famille", columnList = "famille"),
+        @Index(name = "idx_jetons_rafraichissement_utilisateur", columnList = "utilisateur_id")
+})
+public class JetonRafraichissement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "utilisateur_id", nullable = false)
+    private Long utilisateurId;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String empreinte;
+
+    @Column(nullable = false, length = 36)
+    private String famille;
+
+    @Column(nullable = false)
+    private LocalDateTime expiration;
+
+    @Column(nullable = false)
+    private boolean revoque = false;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUtilisateurId() { return utilisateurId; }
+    public void setUtilisateurId(Long utilisateurId) { this.utilisateurId = utilisateurId; }
+
+    public String getEmpreinte() { return empreinte; }
+    public void setEmpreinte(String empreinte) { this.empreinte = empreinte; }
+
+    public String getFamille() { return famille; }
+    public void setFamille(String famille) { this.famille = famille; }
+
+    public LocalDateTime getExpiration() { return expiration; }
+    public void setExpiration(LocalDateTime expiration) { this.expiration = expiration; }
+
+    public boolean isRevoque() { return revoque; }
+    public void setRevoque(boolean revoque) { this.revoque = revoque; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,36 @@
+package com.hotel.repositories;
+
+import com.hotel.entities.JetonRafraichissement;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface JetonRafraichissementRepository extends JpaRepository<JetonRafraichissement, Long> {
+
+    // Verrouillé : deux rafraîchissements simultanés du même jeton ne donnent pas deux rotations
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM JetonRafraichissement j WHERE j.empreinte = :empreinte")
+    Optional<JetonRafraichissement> findForUpdate(@Param("empreinte") String empreinte);
+
+    Optional<JetonRafraichissement> findByEmpreinte(String empreinte);
+
+    @Modifying
+    @Query("UPDATE JetonRafraichissement j SET j.revoque = true WHERE j.famille = :famille AND j.revoque = false")
+    int revoquerFamille(@Param("famille") String famille);
+
+    @Modifying
+    @Query("UPDATE JetonRafraichissement j SET j.revoque = true WHERE j.utilisateurId = :utilisateurId AND j.revoque = false")
+    int revoquerUtilisateur(@Param("utilisateurId") Long utilisateurId);
+
+    @Modifying
+    @Query("DELETE FROM JetonRafraichissement j WHERE j.expiration < :limite")
+    int supprimerExpires(@Param("limite") LocalDateTime limite);
+}
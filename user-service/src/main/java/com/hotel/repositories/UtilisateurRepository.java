@@ -2,7 +2,11 @@ package com.hotel.repositories;
 
 import com.hotel.entities.Utilisateur;
 import com.hotel.entities.Role;  // ✅ IMPORTANT
+import com.hotel.repositories.projection.ComptageUtilisateurs;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;  // ✅ IMPORTANT
@@ -20,4 +24,14 @@ public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long>
 
     // Filtrer par statut actif
     List<Utilisateur> findByActif(boolean actif);
+
+    // Statistiques du tableau de bord admin : au plus 6 lignes (3 rôles x actif/inactif), calculées par la base
+    @Query("SELECT new com.hotel.repositories.projection.ComptageUtilisateurs(u.role, u.actif, COUNT(u)) "
+            + "FROM Utilisateur u GROUP BY u.role, u.actif")
+    List<ComptageUtilisateurs> compterParRoleEtStatut();
+
+    // Nouveau hash du même mot de passe, sauf si le mot de passe a changé entre-temps
+    @Modifying
+    @Query("UPDATE Utilisateur u SET u.motDePasse = :nouveau WHERE u.id = :id AND u.motDePasse = :ancien")
+    int remplacerHash(@Param("id") Long id, @Param("ancien") String ancien, @Param("nouveau") String nouveau);
 }
@@ -0,0 +1,9 @@
+package com.hotel.repositories.projection;
+
+import com.hotel.entities.Role;
+
+/**
+ * Nombre d'utilisateurs pour un rôle et un statut (une ligne du GROUP BY role, actif)
+ */
+public record ComptageUtilisateurs(Role role, boolean actif, long nombre) {
+}
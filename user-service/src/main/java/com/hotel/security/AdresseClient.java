@@ -0,0 +1,35 @@
+package com.hotel.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Adresse du client pour la limite de connexions par IP.
+ * X-Forwarded-For n'est jamais lu : nginx y ajoute l'en-tête envoyé par le client, qui peut donc
+ * en changer à chaque tentative. Seul X-Real-IP (fixé par nginx à $remote_addr) est pris en compte,
+ * et seulement si la requête vient d'un proxy déclaré dans app.auth.proxies ; sinon (appel direct
+ * sur le port 8080), c'est l'adresse de la connexion TCP.
+ */
+@Component
+public class AdresseClient {
+
+    private final Set<String> proxies;
+
+    public AdresseClient(@Value("${app.auth.proxies:}") Set<String> proxies) {
+        this.proxies = proxies;
+    }
+
+    public String resoudre(HttpServletRequest request) {
+        String adresse = request.getRemoteAddr();
+        if (proxies.contains(adresse)) {
+            String reelle = request.getHeader("X-Real-IP");
+            if (reelle != null && !reelle.isBlank()) {
+                return reelle.trim();
+            }
+        }
+        return adresse;
+    }
+}
@@ -0,0 +1,100 @@
+package com.hotel.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Calculs BCrypt (vérification et hachage des mots de passe) sur un pool dédié et borné :
+ * une rafale de connexions occupe au plus app.auth.hachage.threads cœurs, les threads Tomcat
+ * restent libres pour les autres API, et au-delà de la file les demandes sont refusées aussitôt.
+ * Métriques : auth.hachage (durée du calcul), auth.hachage.attente (temps passé en file),
+ * auth.hachage.file (demandes en attente), auth.hachage.rejets (demandes refusées).
+ */
+@Component
+public class HachageMotDePasse {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer verifications;
+    private final Timer encodages;
+    private final Timer attente;
+    private final Counter rejets;
+
+    public HachageMotDePasse(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                             @Value("${app.auth.hachage.threads:2}") int threads,
+                             @Value("${app.auth.hachage.file:32}") int file) {
+        this.passwordEncoder = passwordEncoder;
+
+        AtomicInteger numero = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(file),
+                tache -> {
+                    Thread thread = new Thread(tache, "hachage-" + numero.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.verifications = Timer.builder("auth.hachage").tag("operation", "verification").register(meterRegistry);
+        this.encodages = Timer.builder("auth.hachage").tag("operation", "encodage").register(meterRegistry);
+        this.attente = Timer.builder("auth.hachage.attente").register(meterRegistry);
+        this.rejets = Counter.builder("auth.hachage.rejets").register(meterRegistry);
+        meterRegistry.gauge("auth.hachage.file", executor, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * Comparer un mot de passe à son hash ; échoue avec HachageSatureException si le pool est plein
+     */
+    public CompletableFuture<Boolean> verifier(String motDePasse, String hash) {
+        return soumettre(verifications, () -> passwordEncoder.matches(motDePasse, hash));
+    }
+
+    public CompletableFuture<String> encoder(String motDePasse) {
+        return soumettre(encodages, () -> passwordEncoder.encode(motDePasse));
+    }
+
+    /**
+     * Hash calculé avec un coût inférieur au coût configuré (app.auth.bcrypt.cout)
+     */
+    public boolean aMettreAJour(String hash) {
+        return passwordEncoder.upgradeEncoding(hash);
+    }
+
+    private <T> CompletableFuture<T> soumettre(Timer duree, Supplier<T> calcul) {
+        long soumission = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long debut = System.nanoTime();
+                attente.record(debut - soumission, TimeUnit.NANOSECONDS);
+                try {
+                    return calcul.get();
+                } finally {
+                    duree.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejets.increment();
+            return CompletableFuture.failedFuture(
+                    new HachageSatureException("Trop de connexions en cours, réessayez dans quelques instants"));
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,11 @@
+package com.hotel.security;
+
+/**
+ * Plus de place pour un calcul BCrypt : la requête est refusée (429) plutôt que mise en attente
+ */
+public class HachageSatureException extends RuntimeException {
+
+    public HachageSatureException(String message) {
+        super(message);
+    }
+}
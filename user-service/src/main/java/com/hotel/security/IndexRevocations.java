@@ -0,0 +1,115 @@
+package com.hotel.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Utilisateurs révoqués (désactivés, supprimés) : leurs jetons d'accès émis avant la révocation sont refusés.
+ * - filtre de Bloom devant : pour la quasi-totalité des requêtes (utilisateur jamais révoqué),
+ *   quelques lectures de bits suffisent, sans verrou ni base de données
+ * - ensemble exact derrière (utilisateur → date de révocation) : un faux positif du filtre n'écarte personne
+ * Une révocation n'est utile que tant qu'un jeton d'accès antérieur peut être valide (app.jwt.acces.duree) :
+ * les entrées plus anciennes sont purgées et le filtre reconstruit.
+ * Mémoire de cette instance seulement : les autres instances et services voient la révocation
+ * au plus tard à l'expiration des jetons d'accès.
+ */
+@Component
+public class IndexRevocations {
+
+    private static final int FONCTIONS = 4;
+
+    // Utilisateur -> seconde de la révocation (même précision que la date d'émission iat des JWT)
+    private final Map<String, Long> revoquesDepuis = new ConcurrentHashMap<>();
+    private final int bits;
+    private volatile AtomicLongArray filtre;
+
+    @Value("${app.jwt.acces.duree:15m}")
+    private Duration dureeAcces;
+
+    public IndexRevocations(MeterRegistry meterRegistry,
+                            @Value("${app.jwt.revocations.bits:65536}") int bits) {
+        this.bits = bits;
+        this.filtre = new AtomicLongArray((bits + 63) / 64);
+        meterRegistry.gaugeMapSize("auth.revocations", List.of(), revoquesDepuis);
+    }
+
+    /**
+     * Refuser désormais les jetons de cet utilisateur émis avant la seconde en cours
+     * (un jeton émis dans la même seconde, après une réactivation ou une reconnexion, reste valide)
+     */
+    public void revoquer(String sujet) {
+        revoquesDepuis.put(sujet, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+        marquer(filtre, sujet);
+        System.out.println("🚫 Jetons d'accès révoqués pour " + sujet);
+    }
+
+    /**
+     * @param emission date d'émission du jeton (ms, précision de la seconde dans le JWT)
+     */
+    public boolean estRevoque(String sujet, long emission) {
+        if (!peutContenir(filtre, sujet)) {
+            return false;
+        }
+        Long depuis = revoquesDepuis.get(sujet);
+        return depuis != null && TimeUnit.MILLISECONDS.toSeconds(emission) < depuis;
+    }
+
+    /**
+     * Oublier les révocations dont tous les jetons concernés ont expiré, et reconstruire le filtre
+     * (un filtre de Bloom ne permet pas de retirer un élément)
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocations.purge:1m}")
+    public void purger() {
+        long limite = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - dureeAcces.toMillis());
+        if (!revoquesDepuis.values().removeIf(depuis -> depuis < limite)) {
+            return;
+        }
+        AtomicLongArray nouveau = new AtomicLongArray(filtre.length());
+        revoquesDepuis.keySet().forEach(sujet -> marquer(nouveau, sujet));
+        filtre = nouveau;
+        // Révocation arrivée pendant la reconstruction : remise dans le nouveau filtre
+        revoquesDepuis.keySet().forEach(sujet -> marquer(filtre, sujet));
+    }
+
+    private void marquer(AtomicLongArray cible, String sujet) {
+        long h1 = melanger(sujet.hashCode());
+        long h2 = melanger(h1) | 1;
+        for (int i = 0; i < FONCTIONS; i++) {
+            int bit = (int) Long.remainderUnsigned(h1 + i * h2, bits);
+            int mot = bit >>> 6;
+            long masque = 1L << bit;
+            long valeur;
+            do {
+                valeur = cible.get(mot);
+            } while ((valeur & masque) == 0 && !cible.compareAndSet(mot, valeur, valeur | masque));
+        }
+    }
+
+    private boolean peutContenir(AtomicLongArray cible, String sujet) {
+        long h1 = melanger(sujet.hashCode());
+        long h2 = melanger(h1) | 1;
+        for (int i = 0; i < FONCTIONS; i++) {
+            int bit = (int) Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((cible.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Finaliseur de SplitMix64 : répartit les bits du hashCode sur 64 bits
+    private static long melanger(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+}
@@ -0,0 +1,61 @@
+package com.hotel.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Jeton de service (rôle SERVICE) pour les appels vers reservation-service (invalidation de son cache) :
+ * signé une fois, réutilisé par tous les appels, renouvelé à mi-vie.
+ * Même principe que security.JetonService de paiement-service.
+ */
+@Component
+public class JetonService {
+
+    public static final String ROLE = "SERVICE";
+
+    private final SecretKey cle;
+    private final String nomService;
+    private final Duration duree;
+    private volatile Jeton courant;
+
+    public JetonService(@Value("${app.jwt.secret}") String secret,
+                        @Value("${spring.application.name:user-service}") String nomService,
+                        @Value("${app.jwt.service.duree:5m}") Duration duree) {
+        this.cle = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.nomService = nomService;
+        this.duree = duree;
+    }
+
+    public String jeton() {
+        Jeton jeton = courant;
+        long maintenant = System.currentTimeMillis();
+        if (jeton == null || maintenant >= jeton.renouvellement()) {
+            // Deux threads peuvent signer en même temps : les deux jetons sont valides
+            jeton = signer(maintenant);
+            courant = jeton;
+        }
+        return jeton.valeur();
+    }
+
+    private Jeton signer(long maintenant) {
+        String valeur = Jwts.builder()
+                .setSubject(nomService)
+                .claim("role", ROLE)
+                .setIssuedAt(new Date(maintenant))
+                .setExpiration(new Date(maintenant + duree.toMillis()))
+                .signWith(cle, SignatureAlgorithm.HS256)
+                .compact();
+        return new Jeton(valeur, maintenant + duree.toMillis() / 2);
+    }
+
+    private record Jeton(String valeur, long renouvellement) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.hotel.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Contenu d'un JWT dont la signature a été vérifiée : ce que JwtAuthFilter met dans le contexte de sécurité.
+ * emission (iat) sert à savoir si le jeton est antérieur à une révocation de l'utilisateur.
+ * reservation-service et paiement-service ont la même classe, sans emission (pas de révocation chez eux).
+ */
+public record JetonVerifie(String username, String role, long emission, long expiration,
+                           List<GrantedAuthority> authorities) {
+
+    public JetonVerifie(String username, String role, long emission, long expiration) {
+        this(username, role, emission, expiration, List.of(new SimpleGrantedAuthority(role)));
+    }
+}
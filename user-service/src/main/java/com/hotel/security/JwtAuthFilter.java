@@ -1,25 +1,26 @@
 package com.hotel.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final IndexRevocations indexRevocations;
 
-    public JwtAuthFilter(JwtUtil jwtUtil) {
+    public JwtAuthFilter(JwtUtil jwtUtil, IndexRevocations indexRevocations) {
         this.jwtUtil = jwtUtil;
+        this.indexRevocations = indexRevocations;
     }
 
     @Override
@@ -40,22 +41,20 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
 
             try {
-                if (jwtUtil.validateToken(token)) {
-                    var claims = jwtUtil.extractClaims(token);
-                    String username = claims.getSubject();
-                    String role = claims.get("role", String.class);
-
-                    var authorities = Collections.singletonList(
-                            new SimpleGrantedAuthority(role)
-                    );
+                // Une seule vérification par requête (et aucune pour un jeton déjà vu)
+                JetonVerifie jeton = jwtUtil.verifier(token);
 
+                // Utilisateur désactivé ou supprimé depuis l'émission du jeton : requête anonyme
+                if (!indexRevocations.estRevoque(jeton.username(), jeton.emission())) {
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
-                                    username, null, authorities
+                                    jeton.username(), null, jeton.authorities()
                             );
 
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
+            } catch (JwtException e) {
+                // Jeton invalide ou expiré : requête traitée comme anonyme
             } catch (Exception e) {
                 System.out.println("JWT error: " + e.getMessage());
             }
@@ -1,20 +1,76 @@
 package com.hotel.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
-    private final SecretKey SECRET_KEY = Keys.hmacShaKeyFor(
-            "votre-secret-key-tres-long-et-securise-pour-gestion-hotel-2024-spring-boot-jwt-security".getBytes()
-    );
+    // Partagé avec reservation-service et paiement-service, qui vérifient les jetons émis ici
+    private final SecretKey SECRET_KEY;
 
-    private final long EXPIRATION_TIME = 86400000; // 24h
+    // Jeton d'accès court : renouvelé par le jeton de rafraîchissement (POST /api/auth/refresh)
+    private final long EXPIRATION_TIME;
+
+    // Parser immuable et thread-safe : construit une fois, partagé par toutes les requêtes
+    private final JwtParser parser;
+
+    // SHA-256 par thread (MessageDigest n'est pas thread-safe)
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // Jetons déjà vérifiés, par empreinte SHA-256 (le jeton lui-même n'est pas gardé en mémoire),
+    // chacun retiré du cache à son expiration. Même cache que JwtVerificateur dans reservation-service
+    // et paiement-service : une correction ici se reporte là-bas.
+    private final Cache<Empreinte, JetonVerifie> jetonsVerifies;
+
+    public JwtUtil(@Value("${app.jwt.secret}") String secret,
+                   @Value("${app.jwt.acces.duree:15m}") Duration dureeAcces,
+                   @Value("${app.jwt.cache-max:10000}") long cacheMax) {
+        this.SECRET_KEY = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.EXPIRATION_TIME = dureeAcces.toMillis();
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(SECRET_KEY)
+                .build();
+        this.jetonsVerifies = Caffeine.newBuilder()
+                .maximumSize(cacheMax)
+                .expireAfter(new Expiry<Empreinte, JetonVerifie>() {
+                    @Override
+                    public long expireAfterCreate(Empreinte cle, JetonVerifie jeton, long maintenant) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, jeton.expiration() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Empreinte cle, JetonVerifie jeton, long maintenant, long restant) {
+                        return expireAfterCreate(cle, jeton, maintenant);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Empreinte cle, JetonVerifie jeton, long maintenant, long restant) {
+                        return restant;
+                    }
+                })
+                .build();
+    }
 
     public String generateToken(String username, String role) {
         return Jwts.builder()
@@ -26,20 +82,50 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Vérifier un jeton une seule fois : signature et expiration contrôlées au premier passage,
+     * les requêtes suivantes avec le même jeton lisent le cache.
+     * @throws JwtException jeton invalide ou expiré
+     */
+    public JetonVerifie verifier(String token) {
+        Empreinte empreinte = Empreinte.de(token);
+        JetonVerifie jeton = jetonsVerifies.getIfPresent(empreinte);
+        if (jeton != null && jeton.expiration() > System.currentTimeMillis()) {
+            return jeton;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Jeton sans date d'expiration");
+        }
+        jeton = new JetonVerifie(claims.getSubject(), claims.get("role", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0,
+                claims.getExpiration().getTime());
+        jetonsVerifies.put(empreinte, jeton);
+        return jeton;
+    }
+
     public Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public boolean validateToken(String token) {
         try {
-            extractClaims(token);
+            verifier(token);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
+
+    /**
+     * SHA-256 du jeton (résistant aux collisions : un autre jeton ne peut pas reprendre l'entrée d'un jeton vérifié)
+     */
+    private record Empreinte(long a, long b, long c, long d) {
+
+        static Empreinte de(String token) {
+            ByteBuffer hash = ByteBuffer.wrap(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new Empreinte(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
 }
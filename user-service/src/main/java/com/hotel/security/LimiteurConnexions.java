@@ -0,0 +1,101 @@
+package com.hotel.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seaux à jetons des tentatives de connexion, par adresse IP et par email :
+ * une rafale (credential stuffing, force brute sur un compte) est refusée avant tout calcul BCrypt.
+ * Seaux inutilisés oubliés après 10 minutes.
+ * Métrique : auth.connexion.limitees (tag cle = ip | email).
+ */
+@Component
+public class LimiteurConnexions {
+
+    private final Cache<String, Seau> seaux = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    private final int capaciteIp;
+    private final double parMinuteIp;
+    private final int capaciteEmail;
+    private final double parMinuteEmail;
+
+    private final Counter limiteesIp;
+    private final Counter limiteesEmail;
+
+    public LimiteurConnexions(MeterRegistry meterRegistry,
+                              @Value("${app.auth.limite.ip.capacite:20}") int capaciteIp,
+                              @Value("${app.auth.limite.ip.par-minute:30}") double parMinuteIp,
+                              @Value("${app.auth.limite.email.capacite:5}") int capaciteEmail,
+                              @Value("${app.auth.limite.email.par-minute:5}") double parMinuteEmail) {
+        this.capaciteIp = capaciteIp;
+        this.parMinuteIp = parMinuteIp;
+        this.capaciteEmail = capaciteEmail;
+        this.parMinuteEmail = parMinuteEmail;
+        this.limiteesIp = Counter.builder("auth.connexion.limitees").tag("cle", "ip").register(meterRegistry);
+        this.limiteesEmail = Counter.builder("auth.connexion.limitees").tag("cle", "email").register(meterRegistry);
+    }
+
+    /**
+     * Prendre un jeton pour cette IP puis pour cet email
+     * @return 0 si la tentative est permise, sinon le nombre de secondes à attendre
+     */
+    public long reserver(String ip, String email) {
+        long attente = seaux.get("ip:" + ip, cle -> new Seau(capaciteIp, parMinuteIp)).prendre();
+        if (attente > 0) {
+            limiteesIp.increment();
+            return secondes(attente);
+        }
+        if (email != null) {
+            attente = seaux.get("email:" + email.toLowerCase(Locale.ROOT),
+                    cle -> new Seau(capaciteEmail, parMinuteEmail)).prendre();
+            if (attente > 0) {
+                limiteesEmail.increment();
+                return secondes(attente);
+            }
+        }
+        return 0;
+    }
+
+    private static long secondes(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static final class Seau {
+
+        private final double capacite;
+        private final double jetonsParNano;
+        private double jetons;
+        private long derniereRecharge = System.nanoTime();
+
+        Seau(int capacite, double parMinute) {
+            this.capacite = capacite;
+            this.jetonsParNano = parMinute / TimeUnit.MINUTES.toNanos(1);
+            this.jetons = capacite;
+        }
+
+        /**
+         * @return 0 si un jeton a été pris, sinon le délai (ns) avant le prochain jeton
+         */
+        synchronized long prendre() {
+            long maintenant = System.nanoTime();
+            jetons = Math.min(capacite, jetons + (maintenant - derniereRecharge) * jetonsParNano);
+            derniereRecharge = maintenant;
+            if (jetons >= 1) {
+                jetons -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - jetons) / jetonsParNano);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hotel.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -48,6 +49,8 @@ public class SecurityConfig {
                         // Routes publiques d'authentification
                         .requestMatchers("/api/auth/register").permitAll()
                         .requestMatchers("/api/auth/login").permitAll()
+                        .requestMatchers("/api/auth/refresh").permitAll()
+                        .requestMatchers("/api/auth/logout").permitAll()
                         .requestMatchers("/api/auth/test").permitAll()
                         .requestMatchers("/api/auth/forgot-password").permitAll()
                         .requestMatchers("/api/auth/validate-reset-token").permitAll() // ✅ AJOUTÉ
@@ -83,8 +86,11 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * Coût BCrypt configurable : les hash plus faibles sont recalculés à la connexion suivante
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt.cout:10}") int cout) {
+        return new BCryptPasswordEncoder(cout);
     }
 }
@@ -1,16 +1,29 @@
 package com.hotel.services;
 
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+import java.util.Map;
+
 @Service
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final GabaritsEmail gabaritsEmail;
+    private final ExpediteurSmtp expediteurSmtp;
+
+    @Value("${app.mail.langue:fr}")
+    private Locale langue;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, GabaritsEmail gabaritsEmail, ExpediteurSmtp expediteurSmtp) {
         this.mailSender = mailSender;
+        this.gabaritsEmail = gabaritsEmail;
+        this.expediteurSmtp = expediteurSmtp;
     }
 
     public void sendPasswordResetEmail(String toEmail, String resetToken, String nom, String prenom) {
@@ -19,18 +32,13 @@ public class EmailService {
 
             SimpleMailMessage message = new SimpleMailMessage();
             message.setTo(toEmail);
-            message.setSubject("Réinitialisation de votre mot de passe - HotelMS");
-
-            String text = "Bonjour " + prenom + " " + nom + ",\n\n" +
-                    "Vous avez demandé la réinitialisation de votre mot de passe.\n\n" +
-                    "Votre code de réinitialisation est : " + resetToken + "\n\n" +
-                    "Ce code expirera dans 1 heure.\n\n" +
-                    "Si vous n'avez pas demandé cette réinitialisation, veuillez ignorer cet email.\n\n" +
-                    "Cordialement,\nL'équipe Hotel Management System";
+            message.setSubject(anglais()
+                    ? "Password reset - HotelMS"
+                    : "Réinitialisation de votre mot de passe - HotelMS");
+            message.setText(gabaritsEmail.rendre(GabaritsEmail.REINITIALISATION, langue,
+                    Map.of("prenom", prenom, "nom", nom, "code", resetToken)));
 
-            message.setText(text);
-
-            mailSender.send(message);
+            envoyer(message);
             System.out.println("✅ EMAIL ENVOYÉ AVEC SUCCÈS À: " + toEmail);
             System.out.println("📧 CODE ENVOYÉ: " + resetToken);
 
@@ -47,17 +55,11 @@ public class EmailService {
 
             SimpleMailMessage message = new SimpleMailMessage();
             message.setTo(toEmail);
-            message.setSubject("Votre mot de passe - HotelMS");
-
-            String text = "Bonjour " + prenom + " " + nom + ",\n\n" +
-                    "Voici votre mot de passe pour accéder à votre compte :\n\n" +
-                    "Mot de passe : " + password + "\n\n" +
-                    "Conseil de sécurité : Après votre première connexion, nous vous recommandons de changer votre mot de passe.\n\n" +
-                    "Cordialement,\nL'équipe Hotel Management System";
+            message.setSubject(anglais() ? "Your password - HotelMS" : "Votre mot de passe - HotelMS");
+            message.setText(gabaritsEmail.rendre(GabaritsEmail.MOT_DE_PASSE, langue,
+                    Map.of("prenom", prenom, "nom", nom, "motDePasse", password)));
 
-            message.setText(text);
-
-            mailSender.send(message);
+            envoyer(message);
             System.out.println("✅ MOT DE PASSE ENVOYÉ À: " + toEmail);
 
         } catch (Exception e) {
@@ -66,4 +68,15 @@ public class EmailService {
             throw new RuntimeException("Erreur lors de l'envoi du mot de passe: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Même conversion que JavaMailSender.send(SimpleMailMessage), mais sur une connexion déjà ouverte
+    private void envoyer(SimpleMailMessage message) throws Exception {
+        MimeMessage mime = mailSender.createMimeMessage();
+        message.copyTo(new MimeMailMessage(mime));
+        expediteurSmtp.envoyer(mime);
+    }
+
+    private boolean anglais() {
+        return Locale.ENGLISH.getLanguage().equals(langue.getLanguage());
+    }
+}
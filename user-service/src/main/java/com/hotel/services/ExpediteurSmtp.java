@@ -0,0 +1,261 @@
+package com.hotel.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Envoi SMTP sur des connexions gardées ouvertes (même principe que l'expéditeur de reservation-service) :
+ * - chaque thread d'envoi garde son transport SMTP connecté et authentifié entre deux messages
+ * - il vide la file par lots : les emails demandés en même temps partent d'affilée sur la même connexion
+ * L'appelant (réinitialisation de mot de passe) attend le résultat de son email : envoi synchrone pour lui.
+ * Pas de limite de débit par fournisseur : un email par action d'un utilisateur.
+ * Métriques : mail.smtp.file (emails en attente), mail.smtp.envoi (durée et nombre d'envois, tag
+ * resultat = succes | echec), mail.smtp.lot (messages par lot), mail.smtp.connexions (connexions ouvertes).
+ */
+@Component
+@Slf4j
+public class ExpediteurSmtp {
+
+    // Après un moment sans envoi, le serveur a pu fermer la connexion de son côté
+    private static final long VERIFICATION_APRES = TimeUnit.SECONDS.toNanos(5);
+
+    private final JavaMailSenderImpl mailSender;
+    private final MeterRegistry meterRegistry;
+    private final int connexions;
+    private final int lot;
+    private final BlockingQueue<Envoi> file;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean actif;
+
+    @Value("${app.mail.smtp.attente:10s}")
+    private Duration attente;
+
+    @Value("${app.mail.smtp.inactivite:30s}")
+    private Duration inactivite;
+
+    private Timer envoisReussis;
+    private Timer envoisEchoues;
+    private DistributionSummary tailleLots;
+    private Counter connexionsOuvertes;
+
+    public ExpediteurSmtp(JavaMailSenderImpl mailSender, MeterRegistry meterRegistry,
+                          @Value("${app.mail.smtp.connexions:2}") int connexions,
+                          @Value("${app.mail.smtp.lot:20}") int lot,
+                          @Value("${app.mail.smtp.file-max:100}") int fileMax) {
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.connexions = connexions;
+        this.lot = lot;
+        this.file = new LinkedBlockingQueue<>(fileMax);
+    }
+
+    @PostConstruct
+    public void demarrer() {
+        Gauge.builder("mail.smtp.file", file, BlockingQueue::size).register(meterRegistry);
+        envoisReussis = Timer.builder("mail.smtp.envoi").tag("resultat", "succes").register(meterRegistry);
+        envoisEchoues = Timer.builder("mail.smtp.envoi").tag("resultat", "echec").register(meterRegistry);
+        tailleLots = DistributionSummary.builder("mail.smtp.lot").register(meterRegistry);
+        connexionsOuvertes = Counter.builder("mail.smtp.connexions").register(meterRegistry);
+
+        actif = true;
+        for (int i = 1; i <= connexions; i++) {
+            int numero = i;
+            Thread thread = new Thread(() -> boucler(numero), "smtp-" + numero);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("✅ Expéditeur SMTP démarré : {} connexion(s) vers {}:{}, lots de {}",
+                connexions, mailSender.getHost(), mailSender.getPort(), lot);
+    }
+
+    /**
+     * Les threads d'envoi terminent leur lot en cours puis ferment leur connexion ;
+     * les emails encore en file sont rendus en échec
+     */
+    @PreDestroy
+    public void arreter() throws InterruptedException {
+        actif = false;
+        List<Envoi> restants = new ArrayList<>();
+        file.drainTo(restants);
+        restants.forEach(envoi -> envoi.resultat().completeExceptionally(
+                new IllegalStateException("Expéditeur SMTP arrêté")));
+        for (Thread thread : threads) {
+            thread.join(attente.toMillis());
+        }
+    }
+
+    /**
+     * Envoyer un message et attendre qu'il soit remis au serveur
+     */
+    public void envoyer(MimeMessage message) throws MessagingException, InterruptedException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        message.saveChanges();
+
+        if (!actif) {
+            throw new IllegalStateException("Expéditeur SMTP arrêté");
+        }
+        Envoi envoi = new Envoi(message, new CompletableFuture<>());
+        if (!file.offer(envoi, attente.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("File d'envoi SMTP pleine");
+        }
+
+        try {
+            envoi.resultat().get(attente.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MessagingException erreur) {
+                throw erreur;
+            }
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Email non envoyé après " + attente.toSeconds() + " s");
+        }
+    }
+
+    private void boucler(int numero) {
+        Connexion connexion = new Connexion(numero);
+        List<Envoi> enCours = new ArrayList<>(lot);
+        try {
+            while (actif) {
+                Envoi premier = file.poll(1, TimeUnit.SECONDS);
+                if (premier == null) {
+                    connexion.fermerSiInactive();
+                    continue;
+                }
+
+                enCours.add(premier);
+                file.drainTo(enCours, lot - 1);
+                tailleLots.record(enCours.size());
+                envoyerLot(connexion, enCours);
+                enCours.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            enCours.forEach(envoi -> envoi.resultat().completeExceptionally(e));
+        } finally {
+            connexion.fermer();
+        }
+    }
+
+    private void envoyerLot(Connexion connexion, List<Envoi> enCours) {
+        for (int i = 0; i < enCours.size(); i++) {
+            Envoi envoi = enCours.get(i);
+
+            Transport transport;
+            try {
+                transport = connexion.ouvrir();
+            } catch (MessagingException e) {
+                // Serveur injoignable : inutile d'essayer le reste du lot
+                log.warn("⚠️ Connexion SMTP {} impossible : {}", connexion.numero, e.getMessage());
+                enCours.subList(i, enCours.size()).forEach(restant -> restant.resultat().completeExceptionally(e));
+                return;
+            }
+
+            long debut = System.nanoTime();
+            try {
+                transport.sendMessage(envoi.message(), envoi.message().getAllRecipients());
+                envoisReussis.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+                envoi.resultat().complete(null);
+            } catch (Exception e) {
+                envoisEchoues.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+                // Destinataire refusé : la connexion reste utilisable ; connexion perdue : rouverte au suivant
+                connexion.fermerSiRompue();
+                envoi.resultat().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Transport SMTP d'un thread d'envoi : ouvert au premier message, gardé entre les lots
+     */
+    private final class Connexion {
+
+        private final int numero;
+        private Transport transport;
+        private long derniereUtilisation;
+
+        Connexion(int numero) {
+            this.numero = numero;
+        }
+
+        Transport ouvrir() throws MessagingException {
+            if (transport != null && System.nanoTime() - derniereUtilisation > VERIFICATION_APRES) {
+                fermerSiRompue();
+            }
+            if (transport == null) {
+                String protocole = mailSender.getProtocol();
+                if (protocole == null) {
+                    protocole = mailSender.getSession().getProperty("mail.transport.protocol");
+                }
+                Transport nouveau = mailSender.getSession()
+                        .getTransport(protocole != null ? protocole : JavaMailSenderImpl.DEFAULT_PROTOCOL);
+                String utilisateur = mailSender.getUsername();
+                String motDePasse = mailSender.getPassword();
+                if (utilisateur == null || utilisateur.isEmpty()) {
+                    utilisateur = null;
+                    motDePasse = null;
+                }
+                nouveau.connect(mailSender.getHost(), mailSender.getPort(), utilisateur, motDePasse);
+                transport = nouveau;
+                connexionsOuvertes.increment();
+                log.info("📡 Connexion SMTP {} ouverte vers {}", numero, mailSender.getHost());
+            }
+            derniereUtilisation = System.nanoTime();
+            return transport;
+        }
+
+        void fermerSiRompue() {
+            // isConnected() envoie un NOOP au serveur
+            if (transport != null && !transport.isConnected()) {
+                fermer();
+            }
+        }
+
+        void fermerSiInactive() {
+            if (transport != null && System.nanoTime() - derniereUtilisation > inactivite.toNanos()) {
+                log.debug("📡 Connexion SMTP {} fermée (inactive)", numero);
+                fermer();
+            }
+        }
+
+        void fermer() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.warn("⚠️ Fermeture connexion SMTP {} : {}", numero, e.getMessage());
+            }
+            transport = null;
+        }
+    }
+
+    private record Envoi(MimeMessage message, CompletableFuture<Void> resultat) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.hotel.services;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateExceptionHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Texte des emails à partir de gabarits FreeMarker (classpath:/templates/email) :
+ * analysés une seule fois au démarrage, une variante _en par gabarit pour Locale.ENGLISH,
+ * rendus dans un tampon réutilisé par thread.
+ */
+@Component
+public class GabaritsEmail {
+
+    public static final String REINITIALISATION = "reinitialisation.ftl";
+    public static final String MOT_DE_PASSE = "mot-de-passe.ftl";
+
+    private static final List<String> GABARITS = List.of(REINITIALISATION, MOT_DE_PASSE);
+    private static final List<Locale> LANGUES = List.of(Locale.FRENCH, Locale.ENGLISH);
+
+    // Au-delà, le tampon n'est pas gardé
+    private static final int TAMPON_MAX = 64 * 1024;
+
+    private final Configuration configuration;
+    private final ThreadLocal<Tampon> tampons = ThreadLocal.withInitial(Tampon::new);
+
+    public GabaritsEmail() {
+        configuration = new Configuration(Configuration.VERSION_2_3_34);
+        configuration.setClassForTemplateLoading(GabaritsEmail.class, "/templates/email");
+        configuration.setDefaultEncoding("UTF-8");
+        configuration.setLocale(Locale.FRENCH);
+        configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        configuration.setLogTemplateExceptions(false);
+        configuration.setWrapUncheckedExceptions(true);
+        // Gabarits livrés avec l'application : jamais revérifiés sur le classpath
+        configuration.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+
+        for (String gabarit : GABARITS) {
+            for (Locale langue : LANGUES) {
+                template(gabarit, langue);
+            }
+        }
+        System.out.println("✅ Gabarits d'email chargés : " + GABARITS + " " + LANGUES);
+    }
+
+    public String rendre(String gabarit, Locale langue, Map<String, ?> modele) {
+        Template template = template(gabarit, langue);
+        Tampon tampon = tampons.get();
+        tampon.texte.setLength(0);
+        try {
+            template.process(modele, tampon);
+            return tampon.texte.toString();
+        } catch (TemplateException | IOException e) {
+            throw new IllegalStateException("Rendu du gabarit " + gabarit + " impossible", e);
+        } finally {
+            if (tampon.texte.capacity() > TAMPON_MAX) {
+                tampons.remove();
+            }
+        }
+    }
+
+    private Template template(String gabarit, Locale langue) {
+        try {
+            return configuration.getTemplate(gabarit, langue);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Gabarit d'email introuvable : " + gabarit, e);
+        }
+    }
+
+    /**
+     * Writer sur un StringBuilder réutilisé (StringWriter passe par un StringBuffer synchronisé)
+     */
+    private static final class Tampon extends Writer {
+
+        private final StringBuilder texte = new StringBuilder(1024);
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            texte.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            texte.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(int c) {
+            texte.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.hotel.services;
+
+import com.hotel.entities.JetonRafraichissement;
+import com.hotel.entities.Utilisateur;
+import com.hotel.repositories.JetonRafraichissementRepository;
+import com.hotel.repositories.UtilisateurRepository;
+import com.hotel.security.IndexRevocations;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Jetons de rafraîchissement : 256 bits aléatoires remis au client, seule leur empreinte SHA-256 est en base.
+ * Chaque usage en émet un nouveau et retire l'ancien (rotation) ; un jeton retiré présenté de nouveau
+ * signifie qu'il a été copié : toute la famille (la connexion d'origine) est révoquée.
+ */
+@Service
+@Transactional
+public class JetonRafraichissementService {
+
+    private final SecureRandom aleatoire = new SecureRandom();
+
+    private final JetonRafraichissementRepository jetonRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final IndexRevocations indexRevocations;
+
+    @Value("${app.jwt.rafraichissement.duree:7d}")
+    private Duration duree;
+
+    public JetonRafraichissementService(JetonRafraichissementRepository jetonRepository,
+                                        UtilisateurRepository utilisateurRepository,
+                                        IndexRevocations indexRevocations) {
+        this.jetonRepository = jetonRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.indexRevocations = indexRevocations;
+    }
+
+    /**
+     * Nouveau jeton à la connexion (nouvelle famille)
+     */
+    public String emettre(Utilisateur utilisateur) {
+        return emettre(utilisateur.getId(), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Échanger un jeton valide contre un nouveau ; vide si le jeton est inconnu, expiré, déjà utilisé
+     * ou si l'utilisateur n'est plus actif
+     */
+    public Optional<Rotation> renouveler(String jeton) {
+        if (jeton == null || jeton.isBlank()) {
+            return Optional.empty();
+        }
+        Optional<JetonRafraichissement> trouve = jetonRepository.findForUpdate(empreinte(jeton));
+        if (trouve.isEmpty()) {
+            return Optional.empty();
+        }
+
+        JetonRafraichissement ancien = trouve.get();
+        if (ancien.isRevoque()) {
+            int revoques = jetonRepository.revoquerFamille(ancien.getFamille());
+            System.err.println("🚨 Jeton de rafraîchissement réutilisé (utilisateur " + ancien.getUtilisateurId()
+                    + ") : " + revoques + " jeton(s) de la famille révoqué(s)");
+            return Optional.empty();
+        }
+        if (ancien.getExpiration().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+
+        Optional<Utilisateur> utilisateur = utilisateurRepository.findById(ancien.getUtilisateurId())
+                .filter(Utilisateur::isActif);
+        if (utilisateur.isEmpty()) {
+            jetonRepository.revoquerUtilisateur(ancien.getUtilisateurId());
+            return Optional.empty();
+        }
+
+        ancien.setRevoque(true);
+        return Optional.of(new Rotation(utilisateur.get(), emettre(ancien.getUtilisateurId(), ancien.getFamille())));
+    }
+
+    /**
+     * Déconnexion : le jeton et ceux de sa famille ne sont plus acceptés
+     */
+    public void revoquer(String jeton) {
+        if (jeton == null || jeton.isBlank()) {
+            return;
+        }
+        jetonRepository.findByEmpreinte(empreinte(jeton))
+                .ifPresent(trouve -> jetonRepository.revoquerFamille(trouve.getFamille()));
+    }
+
+    /**
+     * Mot de passe, email ou rôle changé, compte désactivé ou supprimé : plus de renouvellement possible,
+     * et les jetons d'accès déjà émis pour cet email (sujet du JWT) sont refusés par JwtAuthFilter
+     */
+    public void fermerSessions(Long utilisateurId, String email) {
+        jetonRepository.revoquerUtilisateur(utilisateurId);
+        indexRevocations.revoquer(email);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.rafraichissement.purge:1h}")
+    public void purger() {
+        int supprimes = jetonRepository.supprimerExpires(LocalDateTime.now());
+        if (supprimes > 0) {
+            System.out.println("🧹 " + supprimes + " jeton(s) de rafraîchissement expiré(s) supprimé(s)");
+        }
+    }
+
+    private String emettre(Long utilisateurId, String famille) {
+        byte[] octets = new byte[32];
+        aleatoire.nextBytes(octets);
+        String jeton = Base64.getUrlEncoder().withoutPadding().encodeToString(octets);
+
+        JetonRafraichissement nouveau = new JetonRafraichissement();
+        nouveau.setUtilisateurId(utilisateurId);
+        nouveau.setEmpreinte(empreinte(jeton));
+        nouveau.setFamille(famille);
+        nouveau.setExpiration(LocalDateTime.now().plus(duree));
+        jetonRepository.save(nouveau);
+        return jeton;
+    }
+
+    private static String empreinte(String jeton) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(jeton.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Rotation(Utilisateur utilisateur, String jeton) {
+    }
+}
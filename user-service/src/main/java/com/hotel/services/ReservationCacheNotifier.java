@@ -0,0 +1,46 @@
+package com.hotel.services;
+
+import com.hotel.security.JetonService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Prévient le service réservations qu'un utilisateur a changé
+ * (désactivation / suppression) pour qu'il le retire de son cache.
+ * Appel authentifié par jeton de service (rôle SERVICE exigé par reservation-service).
+ */
+@Service
+public class ReservationCacheNotifier {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${services.reservations.url:http://reservation-service:8083}")
+    private String reservationsServiceUrl;
+
+    public ReservationCacheNotifier(RestTemplateBuilder restTemplateBuilder, JetonService jetonService) {
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(Duration.ofSeconds(1))
+                .readTimeout(Duration.ofSeconds(2))
+                .additionalInterceptors((request, body, execution) -> {
+                    request.getHeaders().setBearerAuth(jetonService.jeton());
+                    return execution.execute(request, body);
+                })
+                .build();
+    }
+
+    /**
+     * Non bloquant : un échec est seulement loggé (le cache expirera de lui-même)
+     */
+    public void invaliderUtilisateur(Long id) {
+        try {
+            restTemplate.delete(reservationsServiceUrl + "/api/utilisateurs/" + id + "/cache");
+            System.out.println("🗑️ Cache réservations invalidé pour l'utilisateur " + id);
+        } catch (Exception e) {
+            System.err.println("⚠️ Invalidation cache réservations impossible pour " + id + ": " + e.getMessage());
+        }
+    }
+}
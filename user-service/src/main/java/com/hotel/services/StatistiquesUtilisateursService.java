@@ -0,0 +1,100 @@
+package com.hotel.services;
+
+import com.hotel.entities.Role;
+import com.hotel.repositories.UtilisateurRepository;
+import com.hotel.repositories.projection.ComptageUtilisateurs;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistiques du tableau de bord admin : comptées par la base (GROUP BY role, actif), sans charger
+ * les utilisateurs, puis gardées app.admin.stats.ttl. Toute création, modification, suppression ou
+ * changement de statut les invalide dès la validation de sa transaction.
+ */
+@Service
+public class StatistiquesUtilisateursService {
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final long ttlNanos;
+
+    // Incrémentée à chaque invalidation : un calcul commencé avant n'est pas gardé
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Instantane instantane;
+
+    public StatistiquesUtilisateursService(UtilisateurRepository utilisateurRepository,
+                                           @Value("${app.admin.stats.ttl:30s}") Duration ttl) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Statistiques statistiques() {
+        Instantane courant = instantane;
+        if (courant != null && System.nanoTime() - courant.calculeA() < ttlNanos) {
+            return courant.statistiques();
+        }
+
+        long generationLue = generation.get();
+        Statistiques statistiques = compter();
+        if (generation.get() == generationLue) {
+            instantane = new Instantane(statistiques, System.nanoTime());
+        }
+        return statistiques;
+    }
+
+    /**
+     * Après la transaction en cours (sinon tout de suite) : un calcul pendant la transaction
+     * verrait encore l'ancien état
+     */
+    public void invalider() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    vider();
+                }
+            });
+        } else {
+            vider();
+        }
+    }
+
+    private void vider() {
+        generation.incrementAndGet();
+        instantane = null;
+    }
+
+    private Statistiques compter() {
+        Map<Role, Long> parRole = new EnumMap<>(Role.class);
+        long total = 0;
+        long actifs = 0;
+        for (ComptageUtilisateurs ligne : utilisateurRepository.compterParRoleEtStatut()) {
+            parRole.merge(ligne.role(), ligne.nombre(), Long::sum);
+            total += ligne.nombre();
+            if (ligne.actif()) {
+                actifs += ligne.nombre();
+            }
+        }
+        return new Statistiques(total,
+                parRole.getOrDefault(Role.CLIENT, 0L),
+                parRole.getOrDefault(Role.ADMIN, 0L),
+                parRole.getOrDefault(Role.RECEPTIONNISTE, 0L),
+                actifs);
+    }
+
+    public record Statistiques(long total, long clients, long admins, long receptionnistes, long actifs) {
+
+        public long inactifs() {
+            return total - actifs;
+        }
+    }
+
+    private record Instantane(Statistiques statistiques, long calculeA) {
+    }
+}
@@ -15,10 +15,13 @@ import java.util.Optional;
 public class UtilisateurService {
 
     private final UtilisateurRepository utilisateurRepository;
+    private final StatistiquesUtilisateursService statistiques;
 
     // Injection par constructeur
-    public UtilisateurService(UtilisateurRepository utilisateurRepository) {
+    public UtilisateurService(UtilisateurRepository utilisateurRepository,
+                              StatistiquesUtilisateursService statistiques) {
         this.utilisateurRepository = utilisateurRepository;
+        this.statistiques = statistiques;
     }
 
     /**
@@ -43,6 +46,7 @@ public class UtilisateurService {
             utilisateur.setCreatedAt(LocalDateTime.now());
         }
 
+        statistiques.invalider();
         return utilisateurRepository.save(utilisateur);
     }
 
@@ -53,6 +57,13 @@ public class UtilisateurService {
         return utilisateurRepository.findByEmail(email);
     }
 
+    /**
+     * Remplacer le hash du mot de passe (recalculé avec le coût BCrypt actuel)
+     */
+    public boolean remplacerHash(Long id, String ancien, String nouveau) {
+        return utilisateurRepository.remplacerHash(id, ancien, nouveau) == 1;
+    }
+
     /**
      * Trouver tous les utilisateurs
      */
@@ -72,12 +83,14 @@ public class UtilisateurService {
      */
     public void deleteById(Long id) {
         utilisateurRepository.deleteById(id);
+        statistiques.invalider();
     }
 
     /**
      * Sauvegarder ou mettre à jour un utilisateur
      */
     public Utilisateur save(Utilisateur utilisateur) {
+        statistiques.invalider();
         return utilisateurRepository.save(utilisateur);
     }
 
@@ -107,6 +120,7 @@ public class UtilisateurService {
             utilisateur.setCreatedAt(LocalDateTime.now());
         }
 
+        statistiques.invalider();
         return utilisateurRepository.save(utilisateur);
     }
 
@@ -134,6 +148,7 @@ public class UtilisateurService {
 
         // Le mot de passe est mis à jour dans le contrôleur si fourni
 
+        statistiques.invalider();
         return utilisateurRepository.save(existingUser);
     }
 
@@ -146,6 +161,7 @@ public class UtilisateurService {
 
         user.setActif(actif);
 
+        statistiques.invalider();
         return utilisateurRepository.save(user);
     }
 
@@ -0,0 +1,10 @@
+Bonjour ${prenom} ${nom},
+
+Voici votre mot de passe pour accéder à votre compte :
+
+Mot de passe : ${motDePasse}
+
+Conseil de sécurité : Après votre première connexion, nous vous recommandons de changer votre mot de passe.
+
+Cordialement,
+L'équipe Hotel Management System
\ No newline at end of file
@@ -0,0 +1,10 @@
+Hello ${prenom} ${nom},
+
+Here is the password for your account:
+
+Password: ${motDePasse}
+
+Security tip: after your first login, we recommend changing your password.
+
+Best regards,
+The Hotel Management System team
\ No newline at end of file
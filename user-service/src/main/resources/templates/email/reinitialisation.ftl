@@ -0,0 +1,12 @@
+Bonjour ${prenom} ${nom},
+
+Vous avez demandé la réinitialisation de votre mot de passe.
+
+Votre code de réinitialisation est : ${code}
+
+Ce code expirera dans 1 heure.
+
+Si vous n'avez pas demandé cette réinitialisation, veuillez ignorer cet email.
+
+Cordialement,
+L'équipe Hotel Management System
\ No newline at end of file
@@ -0,0 +1,12 @@
+Hello ${prenom} ${nom},
+
+You asked to reset your password.
+
+Your reset code is: ${code}
+
+This code expires in 1 hour.
+
+If you did not ask for this reset, please ignore this email.
+
+Best regards,
+The Hotel Management System team
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.hotel.benchmark;
+
+import com.hotel.security.IndexRevocations;
+import com.hotel.security.JwtAuthFilter;
+import com.hotel.security.JwtUtil;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit du filtre JWT de user-service pour une requête authentifiée avec un jeton déjà vu :
+ * filtre initial (deux parsers construits et deux vérifications HMAC par requête)
+ * contre JwtAuthFilter actuel (parser partagé, cache des jetons vérifiés de JwtUtil,
+ * contrôle de l'index des révocations).
+ *
+ * Lancement :
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *   -Dexec.args="-cp %classpath com.hotel.benchmark.JwtFiltreBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFiltreBenchmark {
+
+    private static final String SECRET = "votre-secret-key-tres-long-et-securise-pour-gestion-hotel-2024-spring-boot-jwt-security";
+
+    private MockHttpServletRequest requete;
+    private Filter filtreInitial;
+    private Filter filtreCache;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, Duration.ofMinutes(15), 10_000L);
+        String jeton = jwtUtil.generateToken("client@example.com", "CLIENT");
+
+        requete = new MockHttpServletRequest("GET", "/api/auth/me");
+        requete.addHeader("Authorization", "Bearer " + jeton);
+
+        filtreInitial = new JwtFiltreInitial(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)));
+
+        IndexRevocations indexRevocations = new IndexRevocations(new SimpleMeterRegistry(), 65_536);
+        ReflectionTestUtils.setField(indexRevocations, "dureeAcces", Duration.ofMinutes(15));
+        // Quelques utilisateurs révoqués : le filtre de Bloom n'est pas vide
+        for (int i = 0; i < 100; i++) {
+            indexRevocations.revoquer("revoque" + i + "@example.com");
+        }
+        filtreCache = new JwtAuthFilter(jwtUtil, indexRevocations);
+    }
+
+    @Benchmark
+    public Authentication initial() throws Exception {
+        return filtrer(filtreInitial);
+    }
+
+    @Benchmark
+    public Authentication cache() throws Exception {
+        return filtrer(filtreCache);
+    }
+
+    private Authentication filtrer(Filter filtre) throws Exception {
+        // OncePerRequestFilter marque la requête : attribut retiré pour la traiter à nouveau
+        requete.clearAttributes();
+        filtre.doFilter(requete, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentification = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentification;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(JwtFiltreBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,158 @@
+package com.hotel.controllers;
+
+import com.hotel.entities.Role;
+import com.hotel.entities.Utilisateur;
+import com.hotel.repositories.UtilisateurRepository;
+import com.hotel.security.AdresseClient;
+import com.hotel.security.HachageMotDePasse;
+import com.hotel.security.IndexRevocations;
+import com.hotel.security.JwtUtil;
+import com.hotel.security.LimiteurConnexions;
+import com.hotel.services.EmailService;
+import com.hotel.services.JetonRafraichissementService;
+import com.hotel.services.ReservationCacheNotifier;
+import com.hotel.services.StatistiquesUtilisateursService;
+import com.hotel.services.UtilisateurService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Mot de passe changé (réinitialisation, mot de passe envoyé, changement, profil) : les jetons de
+ * rafraîchissement et les jetons d'accès émis avant ne sont plus acceptés (base H2)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({JetonRafraichissementService.class, UtilisateurService.class, StatistiquesUtilisateursService.class,
+        IndexRevocations.class, AuthControllerSessionsTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthControllerSessionsTest {
+
+    private static final String EMAIL = "client@hotel.ma";
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private JetonRafraichissementService jetonRafraichissementService;
+
+    @Autowired
+    private UtilisateurService utilisateurService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private IndexRevocations indexRevocations;
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private AuthController authController;
+    private Utilisateur utilisateur;
+    private String ancienJeton;
+    private long emissionAcces;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        authController = new AuthController(utilisateurService, passwordEncoder, mock(JwtUtil.class),
+                mock(EmailService.class), mock(HachageMotDePasse.class), mock(LimiteurConnexions.class),
+                jetonRafraichissementService, mock(AdresseClient.class), mock(ReservationCacheNotifier.class));
+
+        Utilisateur nouveau = new Utilisateur();
+        nouveau.setNom("Alaoui");
+        nouveau.setPrenom("Sara");
+        nouveau.setEmail(EMAIL);
+        nouveau.setMotDePasse(passwordEncoder.encode("ancien-mdp"));
+        nouveau.setRole(Role.CLIENT);
+        utilisateur = utilisateurRepository.save(nouveau);
+
+        ancienJeton = jetonRafraichissementService.emettre(utilisateur);
+        // Jeton d'accès émis avant le changement (iat à la seconde : la révocation tombe la seconde suivante)
+        emissionAcces = System.currentTimeMillis();
+        Thread.sleep(1_000 - emissionAcces % 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        utilisateurRepository.deleteAll();
+    }
+
+    @Test
+    void ancienJetonRefuseApresReinitialisation() {
+        utilisateur.setResetToken("123456");
+        utilisateur.setTokenExpiry(LocalDateTime.now().plusHours(1));
+        utilisateurRepository.save(utilisateur);
+
+        var reponse = authController.resetPassword(Map.of(
+                "email", EMAIL, "token", "123456", "newPassword", "nouveau-mdp"));
+
+        assertThat(reponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertSessionsFermees();
+    }
+
+    @Test
+    void ancienJetonRefuseApresMotDePasseEnvoye() {
+        authController.sendPassword(Map.of("email", EMAIL));
+
+        assertSessionsFermees();
+    }
+
+    @Test
+    void ancienJetonRefuseApresChangementDeMotDePasse() {
+        var reponse = authController.changePassword(
+                Map.of("currentPassword", "ancien-mdp", "newPassword", "nouveau-mdp"), authentification());
+
+        assertThat(reponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertSessionsFermees();
+    }
+
+    @Test
+    void ancienJetonRefuseApresMotDePasseChangeDansLeProfil() {
+        authController.updateMyProfile(Map.of("motDePasse", "nouveau-mdp"), authentification());
+
+        assertSessionsFermees();
+    }
+
+    @Test
+    void profilSansChangementSensibleGardeLesSessions() {
+        authController.updateMyProfile(Map.of("nom", "Bennani"), authentification());
+
+        assertThat(indexRevocations.estRevoque(EMAIL, emissionAcces)).isFalse();
+        assertThat(jetonRafraichissementService.renouveler(ancienJeton)).isPresent();
+    }
+
+    private void assertSessionsFermees() {
+        assertThat(jetonRafraichissementService.renouveler(ancienJeton)).isEmpty();
+        assertThat(indexRevocations.estRevoque(EMAIL, emissionAcces)).isTrue();
+    }
+
+    private UsernamePasswordAuthenticationToken authentification() {
+        return new UsernamePasswordAuthenticationToken(EMAIL, null);
+    }
+}
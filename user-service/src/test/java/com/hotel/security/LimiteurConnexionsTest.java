@@ -0,0 +1,79 @@
+package com.hotel.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Limite de connexions par IP : un X-Forwarded-For changé à chaque tentative ne donne pas un nouveau seau
+ */
+class LimiteurConnexionsTest {
+
+    private static final String NGINX = "172.18.0.10";
+
+    private LimiteurConnexions limiteur;
+    private AdresseClient adresseClient;
+
+    @BeforeEach
+    void setUp() {
+        // 3 tentatives par IP, pas de recharge pendant le test ; limite par email hors de portée
+        limiteur = new LimiteurConnexions(new SimpleMeterRegistry(), 3, 0.001, 1_000, 1_000);
+        adresseClient = new AdresseClient(Set.of(NGINX));
+    }
+
+    @Test
+    void xForwardedForUsurpeNeRemetPasLeSeauAZero() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(tenter(requeteDirecte("203.0.113.5", "10.0.0." + i), i)).isZero();
+        }
+        assertThat(tenter(requeteDirecte("203.0.113.5", "10.0.0.99"), 99)).isPositive();
+    }
+
+    @Test
+    void derriereNginxXForwardedForUsurpeEstIgnore() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(tenter(requeteViaNginx("198.51.100.7", "10.0.0." + i + ", 198.51.100.7"), i)).isZero();
+        }
+        assertThat(tenter(requeteViaNginx("198.51.100.7", "10.0.0.99, 198.51.100.7"), 99)).isPositive();
+    }
+
+    @Test
+    void derriereNginxChaqueClientASonSeau() {
+        for (int i = 0; i < 3; i++) {
+            tenter(requeteViaNginx("198.51.100.7", null), i);
+        }
+        assertThat(tenter(requeteViaNginx("198.51.100.8", null), 10)).isZero();
+    }
+
+    @Test
+    void xRealIpIgnoreHorsProxyDeConfiance() {
+        MockHttpServletRequest request = requeteDirecte("203.0.113.5", null);
+        request.addHeader("X-Real-IP", "10.9.9.9");
+
+        assertThat(adresseClient.resoudre(request)).isEqualTo("203.0.113.5");
+    }
+
+    private long tenter(MockHttpServletRequest request, int numero) {
+        return limiteur.reserver(adresseClient.resoudre(request), "client" + numero + "@hotel.ma");
+    }
+
+    private static MockHttpServletRequest requeteDirecte(String adresse, String xForwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(adresse);
+        if (xForwardedFor != null) {
+            request.addHeader("X-Forwarded-For", xForwardedFor);
+        }
+        return request;
+    }
+
+    private static MockHttpServletRequest requeteViaNginx(String client, String xForwardedFor) {
+        MockHttpServletRequest request = requeteDirecte(NGINX, xForwardedFor);
+        request.addHeader("X-Real-IP", client);
+        return request;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hotel.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Expéditeur SMTP contre un serveur local (GreenMail) : lots sur une connexion, métriques, arrêt
+ */
+class ExpediteurSmtpTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private JavaMailSenderImpl mailSender;
+    private SimpleMeterRegistry registry;
+    private ExpediteurSmtp expediteur;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        registry = new SimpleMeterRegistry();
+
+        expediteur = new ExpediteurSmtp(mailSender, registry, 1, 20, 100);
+        ReflectionTestUtils.setField(expediteur, "attente", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(expediteur, "inactivite", Duration.ofSeconds(30));
+        expediteur.demarrer();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        expediteur.arreter();
+    }
+
+    @Test
+    void emailsSimultanesEnvoyesSurUneSeuleConnexion() throws Exception {
+        ExecutorService appelants = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<?>> envois = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                MimeMessage message = message("client" + i + "@example.com");
+                envois.add(appelants.submit(() -> {
+                    expediteur.envoyer(message);
+                    return null;
+                }));
+            }
+            for (Future<?> envoi : envois) {
+                envoi.get();
+            }
+        } finally {
+            appelants.shutdownNow();
+        }
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(10);
+        assertThat(registry.get("mail.smtp.connexions").counter().count()).isEqualTo(1);
+        assertThat(registry.get("mail.smtp.envoi").tag("resultat", "succes").timer().count()).isEqualTo(10);
+        assertThat(registry.get("mail.smtp.lot").summary().totalAmount()).isEqualTo(10);
+        assertThat(registry.get("mail.smtp.file").gauge().value()).isZero();
+    }
+
+    @Test
+    void serveurInjoignableEchecRemonteALAppelant() throws Exception {
+        greenMail.stop();
+
+        assertThatThrownBy(() -> expediteur.envoyer(message("client@example.com")))
+                .isInstanceOf(MessagingException.class);
+        assertThat(registry.get("mail.smtp.connexions").counter().count()).isZero();
+    }
+
+    @Test
+    void arretFermeLaConnexionEnCoursDUtilisation() throws Exception {
+        expediteur.envoyer(message("client@example.com"));
+
+        expediteur.arreter();
+
+        // Le thread d'envoi propriétaire de la connexion l'a fermée en se terminant
+        assertThat(Thread.getAllStackTraces().keySet())
+                .noneMatch(thread -> thread.getName().equals("smtp-1"));
+        assertThatThrownBy(() -> expediteur.envoyer(message("autre@example.com")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private MimeMessage message(String destinataire) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom("contact@hotelms.com");
+        helper.setTo(destinataire);
+        helper.setSubject("Test");
+        helper.setText("Bonjour");
+        return message;
+    }
+}
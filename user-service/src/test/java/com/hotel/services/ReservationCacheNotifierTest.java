@@ -0,0 +1,49 @@
+package com.hotel.services;
+
+import com.hotel.security.JetonService;
+import com.hotel.security.JetonVerifie;
+import com.hotel.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withNoContent;
+
+/**
+ * Invalidation du cache de reservation-service : appel authentifié par un jeton de service
+ */
+class ReservationCacheNotifierTest {
+
+    private static final String SECRET = "secret-de-test-assez-long-pour-hmac-sha256-gestion-hotel";
+
+    @Test
+    void invalidationEnvoieUnJetonDeService() {
+        MockServerRestTemplateCustomizer serveur = new MockServerRestTemplateCustomizer();
+        ReservationCacheNotifier notifier = new ReservationCacheNotifier(new RestTemplateBuilder(serveur),
+                new JetonService(SECRET, "user-service", Duration.ofMinutes(5)));
+        ReflectionTestUtils.setField(notifier, "reservationsServiceUrl", "http://reservations");
+
+        AtomicReference<String> autorisation = new AtomicReference<>();
+        serveur.getServer().expect(requestTo("http://reservations/api/utilisateurs/7/cache"))
+                .andExpect(method(HttpMethod.DELETE))
+                .andExpect(requete -> autorisation.set(requete.getHeaders().getFirst(HttpHeaders.AUTHORIZATION)))
+                .andRespond(withNoContent());
+
+        notifier.invaliderUtilisateur(7L);
+
+        serveur.getServer().verify();
+        assertThat(autorisation.get()).startsWith("Bearer ");
+        JetonVerifie jeton = new JwtUtil(SECRET, Duration.ofMinutes(15), 100).verifier(autorisation.get().substring(7));
+        assertThat(jeton.role()).isEqualTo(JetonService.ROLE);
+        assertThat(jeton.username()).isEqualTo("user-service");
+    }
+}